@@ -4,9 +4,25 @@ import eadjlib.exception.UndefinedException;
 import eadjlib.logger.Logger;
 import javafx.util.Pair;
 
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static eadjlib.datastructure.AVLTree.Branch.*;
 
@@ -14,6 +30,17 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
     private final Logger log = Logger.getLoggerInstance(AVLTree.class.getName());
     private Integer node_count = 0;
     private AVLTreeNode<K, V> root;
+    private HashMap<V, TreeSet<K>> value_index = null;
+    private int parallel_threshold = 4096;
+    private AVLTreeCache<K, V> cache = null;
+    private int epoch = 0; //bumped whenever the nodes are moved out of the tree wholesale
+    private boolean relaxed = false;
+    private boolean unbalanced = false; //set when a relaxed update leaves a node out of strict AVL balance
+    private static final int RELAXED_SLACK = 4; //balance factor tolerated in relaxed mode before rotating
+    private static final int SNAPSHOT_MAGIC = 0x41564C54; //"AVLT"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_BUFFER_SIZE = 1 << 20;
+    private static final int SNAPSHOT_REGION_SIZE = 1 << 30; //size of the file regions mapped when reading
 
     //==================================================================================================================
     // Sub-classes
@@ -27,30 +54,60 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
     }
 
     /**
-     * Iterator
+     * In-order iterator (ascending or descending) over the sub-tree of a node
+     * Note: walks the parent links so iterating needs no extra storage, allocation or locking
      */
     public class AVLTreeIterator implements Iterator<AVLTreeNode<K, V>> {
-        private Stack<AVLTreeNode<K, V>> stack = new Stack<>();
+        private final AVLTreeNode<K, V> top;
+        private final boolean descending;
+        private AVLTreeNode<K, V> next;
 
         /**
-         * Adds all left nodes available from a starting node
+         * Constructor
          *
-         * @param node Starting node
+         * @param root Starting node
          */
-        private void addAll(AVLTreeNode<K, V> node) {
-            while (node != null) {
-                this.stack.push(node);
-                node = node.left;
-            }
+        public AVLTreeIterator(AVLTreeNode<K, V> root) {
+            this(root, false);
         }
 
         /**
          * Constructor
          *
-         * @param root Starting node
+         * @param root       Starting node
+         * @param descending Flag to iterate in descending order of key
          */
-        public AVLTreeIterator(AVLTreeNode<K, V> root) {
-            this.addAll(root);
+        public AVLTreeIterator(AVLTreeNode<K, V> root, boolean descending) {
+            this.top = root;
+            this.descending = descending;
+            this.next = root;
+            if (root != null) {
+                AVLTreeNode<K, V> child;
+                while ((child = descending ? this.next.right : this.next.left) != null) {
+                    this.next = child;
+                }
+            }
+        }
+
+        /**
+         * Gets the following node in the iteration order within the sub-tree
+         *
+         * @param node Current node
+         * @return Following node or null when the sub-tree is exhausted
+         */
+        private AVLTreeNode<K, V> step(AVLTreeNode<K, V> node) {
+            AVLTreeNode<K, V> child = this.descending ? node.left : node.right;
+            if (child != null) {
+                node = child;
+                while ((child = this.descending ? node.right : node.left) != null) {
+                    node = child;
+                }
+                return node;
+            }
+            while (node != this.top && (this.descending ? node.parent.left : node.parent.right) == node) {
+                node = node.parent;
+            }
+            return node == this.top ? null : node.parent;
         }
 
         /**
@@ -58,18 +115,21 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
          */
         @Override
         public boolean hasNext() {
-            return !this.stack.isEmpty();
+            return this.next != null;
         }
 
         /**
          * {@inheritDoc}
          *
          * @return next AVLTreeNode
+         * @throws NoSuchElementException when there are no more nodes
          */
         @Override
-        public AVLTreeNode<K, V> next() {
-            AVLTreeNode<K, V> current = stack.pop();
-            this.addAll(current.right);
+        public AVLTreeNode<K, V> next() throws NoSuchElementException {
+            if (this.next == null)
+                throw new NoSuchElementException("No more nodes in the tree.");
+            AVLTreeNode<K, V> current = this.next;
+            this.next = step(current);
             return current;
         }
 
@@ -92,6 +152,721 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
         }
     }
 
+    /**
+     * Bounded view over a key range of the tree
+     * Note: iterators seek the first node of the range in O(log n) then walk the parent links lazily
+     */
+    public class AVLTreeRange implements Iterable<AVLTreeNode<K, V>> {
+        private final K from;
+        private final boolean from_inclusive;
+        private final K to;
+        private final boolean to_inclusive;
+
+        /**
+         * Iterator over the nodes of the range
+         */
+        private class AVLTreeRangeIterator implements Iterator<AVLTreeNode<K, V>> {
+            private final boolean descending;
+            private AVLTreeNode<K, V> next;
+
+            /**
+             * Constructor
+             *
+             * @param descending Flag for descending order
+             */
+            AVLTreeRangeIterator(boolean descending) {
+                this.descending = descending;
+                if (descending) {
+                    this.next = to == null ? last() : floorNode(to, to_inclusive);
+                } else {
+                    this.next = from == null ? first() : ceilingNode(from, from_inclusive);
+                }
+                if (this.next != null && !inRange(this.next.key))
+                    this.next = null;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            /**
+             * {@inheritDoc}
+             *
+             * @return next AVLTreeNode in the range
+             * @throws NoSuchElementException when there are no more nodes in the range
+             */
+            @Override
+            public AVLTreeNode<K, V> next() throws NoSuchElementException {
+                if (this.next == null)
+                    throw new NoSuchElementException("No more nodes in the range.");
+                AVLTreeNode<K, V> current = this.next;
+                this.next = this.descending ? predecessor(current) : successor(current);
+                if (this.next != null && !inRange(this.next.key))
+                    this.next = null;
+                return current;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void remove() throws UnsupportedOperationException {
+                throw new UnsupportedOperationException("Removal is not supported on the AVL tree range iterator.");
+            }
+        }
+
+        /**
+         * Constructor
+         *
+         * @param from           Lower bound (null for unbounded)
+         * @param from_inclusive Flag to include the lower bound
+         * @param to             Upper bound (null for unbounded)
+         * @param to_inclusive   Flag to include the upper bound
+         */
+        AVLTreeRange(K from, boolean from_inclusive, K to, boolean to_inclusive) {
+            this.from = from;
+            this.from_inclusive = from_inclusive;
+            this.to = to;
+            this.to_inclusive = to_inclusive;
+        }
+
+        /**
+         * Checks if a key is within the range
+         *
+         * @param key Key
+         * @return In range state
+         */
+        boolean inRange(K key) {
+            if (this.from != null) {
+                int comparison = key.compareTo(this.from);
+                if (comparison < 0 || (comparison == 0 && !this.from_inclusive))
+                    return false;
+            }
+            if (this.to != null) {
+                int comparison = key.compareTo(this.to);
+                if (comparison > 0 || (comparison == 0 && !this.to_inclusive))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         * Note: iterates in ascending key order
+         */
+        @Override
+        public Iterator<AVLTreeNode<K, V>> iterator() {
+            return new AVLTreeRangeIterator(false);
+        }
+
+        /**
+         * Gets an iterator over the range in descending key order
+         *
+         * @return Descending iterator
+         */
+        public Iterator<AVLTreeNode<K, V>> descendingIterator() {
+            return new AVLTreeRangeIterator(true);
+        }
+
+        /**
+         * Gets the number of keys in the range
+         *
+         * @return Number of keys
+         */
+        public int size() {
+            int upper = this.to == null ? node_count : countBelow(this.to, this.to_inclusive);
+            int lower = this.from == null ? 0 : countBelow(this.from, !this.from_inclusive);
+            return upper > lower ? upper - lower : 0;
+        }
+
+        /**
+         * Checks if the range is empty
+         *
+         * @return Empty state of the range
+         */
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+    }
+
+    /**
+     * Finger remembering the last node it accessed so that searches for nearby keys start from there
+     * Note: a search climbs the parent links from the finger, only comparing keys at the ancestors bounding its
+     * sub-tree, and descends from the lowest node whose sub-tree can hold the key. Walking keys in (nearly) sorted
+     * order thus costs O(log d) key comparisons, d being the distance from the previous key, instead of O(log n).
+     * The finger falls back to the root when its node was removed or the tree emptied.
+     */
+    public class AVLTreeFinger {
+        private AVLTreeNode<K, V> node = null;
+        private int epoch = AVLTree.this.epoch;
+
+        /**
+         * Gets the node from which to descend to a key
+         *
+         * @param key Key
+         * @return Lowest ancestor of the finger whose sub-tree can hold the key (or root)
+         */
+        private AVLTreeNode<K, V> start(K key) {
+            AVLTreeNode<K, V> x = this.node;
+            if (x == null || this.epoch != AVLTree.this.epoch || (x.parent == null && x != root)) {
+                this.epoch = AVLTree.this.epoch;
+                return root;
+            }
+            int comparison = key.compareTo(x.key);
+            if (comparison == 0)
+                return x;
+            //Climbs to the first ancestor bounding the key on the far side, descending from the lowest node passed
+            //whose key range can hold the key (climbing along the near side does not change that range's far bound)
+            AVLTreeNode<K, V> from = x;
+            while (x.parent != null) {
+                if (comparison > 0 ? x == x.parent.left : x == x.parent.right) {
+                    int bound = key.compareTo(x.parent.key);
+                    if (bound == 0)
+                        return x.parent;
+                    if ((bound < 0) == (comparison > 0))
+                        return from;
+                    from = x.parent;
+                }
+                x = x.parent;
+            }
+            return from;
+        }
+
+        /**
+         * Moves the finger to the node of a key or to its insertion point
+         *
+         * @param key Key
+         * @return Node of the key, insertion point or null when the tree is empty
+         */
+        private AVLTreeNode<K, V> seek(K key) {
+            AVLTreeNode<K, V> node = start(key);
+            while (node != null) {
+                int comparison = key.compareTo(node.key);
+                AVLTreeNode<K, V> next = comparison < 0 ? node.left : (comparison > 0 ? node.right : null);
+                if (next == null)
+                    break;
+                node = next;
+            }
+            this.node = node;
+            return node;
+        }
+
+        /**
+         * Looks for the existence of a key in the tree from the finger
+         *
+         * @param key Key to look for
+         * @return Key existence state
+         */
+        public boolean search(K key) {
+            AVLTreeNode<K, V> node = seek(key);
+            return node != null && key.compareTo(node.key) == 0;
+        }
+
+        /**
+         * Gets the value for a key from the finger
+         *
+         * @param key Key
+         * @return Value at key
+         * @throws NullPointerException when key is not in AVLTree
+         */
+        public V getValue(K key) throws NullPointerException {
+            AVLTreeNode<K, V> node = seek(key);
+            if (node != null && key.compareTo(node.key) == 0)
+                return node.value;
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in AVLTree.");
+        }
+
+        /**
+         * Adds a key to the tree from the finger
+         *
+         * @param key   Key to add
+         * @param value Value to add
+         * @return Success
+         * @throws UndefinedException when corruption is detected during re-balancing
+         */
+        public boolean add(K key, V value) throws UndefinedException {
+            AVLTreeNode<K, V> parent = seek(key);
+            if (parent != null && key.compareTo(parent.key) == 0) {
+                log.log_Error("Key '", key, "' already exists in tree.");
+                return false;
+            }
+            this.node = insertAt(parent, key, value);
+            return true;
+        }
+
+        /**
+         * Gets the node last accessed by the finger
+         *
+         * @return Node (null when the finger has not been used yet)
+         */
+        public AVLTreeNode<K, V> node() {
+            return this.node;
+        }
+
+        /**
+         * Resets the finger to the root
+         */
+        public void reset() {
+            this.node = null;
+        }
+    }
+
+    /**
+     * Fold of the tree over its sub-trees, used by the parallel bulk operations
+     *
+     * @param <R> Result type
+     */
+    private abstract class SubTreeFold<R> {
+        /**
+         * Folds a sub-tree sequentially
+         *
+         * @param root Root of the sub-tree (can be null)
+         * @return Result for the sub-tree
+         */
+        abstract R fold(AVLTreeNode<K, V> root);
+
+        /**
+         * Combines the results of the sub-trees of a node with the node itself
+         *
+         * @param left  Result of the left sub-tree
+         * @param node  Node
+         * @param right Result of the right sub-tree
+         * @return Result for the node's sub-tree
+         */
+        abstract R combine(R left, AVLTreeNode<K, V> node, R right);
+
+        /**
+         * Runs the fold on the whole tree in the common ForkJoinPool
+         *
+         * @return Result for the tree
+         */
+        R invoke() {
+            return root == null ? fold(null) : ForkJoinPool.commonPool().invoke(new SubTreeTask<>(this, root));
+        }
+    }
+
+    /**
+     * Fork/join task forking at the sub-tree roots until they are under the parallel threshold
+     *
+     * @param <R> Result type
+     */
+    private class SubTreeTask<R> extends RecursiveTask<R> {
+        private final SubTreeFold<R> fold;
+        private final AVLTreeNode<K, V> node;
+
+        /**
+         * Constructor
+         *
+         * @param fold Fold to run
+         * @param node Root of the sub-tree
+         */
+        SubTreeTask(SubTreeFold<R> fold, AVLTreeNode<K, V> node) {
+            this.fold = fold;
+            this.node = node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected R compute() {
+            if (this.node.size <= parallel_threshold)
+                return this.fold.fold(this.node);
+            SubTreeTask<R> left = this.node.left != null ? new SubTreeTask<>(this.fold, this.node.left) : null;
+            if (left != null)
+                left.fork();
+            R right = this.node.right != null ? new SubTreeTask<>(this.fold, this.node.right).compute() : this.fold.fold(null);
+            return this.fold.combine(left != null ? left.join() : this.fold.fold(null), this.node, right);
+        }
+    }
+
+    /**
+     * Result of a sub-tree split
+     *
+     * @param <K> Key type
+     * @param <V> Value type
+     */
+    private static class Split<K extends Comparable<? super K>, V> {
+        final AVLTreeNode<K, V> left;
+        final AVLTreeNode<K, V> node;
+        final AVLTreeNode<K, V> right;
+
+        /**
+         * Constructor
+         *
+         * @param left  Root of the sub-tree with the keys before the split (can be null)
+         * @param node  Node split at (can be null)
+         * @param right Root of the sub-tree with the keys after the split (can be null)
+         */
+        Split(AVLTreeNode<K, V> left, AVLTreeNode<K, V> node, AVLTreeNode<K, V> right) {
+            this.left = left;
+            this.node = node;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Probe key of a batched look-up with its index in the batch
+     *
+     * @param <K> Key type
+     */
+    private static class Probe<K extends Comparable<? super K>> {
+        final K key;
+        final int index;
+
+        /**
+         * Constructor
+         *
+         * @param key   Key
+         * @param index Index of the key in the batch
+         */
+        Probe(K key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Describes the set operation type
+     */
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
+    /**
+     * Fork/join task running a set operation between 2 sub-trees with the split/join algorithms
+     * Note: each task works on its own disjoint set of nodes and re-balances in its own workspace tree
+     *
+     * @param <K> Key type
+     * @param <V> Value type
+     */
+    private static class SetOperationTask<K extends Comparable<? super K>, V> extends RecursiveTask<AVLTreeNode<K, V>> {
+        private final AVLTree<K, V> workspace = new AVLTree<>();
+        private final SetOperation operation;
+        private final BinaryOperator<V> merge;
+        private final int threshold;
+        private final AVLTreeNode<K, V> a;
+        private final AVLTreeNode<K, V> b;
+
+        /**
+         * Constructor
+         *
+         * @param operation Set operation
+         * @param merge     Function merging the values of keys found in both sub-trees (a's value first)
+         * @param threshold Combined sub-tree size under which the operation runs sequentially
+         * @param a         Root of the first sub-tree (can be null)
+         * @param b         Root of the second sub-tree (can be null)
+         */
+        SetOperationTask(SetOperation operation, BinaryOperator<V> merge, int threshold, AVLTreeNode<K, V> a, AVLTreeNode<K, V> b) {
+            this.operation = operation;
+            this.merge = merge;
+            this.threshold = threshold;
+            this.a = a;
+            this.b = b;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected AVLTreeNode<K, V> compute() {
+            try {
+                return run(this.a, this.b);
+            } catch (UndefinedException e) {
+                throw new RuntimeException("Corruption detected whilst running a " + this.operation + " on trees.", e);
+            }
+        }
+
+        /**
+         * Runs the set operation between 2 sub-trees
+         *
+         * @param a Root of the first sub-tree (can be null)
+         * @param b Root of the second sub-tree (can be null)
+         * @return Root of the resulting sub-tree
+         * @throws UndefinedException when corruption is detected during re-balancing
+         */
+        private AVLTreeNode<K, V> run(AVLTreeNode<K, V> a, AVLTreeNode<K, V> b) throws UndefinedException {
+            if (a == null)
+                return this.operation == SetOperation.UNION ? b : null;
+            if (b == null)
+                return this.operation == SetOperation.INTERSECTION ? null : a;
+            boolean parallel = a.size + b.size > this.threshold;
+            AVLTreeNode<K, V> pivot = a, l_a, r_a, l_b, r_b, found;
+            if (this.operation == SetOperation.DIFFERENCE) { //split a at b's root as b's nodes are all dropped
+                Split<K, V> halves = this.workspace.split(a, b.key);
+                l_a = halves.left;
+                r_a = halves.right;
+                l_b = b.left;
+                r_b = b.right;
+                found = halves.node;
+            } else { //split b at a's root as a's nodes are kept
+                Split<K, V> halves = this.workspace.split(b, a.key);
+                l_a = a.left;
+                r_a = a.right;
+                l_b = halves.left;
+                r_b = halves.right;
+                found = halves.node;
+            }
+            AVLTreeNode<K, V> left, right;
+            if (parallel) {
+                SetOperationTask<K, V> task = new SetOperationTask<>(this.operation, this.merge, this.threshold, l_a, l_b);
+                task.fork();
+                right = run(r_a, r_b);
+                left = task.join();
+            } else {
+                left = run(l_a, l_b);
+                right = run(r_a, r_b);
+            }
+            switch (this.operation) {
+                case UNION:
+                    if (found != null)
+                        pivot.value = this.merge.apply(pivot.value, found.value);
+                    return this.workspace.join(left, pivot, right);
+                case INTERSECTION:
+                    if (found == null)
+                        return this.workspace.join(left, right);
+                    pivot.value = this.merge.apply(pivot.value, found.value);
+                    return this.workspace.join(left, pivot, right);
+                default:
+                    return this.workspace.join(left, right);
+            }
+        }
+    }
+
+    /**
+     * Balanced builder reading the key-sorted entries of a snapshot sequentially
+     *
+     * @param <K> Key type
+     * @param <V> Value type
+     */
+    private static class SnapshotReader<K extends Comparable<? super K>, V> {
+        private final FileChannel channel;
+        private final long size;
+        private final int region;
+        private final IBinaryCodec<K> key_codec;
+        private final IBinaryCodec<V> value_codec;
+        private MappedByteBuffer buffer;
+        private long offset; //file offset of the mapped region
+        private K last = null;
+
+        /**
+         * Constructor
+         * Note: maps the first region of the file
+         *
+         * @param channel     File channel
+         * @param region      Size of the regions to map (bytes)
+         * @param key_codec   Key codec
+         * @param value_codec Value codec
+         * @throws IOException when the file cannot be mapped
+         */
+        SnapshotReader(FileChannel channel, int region, IBinaryCodec<K> key_codec, IBinaryCodec<V> value_codec) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.region = region;
+            this.key_codec = key_codec;
+            this.value_codec = value_codec;
+            map(0, region);
+        }
+
+        /**
+         * Maps a region of the file
+         *
+         * @param position File offset of the region
+         * @param length   Length of the region (clipped to the end of the file)
+         * @throws IOException when the file cannot be mapped
+         */
+        private void map(long position, long length) throws IOException {
+            this.offset = position;
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(length, this.size - position));
+        }
+
+        /**
+         * Gets the buffer of the mapped region
+         *
+         * @return Buffer positioned at the next unread byte
+         */
+        ByteBuffer buffer() {
+            return this.buffer;
+        }
+
+        /**
+         * Checks if the whole file has been read
+         *
+         * @return End of file state
+         */
+        boolean atEnd() {
+            return this.offset + this.buffer.position() == this.size;
+        }
+
+        /**
+         * Reads the next entry into a new node
+         * Note: an entry running past the end of the mapped region is read again from a region mapped at its start,
+         * made larger when the entry does not fit a whole region
+         *
+         * @param parent Parent of the node
+         * @return Node
+         * @throws IOException              when the entries are not strictly sorted by key
+         * @throws BufferUnderflowException when the file ends in the middle of the entry
+         */
+        private AVLTreeNode<K, V> next(AVLTreeNode<K, V> parent) throws IOException, BufferUnderflowException {
+            while (true) {
+                int start = this.buffer.position();
+                try {
+                    K key = this.key_codec.decode(this.buffer);
+                    if (key == null || (this.last != null && this.last.compareTo(key) >= 0))
+                        throw new IOException("Snapshot entries are not strictly sorted by key (at key '" + key + "').");
+                    V value = this.value_codec.decode(this.buffer);
+                    this.last = key;
+                    return new AVLTreeNode<>(parent, key, value);
+                } catch (BufferUnderflowException e) {
+                    if (this.offset + this.buffer.limit() >= this.size || (start == 0 && this.buffer.limit() == Integer.MAX_VALUE))
+                        throw e;
+                    long length = start == 0 ? Math.min(2L * this.buffer.limit(), Integer.MAX_VALUE) : this.region;
+                    map(this.offset + start, length);
+                }
+            }
+        }
+
+        /**
+         * Builds a perfectly balanced sub-tree from the next entries in-order
+         * Note: the shape is the same as the one given by build(..) for the same number of entries
+         *
+         * @param count  Number of entries to read
+         * @param parent Parent of the sub-tree
+         * @return Root of the sub-tree
+         * @throws IOException when the entries are not strictly sorted by key or a region cannot be mapped
+         */
+        AVLTreeNode<K, V> read(int count, AVLTreeNode<K, V> parent) throws IOException {
+            if (count == 0)
+                return null;
+            AVLTreeNode<K, V> left = read(count / 2, null);
+            AVLTreeNode<K, V> node = next(parent);
+            node.left = left;
+            if (left != null)
+                left.parent = node;
+            node.right = read(count - count / 2 - 1, node);
+            node.updateHeight();
+            node.updateSize();
+            return node;
+        }
+    }
+
+    /**
+     * Spliterator over the in-order ranks of the nodes
+     * Note: splits halve the rank range using the cached sub-tree sizes (O(log n) seek on the first advance)
+     * so the halves are always exactly sized. The tree must not be structurally modified during the traversal.
+     */
+    public class AVLTreeSpliterator implements Spliterator<AVLTreeNode<K, V>> {
+        private int index;
+        private int fence;
+        private AVLTreeNode<K, V> next;
+
+        /**
+         * Constructor
+         *
+         * @param index Rank of the first node (inclusive)
+         * @param fence Rank of the end of the range (exclusive) or -1 to bind to the tree's size on first use
+         * @param next  Node at the first rank (null to seek it on first use)
+         */
+        AVLTreeSpliterator(int index, int fence, AVLTreeNode<K, V> next) {
+            this.index = index;
+            this.fence = fence;
+            this.next = next;
+        }
+
+        /**
+         * Gets the end of the range, binding it to the tree's size on first use
+         *
+         * @return Fence
+         */
+        private int getFence() {
+            if (this.fence < 0)
+                this.fence = node_count;
+            return this.fence;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super AVLTreeNode<K, V>> action) {
+            if (this.index >= getFence())
+                return false;
+            if (this.next == null)
+                this.next = selectNode(this.index);
+            AVLTreeNode<K, V> current = this.next;
+            this.next = ++this.index < this.fence ? successor(current) : null;
+            action.accept(current);
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super AVLTreeNode<K, V>> action) {
+            int end = getFence();
+            if (this.index >= end)
+                return;
+            AVLTreeNode<K, V> current = this.next != null ? this.next : selectNode(this.index);
+            int remaining = end - this.index;
+            this.index = end;
+            this.next = null;
+            for (; remaining > 0; remaining--) {
+                action.accept(current);
+                if (remaining > 1)
+                    current = successor(current);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public AVLTreeSpliterator trySplit() {
+            int end = getFence();
+            int mid = (this.index + end) >>> 1;
+            if (mid <= this.index)
+                return null;
+            AVLTreeSpliterator prefix = new AVLTreeSpliterator(this.index, mid, this.next);
+            this.index = mid;
+            this.next = null;
+            return prefix;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long estimateSize() {
+            return getFence() - this.index;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return Comparator of the nodes' keys
+         */
+        @Override
+        public Comparator<? super AVLTreeNode<K, V>> getComparator() {
+            return Comparator.comparing(AVLTreeNode::key);
+        }
+    }
+
     //==================================================================================================================
     // Private methods
     //==================================================================================================================
@@ -123,6 +898,10 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
      * @return Key of value or null if not found
      */
     private K search(V value, AVLTreeNode<K, V> node) {
+        if (this.value_index != null) {
+            TreeSet<K> keys = this.value_index.get(value);
+            return keys == null ? null : keys.first();
+        }
         AVLTreeIterator iterator = new AVLTreeIterator(node);
         while (iterator.hasNext()) {
             AVLTreeNode<K, V> current = iterator.next();
@@ -134,64 +913,58 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
     }
 
     /**
-     * Helper function to remove a node matching given key
+     * Helper function to remove a node from the tree
      *
-     * @param key    Key to look for and remove
-     * @param parent Parent of current node
-     * @param branch Branch taken
-     * @param node   Current node
-     * @return Success
+     * @param node Node to remove
      * @throws UndefinedException when corruption is detected during the balancing of the parent
      */
-    private boolean remove(K key, AVLTreeNode<K, V> parent, Branch branch, AVLTreeNode<K, V> node) throws UndefinedException {
+    void removeNode(AVLTreeNode<K, V> node) throws UndefinedException {
         try {
-            log.log_Trace("Trying to remove K=", key, "; node is '", node.key, "'");
-            int comparison = node.key().compareTo(key);
-            if (comparison == 0) {
-                if (node.left != null ^ node.right != null) { // 0-1 child
-                    if (node.left != null) {
-                        AVLTreeNode<K, V> replacement = detach(node, LEFT);
-                        balance(attach(parent, branch, replacement));
-                    } else { //node.right != null
-                        AVLTreeNode<K, V> replacement = detach(node, RIGHT);
-                        balance(attach(parent, branch, replacement));
-                    }
-                } else if (node.right != null && node.left != null) { //2 children
-                    balance(replaceWithLargest(node, node.left));
-                } else { //It's a leaf node
-                    switch (branch) {
-                        case LEFT:
-                            parent.left = null;
-                            break;
-                        case RIGHT:
-                            parent.right = null;
-                            break;
-                        case ROOT:
-                            this.root = null;
-                            break;
-                    }
-                    balance(parent);
-                }
-                this.node_count--;
-                log.log_Debug("Removed '", key, "'.");
-                return true;
-            } else { //recurse until key is found
-                if (comparison > 0 && node.left != null) {
-                    return remove(key, node, LEFT, node.left);
+            unindexValue(node.key, node.value);
+            if (this.cache != null)
+                this.cache.invalidate(node.key);
+            AVLTreeNode<K, V> parent = node.parent;
+            Branch branch = getBranch(node);
+            if (node.left != null ^ node.right != null) { // 0-1 child
+                if (node.left != null) {
+                    AVLTreeNode<K, V> replacement = detach(node, LEFT);
+                    attach(parent, branch, replacement);
+                    restore(parent);
+                } else { //node.right != null
+                    AVLTreeNode<K, V> replacement = detach(node, RIGHT);
+                    attach(parent, branch, replacement);
+                    restore(parent);
                 }
-                if (comparison < 0 && node.right != null) {
-                    return remove(key, node, RIGHT, node.right);
+            } else if (node.right != null && node.left != null) { //2 children
+                restore(replaceWithLargest(node, node.left));
+            } else { //It's a leaf node
+                switch (branch) {
+                    case LEFT:
+                        parent.left = null;
+                        break;
+                    case RIGHT:
+                        parent.right = null;
+                        break;
+                    case ROOT:
+                        this.root = null;
+                        break;
                 }
-                return false;
+                restore(parent);
             }
+            node.parent = null;
+            node.left = null;
+            node.right = null;
+            this.node_count--;
         } catch (UndefinedException e) {
-            log.log_Fatal("Corruption detected during removal of a node with key '", key, "'.");
-            throw new UndefinedException("Corruption detected during removal of a node with key [" + key + "].", e);
+            log.log_Fatal("Corruption detected during removal of a node with key '", node.key, "'.");
+            throw new UndefinedException("Corruption detected during removal of a node with key [" + node.key + "].", e);
         }
     }
 
     /**
      * Replaces a node with the the largest valued node in the sub tree
+     * Note: the replacement inherits the cached height/size of the node it replaces so that the
+     * re-balancing can detect any change in height of the sub-tree at that position
      *
      * @param node        Node to replace
      * @param replacement Replacement candidate
@@ -199,52 +972,128 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
      * @throws UndefinedException when corruption is detected during the balancing of the parent
      */
     private AVLTreeNode<K, V> replaceWithLargest(AVLTreeNode<K, V> node, AVLTreeNode<K, V> replacement) throws UndefinedException {
-        if (replacement.right != null) {
-            return replaceWithLargest(node, replacement.right);
+        while (replacement.right != null) {
+            replacement = replacement.right;
+        }
+        AVLTreeNode<K, V> replacement_parent = replacement.parent;
+        if (replacement_parent == node) {
+            detach(node, LEFT);
         } else {
-            AVLTreeNode<K, V> replacement_parent = replacement.parent;
-            Branch replacement_branch = (replacement_parent == node ? getBranch(replacement) : RIGHT);
-            AVLTreeNode<K, V> replacement_node = detach(replacement_parent, replacement_branch);
-            if (node.left != null)
-                attach(replacement_node, LEFT, detach(node, LEFT));
-            if (node.right != null)
-                attach(replacement_node, RIGHT, detach(node, RIGHT));
-            attach(node.parent, getBranch(node), replacement_node);
-            return replacement_parent == node
-                    ? replacement
-                    : replacement_parent;
+            detach(replacement_parent, RIGHT);
+            if (replacement.left != null)
+                attach(replacement_parent, RIGHT, detach(replacement, LEFT));
+            attach(replacement, LEFT, detach(node, LEFT));
         }
+        if (node.right != null)
+            attach(replacement, RIGHT, detach(node, RIGHT));
+        replacement.height = node.height;
+        replacement.size = node.size;
+        attach(node.parent, getBranch(node), replacement);
+        return replacement_parent == node
+                ? replacement
+                : replacement_parent;
     }
 
     /**
      * Balances the nodes in the tree in reverse (leaf to root)
+     * Note: rotations stop at the first ancestor whose sub-tree height is unchanged as nothing above it can be
+     * affected, from there only the cached sub-tree sizes are refreshed up to the root
+     *
+     * @param node Root of the balance
+     */
+    private void balance(AVLTreeNode<K, V> node) throws UndefinedException {
+        try {
+            while (node != null) {
+                AVLTreeNode<K, V> parent = node.parent;
+                int height = node.height();
+                node.updateHeight();
+                node.updateSize();
+                int factor = node.getBalanceFactor();
+                if (factor > 1) { //right rotation
+                    if (node.left.getBalanceFactor() >= 0)
+                        rotateRR(parent, getBranch(node));
+                    else
+                        rotateLR(parent, getBranch(node));
+                    node = node.parent;
+                } else if (factor < -1) { //left rotation
+                    if (node.right.getBalanceFactor() <= 0)
+                        rotateLL(parent, getBranch(node));
+                    else
+                        rotateRL(parent, getBranch(node));
+                    node = node.parent;
+                }
+                if (node.height() == height) {
+                    for (node = parent; node != null; node = node.parent) {
+                        node.updateSize();
+                    }
+                    return;
+                }
+                node = parent;
+            }
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected in the AVL tree whilst balancing node [", node.key, "].");
+            throw new UndefinedException("Corruption detected in the AVL tree whilst balancing node [" + node.key + "].", e);
+        }
+    }
+
+    /**
+     * Refreshes the nodes in reverse (leaf to root) rotating only where the imbalance exceeds the relaxed slack
+     * Note: a rotation is done by the update pushing a node past the slack so the height stays within a constant
+     * factor of log n; lesser imbalances are only recorded until the next rebalance(). As with balance(..), only
+     * the cached sizes are refreshed above the first ancestor whose sub-tree height is unchanged.
      *
-     * @param node Root of the balance
+     * @param node Root of the update
      */
-    private void balance(AVLTreeNode<K, V> node) throws UndefinedException {
+    private void relax(AVLTreeNode<K, V> node) throws UndefinedException {
         try {
-            if (node != null) {
+            while (node != null) {
                 AVLTreeNode<K, V> parent = node.parent;
+                int height = node.height();
+                node.updateHeight();
+                node.updateSize();
                 int factor = node.getBalanceFactor();
-                if (factor > 1) { //right rotation
+                if (factor > RELAXED_SLACK) {
                     if (node.left.getBalanceFactor() >= 0)
-                        parent = rotateRR(parent, getBranch(node));
+                        rotateRR(parent, getBranch(node));
                     else
-                        parent = rotateLR(parent, getBranch(node));
-                } else if (factor < -1) { //left rotation
+                        rotateLR(parent, getBranch(node));
+                    node = node.parent;
+                } else if (factor < -RELAXED_SLACK) {
                     if (node.right.getBalanceFactor() <= 0)
-                        parent = rotateLL(parent, getBranch(node));
+                        rotateLL(parent, getBranch(node));
                     else
-                        parent = rotateRL(parent, getBranch(node));
+                        rotateRL(parent, getBranch(node));
+                    node = node.parent;
+                }
+                if (factor > 1 || factor < -1)
+                    this.unbalanced = true;
+                if (node.height() == height) {
+                    for (node = parent; node != null; node = node.parent) {
+                        node.updateSize();
+                    }
+                    return;
                 }
-                balance(parent);
+                node = parent;
             }
         } catch (UndefinedException e) {
-            log.log_Fatal("Corruption detected in the AVL tree whilst balancing node [", node.key, "].");
-            throw new UndefinedException("Corruption detected in the AVL tree whilst balancing node [" + node.key + "].", e);
+            log.log_Fatal("Corruption detected in the AVL tree whilst relaxing node [", node.key, "].");
+            throw new UndefinedException("Corruption detected in the AVL tree whilst relaxing node [" + node.key + "].", e);
         }
     }
 
+    /**
+     * Restores the tree after a node was attached or detached under a node
+     *
+     * @param node Lowest node whose sub-tree changed
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    private void restore(AVLTreeNode<K, V> node) throws UndefinedException {
+        if (this.relaxed)
+            relax(node);
+        else
+            balance(node);
+    }
+
 
     /**
      * Right rotation
@@ -264,6 +1113,10 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
                 attach(a, LEFT, detach(b, RIGHT));
             attach(b, RIGHT, a);
             attach(parent, branch, b);
+            a.updateHeight();
+            a.updateSize();
+            b.updateHeight();
+            b.updateSize();
         }
         return parent;
     }
@@ -286,6 +1139,10 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
                 attach(a, RIGHT, detach(b, LEFT));
             attach(b, LEFT, a);
             attach(parent, branch, b);
+            a.updateHeight();
+            a.updateSize();
+            b.updateHeight();
+            b.updateSize();
         }
         return parent;
     }
@@ -375,58 +1232,674 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
                 this.root.parent = null;
                 return this.root;
         }
-        return null;
+        return null;
+    }
+
+    /**
+     * Gets the child of a parent in the branch specified
+     *
+     * @param parent Parent node
+     * @param branch Branch to pluck the child from
+     * @return Child node
+     * @throws UndefinedException when the parent is null and branch is not ROOT
+     */
+    private AVLTreeNode<K, V> getChild(AVLTreeNode<K, V> parent, Branch branch) throws UndefinedException {
+        if (parent == null && branch != ROOT) {
+            throw new UndefinedException("Parent is undefined (i.e.: null).");
+        }
+        switch (branch) {
+            case LEFT:
+                if (parent.left != null) return parent.left;
+                break;
+            case RIGHT:
+                if (parent.right != null) return parent.right;
+                break;
+            case ROOT:
+                if (this.root != null) return this.root;
+                break;
+        }
+        log.log_Error("Child doesn't exist.");
+        return null;
+    }
+
+    /**
+     * Gets the branch from which the node spawns from
+     *
+     * @param node Node to search the m_parent's branch of
+     * @return Spawning branch
+     * @throws UndefinedException when the node points to a parent that isn't his.
+     */
+    private Branch getBranch(AVLTreeNode<K, V> node) throws UndefinedException {
+        if (node.parent == null) return ROOT;
+        if (node.parent.left == node) return LEFT;
+        if (node.parent.right == node) return RIGHT;
+        throw new UndefinedException("Node [" + node.key + "] points to the wrong parent. Must have attachment issues or be confused.");
+    }
+
+    /**
+     * Finds the balance factor of a node
+     *
+     * @param node AVLTreeNode to check
+     * @return Balance factor
+     */
+    private Integer getHeightDifference(AVLTreeNode<K, V> node) {
+        return node.left.height() - node.right.height();
+    }
+
+    /**
+     * Adds a key to the reverse index of its value (when enabled)
+     *
+     * @param key   Key
+     * @param value Value
+     */
+    private void indexValue(K key, V value) {
+        if (this.value_index != null)
+            this.value_index.computeIfAbsent(value, v -> new TreeSet<>()).add(key);
+    }
+
+    /**
+     * Removes a key from the reverse index of its value (when enabled)
+     *
+     * @param key   Key
+     * @param value Value
+     */
+    private void unindexValue(K key, V value) {
+        if (this.value_index != null) {
+            TreeSet<K> keys = this.value_index.get(value);
+            if (keys != null && keys.remove(key) && keys.isEmpty())
+                this.value_index.remove(value);
+        }
+    }
+
+    /**
+     * Sets the value of a node, keeping the reverse value index up to date
+     *
+     * @param node  Node
+     * @param value New value
+     * @return Previous value
+     */
+    V updateValue(AVLTreeNode<K, V> node, V value) {
+        V old = node.value;
+        unindexValue(node.key, old);
+        node.value = value;
+        indexValue(node.key, value);
+        return old;
+    }
+
+    /**
+     * Gets the root node of the tree
+     *
+     * @return Root node (can be null)
+     */
+    AVLTreeNode<K, V> root() {
+        return this.root;
+    }
+
+    /**
+     * Finds the node of a key or, when the key is not in the tree, the node under which it would be attached
+     *
+     * @param key Key
+     * @return Node of the key, insertion point or null when the tree is empty
+     */
+    AVLTreeNode<K, V> findInsertionPoint(K key) {
+        AVLTreeNode<K, V> node = this.root;
+        AVLTreeNode<K, V> parent = null;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison == 0)
+                return node;
+            parent = node;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return parent;
+    }
+
+    /**
+     * Attaches a new node under the insertion point found for its key and re-balances
+     *
+     * @param parent Insertion point given by findInsertionPoint(key) (null when the tree is empty)
+     * @param key    Key
+     * @param value  Value
+     * @return New node
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    AVLTreeNode<K, V> insertAt(AVLTreeNode<K, V> parent, K key, V value) throws UndefinedException {
+        AVLTreeNode<K, V> node = new AVLTreeNode<>(parent, key, value);
+        this.node_count++;
+        if (parent == null) {
+            this.root = node;
+        } else {
+            if (key.compareTo(parent.key) < 0)
+                parent.left = node;
+            else
+                parent.right = node;
+            restore(parent);
+        }
+        indexValue(key, value);
+        return node;
+    }
+
+    /**
+     * Finds the node of a key through the front cache (when enabled)
+     *
+     * @param key Key to look for
+     * @return Node of the key or null if not found
+     */
+    private AVLTreeNode<K, V> lookup(K key) {
+        if (this.cache == null)
+            return findNode(key);
+        AVLTreeNode<K, V> node = this.cache.get(key);
+        if (node == null) {
+            node = findNode(key);
+            if (node != null)
+                this.cache.put(node);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node of a key or its insertion point through the front cache (when enabled)
+     *
+     * @param key Key to look for
+     * @return Node of the key, insertion point or null when the tree is empty
+     */
+    private AVLTreeNode<K, V> locate(K key) {
+        if (this.cache == null)
+            return findInsertionPoint(key);
+        AVLTreeNode<K, V> node = this.cache.get(key);
+        if (node == null) {
+            node = findInsertionPoint(key);
+            if (node != null && key.compareTo(node.key) == 0)
+                this.cache.put(node);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node of a key
+     *
+     * @param key Key to look for
+     * @return Node of the key or null if not found
+     */
+    AVLTreeNode<K, V> findNode(K key) {
+        AVLTreeNode<K, V> node = this.root;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison < 0)
+                node = node.left;
+            else if (comparison > 0)
+                node = node.right;
+            else
+                return node;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the node with the smallest key
+     *
+     * @return First node or null when the tree is empty
+     */
+    AVLTreeNode<K, V> first() {
+        AVLTreeNode<K, V> node = this.root;
+        if (node != null) {
+            while (node.left != null) {
+                node = node.left;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Gets the node with the largest key
+     *
+     * @return Last node or null when the tree is empty
+     */
+    AVLTreeNode<K, V> last() {
+        AVLTreeNode<K, V> node = this.root;
+        if (node != null) {
+            while (node.right != null) {
+                node = node.right;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Gets the in-order successor of a node
+     *
+     * @param node Node
+     * @return Successor or null if the node is the last one
+     */
+    AVLTreeNode<K, V> successor(AVLTreeNode<K, V> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null) {
+                node = node.left;
+            }
+            return node;
+        }
+        while (node.parent != null && node.parent.right == node) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    /**
+     * Gets the in-order predecessor of a node
+     *
+     * @param node Node
+     * @return Predecessor or null if the node is the first one
+     */
+    AVLTreeNode<K, V> predecessor(AVLTreeNode<K, V> node) {
+        if (node.left != null) {
+            node = node.left;
+            while (node.right != null) {
+                node = node.right;
+            }
+            return node;
+        }
+        while (node.parent != null && node.parent.left == node) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    /**
+     * Gets the node with the smallest key above (or equal to) a given key
+     *
+     * @param key       Key
+     * @param inclusive Flag to accept a node matching the key
+     * @return Node or null if there are none
+     */
+    AVLTreeNode<K, V> ceilingNode(K key, boolean inclusive) {
+        AVLTreeNode<K, V> candidate = null;
+        AVLTreeNode<K, V> node = this.root;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison < 0 || (comparison == 0 && inclusive)) {
+                candidate = node;
+                if (comparison == 0)
+                    return node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Gets the node with the largest key below (or equal to) a given key
+     *
+     * @param key       Key
+     * @param inclusive Flag to accept a node matching the key
+     * @return Node or null if there are none
+     */
+    AVLTreeNode<K, V> floorNode(K key, boolean inclusive) {
+        AVLTreeNode<K, V> candidate = null;
+        AVLTreeNode<K, V> node = this.root;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison > 0 || (comparison == 0 && inclusive)) {
+                candidate = node;
+                if (comparison == 0)
+                    return node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Counts the keys in the tree that are below a given key
+     *
+     * @param key       Key
+     * @param inclusive Flag to count the given key as well
+     * @return Number of keys below (or equal to) the key
+     */
+    int countBelow(K key, boolean inclusive) {
+        int count = 0;
+        AVLTreeNode<K, V> node = this.root;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison < 0 || (comparison == 0 && !inclusive)) {
+                node = node.left;
+            } else {
+                count += (node.left != null ? node.left.size : 0) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the node at an in-order index
+     *
+     * @param index Index (0 to size-1)
+     * @return Node at index
+     * @throws IndexOutOfBoundsException when the index is not within the tree's size
+     */
+    private AVLTreeNode<K, V> selectNode(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.node_count) {
+            log.log_Error("Index (", index, ") not within the tree's size (", this.node_count, ").");
+            throw new IndexOutOfBoundsException("Index '" + index + "' not within the tree's size.");
+        }
+        AVLTreeNode<K, V> node = this.root;
+        while (true) {
+            int left_size = node.left != null ? node.left.size : 0;
+            if (index < left_size) {
+                node = node.left;
+            } else if (index > left_size) {
+                index -= left_size + 1;
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Builds a perfectly balanced sub-tree from a range of key-sorted pairs in O(n)
+     *
+     * @param items  Pairs sorted by key with no duplicate keys
+     * @param from   Start index of the range (inclusive)
+     * @param to     End index of the range (exclusive)
+     * @param parent Parent of the sub-tree root
+     * @return Root of the sub-tree (null when the range is empty)
+     */
+    private static <K extends Comparable<? super K>, V> AVLTreeNode<K, V> build(Pair<K, V>[] items, int from, int to, AVLTreeNode<K, V> parent) {
+        if (from >= to)
+            return null;
+        int mid = (from + to) >>> 1;
+        AVLTreeNode<K, V> node = new AVLTreeNode<>(parent, items[mid].getKey(), items[mid].getValue());
+        node.left = build(items, from, mid, node);
+        node.right = build(items, mid + 1, to, node);
+        node.updateHeight();
+        node.updateSize();
+        return node;
+    }
+
+    /**
+     * Relinks a range of in-order nodes into a perfectly balanced sub-tree in O(n)
+     *
+     * @param nodes  Nodes in key order
+     * @param from   Start index of the range (inclusive)
+     * @param to     End index of the range (exclusive)
+     * @param parent Parent of the sub-tree root
+     * @return Root of the sub-tree (null when the range is empty)
+     */
+    private static <K extends Comparable<? super K>, V> AVLTreeNode<K, V> relink(AVLTreeNode<K, V>[] nodes, int from, int to, AVLTreeNode<K, V> parent) {
+        if (from >= to)
+            return null;
+        int mid = (from + to) >>> 1;
+        AVLTreeNode<K, V> node = nodes[mid];
+        node.parent = parent;
+        node.left = relink(nodes, from, mid, node);
+        node.right = relink(nodes, mid + 1, to, node);
+        node.updateHeight();
+        node.updateSize();
+        return node;
+    }
+
+    /**
+     * Finds the first index at which a pair array stops being strictly sorted by key
+     *
+     * @param items Pairs
+     * @return Index of the first out-of-order or duplicate key (items.length when sorted)
+     * @throws NullPointerException when a key is null
+     */
+    private static <K extends Comparable<? super K>, V> int sortedUntil(Pair<K, V>[] items) throws NullPointerException {
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].getKey() == null)
+                throw new NullPointerException("Key at index '" + i + "' is null.");
+            if (i > 0 && items[i - 1].getKey().compareTo(items[i].getKey()) >= 0)
+                return i;
+        }
+        return items.length;
+    }
+
+    /**
+     * Creates a tree from a range of key-sorted pairs
+     *
+     * @param items Pairs sorted by key with no duplicate keys
+     * @param count Number of pairs to use from the start of the array
+     * @return AVLTree
+     */
+    private static <K extends Comparable<? super K>, V> AVLTree<K, V> load(Pair<K, V>[] items, int count) {
+        AVLTree<K, V> tree = new AVLTree<>();
+        tree.root = build(items, 0, count, null);
+        tree.node_count = count;
+        return tree;
+    }
+
+    /**
+     * Joins 2 sub-trees and a pivot node into a balanced sub-tree in O(|height difference| + 1)
+     * Note: uses the tree's root as workspace, all keys of the left sub-tree must be smaller than the pivot's
+     * and all keys of the right sub-tree larger
+     *
+     * @param left  Left sub-tree (can be null)
+     * @param pivot Pivot node
+     * @param right Right sub-tree (can be null)
+     * @return Root of the joined sub-tree
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    private AVLTreeNode<K, V> join(AVLTreeNode<K, V> left, AVLTreeNode<K, V> pivot, AVLTreeNode<K, V> right) throws UndefinedException {
+        int l_height = left != null ? left.height : 0;
+        int r_height = right != null ? right.height : 0;
+        pivot.parent = null;
+        if (l_height > r_height + 1) { //hang the pivot on the right spine of the left sub-tree
+            left.parent = null;
+            AVLTreeNode<K, V> parent = null;
+            AVLTreeNode<K, V> node = left;
+            while (node != null && node.height > r_height + 1) {
+                parent = node;
+                node = node.right;
+            }
+            link(pivot, node, right);
+            parent.right = pivot;
+            pivot.parent = parent;
+            this.root = left;
+            balance(parent);
+            return this.root;
+        } else if (r_height > l_height + 1) { //hang the pivot on the left spine of the right sub-tree
+            right.parent = null;
+            AVLTreeNode<K, V> parent = null;
+            AVLTreeNode<K, V> node = right;
+            while (node != null && node.height > l_height + 1) {
+                parent = node;
+                node = node.left;
+            }
+            link(pivot, left, node);
+            parent.left = pivot;
+            pivot.parent = parent;
+            this.root = right;
+            balance(parent);
+            return this.root;
+        }
+        link(pivot, left, right);
+        return pivot;
+    }
+
+    /**
+     * Links 2 sub-trees as the children of a node and refreshes the node's cached height/size
+     *
+     * @param node  Node
+     * @param left  Left sub-tree (can be null)
+     * @param right Right sub-tree (can be null)
+     */
+    private static <K extends Comparable<? super K>, V> void link(AVLTreeNode<K, V> node, AVLTreeNode<K, V> left, AVLTreeNode<K, V> right) {
+        node.left = left;
+        if (left != null)
+            left.parent = node;
+        node.right = right;
+        if (right != null)
+            right.parent = node;
+        node.updateHeight();
+        node.updateSize();
+    }
+
+    /**
+     * Resolves sorted probe keys against a sub-tree, partitioning them at each node on the way down
+     * Note: each node is visited at most once and only the sub-trees holding probe keys are entered
+     *
+     * @param node   Root of the sub-tree
+     * @param keys   Probe keys sorted in ascending order
+     * @param order  Index in the value array of each probe key (null when the same as in the key list)
+     * @param from   Index of the first probe key for the sub-tree (inclusive)
+     * @param to     Index of the last probe key for the sub-tree (exclusive)
+     * @param values Array to write the values found into
+     * @return Number of probe keys found
+     */
+    private int resolve(AVLTreeNode<K, V> node, List<K> keys, int[] order, int from, int to, V[] values) {
+        int found = 0;
+        while (node != null && from < to) {
+            int lo = from;
+            int hi = to;
+            while (lo < hi) { //first probe key not smaller than the node's
+                int mid = (lo + hi) >>> 1;
+                if (keys.get(mid).compareTo(node.key) < 0)
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+            int next = lo;
+            while (next < to && keys.get(next).compareTo(node.key) == 0) {
+                values[order != null ? order[next] : next] = node.value;
+                next++;
+            }
+            found += next - lo + resolve(node.left, keys, order, from, lo, values);
+            from = next;
+            node = node.right;
+        }
+        return found;
+    }
+
+    /**
+     * Writes out the content of a buffer to a channel and clears it
+     *
+     * @param channel File channel
+     * @param buffer  Buffer
+     * @throws IOException when the channel cannot be written to
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
     }
 
     /**
-     * Gets the child of a parent in the branch specified
+     * Joins 2 sub-trees without a pivot by taking out the last node of the left one
      *
-     * @param parent Parent node
-     * @param branch Branch to pluck the child from
-     * @return Child node
-     * @throws UndefinedException when the parent is null and branch is not ROOT
+     * @param left  Left sub-tree (can be null)
+     * @param right Right sub-tree (can be null)
+     * @return Root of the joined sub-tree
+     * @throws UndefinedException when corruption is detected during re-balancing
      */
-    private AVLTreeNode<K, V> getChild(AVLTreeNode<K, V> parent, Branch branch) throws UndefinedException {
-        if (parent == null && branch != ROOT) {
-            throw new UndefinedException("Parent is undefined (i.e.: null).");
-        }
-        switch (branch) {
-            case LEFT:
-                if (parent.left != null) return parent.left;
-                break;
-            case RIGHT:
-                if (parent.right != null) return parent.right;
-                break;
-            case ROOT:
-                if (this.root != null) return this.root;
-                break;
+    private AVLTreeNode<K, V> join(AVLTreeNode<K, V> left, AVLTreeNode<K, V> right) throws UndefinedException {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+        Split<K, V> halves = splitLast(left);
+        return join(halves.left, halves.node, right);
+    }
+
+    /**
+     * Splits the last node off a sub-tree
+     *
+     * @param node Root of the sub-tree
+     * @return Root of the remaining sub-tree (left) and the last node
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    private Split<K, V> splitLast(AVLTreeNode<K, V> node) throws UndefinedException {
+        if (node.right == null)
+            return new Split<>(node.left, node, null);
+        AVLTreeNode<K, V> left = node.left;
+        Split<K, V> halves = splitLast(node.right);
+        return new Split<>(join(left, node, halves.left), halves.node, null);
+    }
+
+    /**
+     * Splits a sub-tree in 3 at a key
+     *
+     * @param node Root of the sub-tree (can be null)
+     * @param key  Key to split at
+     * @return Roots of the sub-trees holding the keys smaller and larger than the key and the key's node if found
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    private Split<K, V> split(AVLTreeNode<K, V> node, K key) throws UndefinedException {
+        if (node == null)
+            return new Split<>(null, null, null);
+        AVLTreeNode<K, V> left = node.left;
+        AVLTreeNode<K, V> right = node.right;
+        int comparison = key.compareTo(node.key);
+        if (comparison < 0) {
+            Split<K, V> halves = split(left, key);
+            return new Split<>(halves.left, halves.node, join(halves.right, node, right));
+        } else if (comparison > 0) {
+            Split<K, V> halves = split(right, key);
+            return new Split<>(join(left, node, halves.left), halves.node, halves.right);
+        } else {
+            node.left = null;
+            node.right = null;
+            node.parent = null;
+            node.updateHeight();
+            node.updateSize();
+            return new Split<>(left, node, right);
         }
-        log.log_Error("Child doesn't exist.");
-        return null;
     }
 
     /**
-     * Gets the branch from which the node spawns from
+     * Copies a sub-tree
      *
-     * @param node Node to search the m_parent's branch of
-     * @return Spawning branch
-     * @throws UndefinedException when the node points to a parent that isn't his.
+     * @param node   Root of the sub-tree to copy (can be null)
+     * @param parent Parent of the copy
+     * @return Root of the copy
      */
-    private Branch getBranch(AVLTreeNode<K, V> node) throws UndefinedException {
-        if (node.parent == null) return ROOT;
-        if (node.parent.left == node) return LEFT;
-        if (node.parent.right == node) return RIGHT;
-        throw new UndefinedException("Node [" + node.key + "] points to the wrong parent. Must have attachment issues or be confused.");
+    private static <K extends Comparable<? super K>, V> AVLTreeNode<K, V> copy(AVLTreeNode<K, V> node, AVLTreeNode<K, V> parent) {
+        if (node == null)
+            return null;
+        AVLTreeNode<K, V> copy = new AVLTreeNode<>(parent, node.key, node.value);
+        copy.left = copy(node.left, copy);
+        copy.right = copy(node.right, copy);
+        copy.updateHeight();
+        copy.updateSize();
+        return copy;
     }
 
     /**
-     * Finds the balance factor of a node
+     * Creates a tree from a detached sub-tree
      *
-     * @param node AVLTreeNode to check
-     * @return Balance factor
+     * @param root Root of the sub-tree (can be null)
+     * @return AVLTree
      */
-    private Integer getHeightDifference(AVLTreeNode<K, V> node) {
-        return node.left.height() - node.right.height();
+    private static <K extends Comparable<? super K>, V> AVLTree<K, V> adopt(AVLTreeNode<K, V> root) {
+        AVLTree<K, V> tree = new AVLTree<>();
+        if (root != null) {
+            root.parent = null;
+            tree.root = root;
+            tree.node_count = root.size;
+        }
+        return tree;
+    }
+
+    /**
+     * Empties the tree without touching its nodes (which have been moved to another tree)
+     */
+    private void release() {
+        this.epoch++;
+        this.root = null;
+        this.node_count = 0;
+        this.unbalanced = false;
+        if (this.value_index != null)
+            this.value_index.clear();
+        if (this.cache != null)
+            this.cache.clear();
     }
 
     /**
@@ -502,15 +1975,22 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
 
     /**
      * Constructor
+     * Note: key-sorted lists without duplicates are bulk loaded in O(n), other lists are added one by one
      *
      * @param list List of keys to initialise the tree with
      * @throws RuntimeException when corruption is detected during tree construction
      */
     public AVLTree(Collection<Pair<K, V>> list) throws RuntimeException {
+        @SuppressWarnings("unchecked")
+        Pair<K, V>[] items = list.toArray(new Pair[list.size()]);
+        if (sortedUntil(items) == items.length) {
+            this.root = build(items, 0, items.length, null);
+            this.node_count = items.length;
+            return;
+        }
         try {
-            for (Pair<K, V> item : list) {
+            for (Pair<K, V> item : items) {
                 this.add(item.getKey(), item.getValue());
-                this.node_count++;
             }
         } catch (UndefinedException e) {
             log.log_Fatal("Corruption detected during additions of keys from AVLTree constructor list.");
@@ -518,6 +1998,282 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
         }
     }
 
+    /**
+     * Creates a perfectly balanced tree from key-sorted pairs in O(n)
+     *
+     * @param sorted Pairs sorted in ascending order of key with no duplicate keys
+     * @param <K>    Key type
+     * @param <V>    Value type
+     * @return AVLTree
+     * @throws NullPointerException     when a key is null
+     * @throws IllegalArgumentException when the pairs are not strictly sorted by key
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> fromSorted(Collection<Pair<K, V>> sorted) throws NullPointerException, IllegalArgumentException {
+        @SuppressWarnings("unchecked")
+        Pair<K, V>[] items = sorted.toArray(new Pair[sorted.size()]);
+        int index = sortedUntil(items);
+        if (index < items.length)
+            throw new IllegalArgumentException("Key at index '" + index + "' is not strictly greater than the previous one.");
+        return load(items, items.length);
+    }
+
+    /**
+     * Creates a perfectly balanced tree from unsorted pairs
+     * Note: the pairs are sorted in parallel (O(n log n)) and then bulk loaded in O(n).
+     * Only the first occurrence of a duplicate key is kept (as with add(K, V)).
+     *
+     * @param unsorted Pairs in any order
+     * @param <K>      Key type
+     * @param <V>      Value type
+     * @return AVLTree
+     * @throws NullPointerException when a key is null
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> fromUnsorted(Collection<Pair<K, V>> unsorted) throws NullPointerException {
+        @SuppressWarnings("unchecked")
+        Pair<K, V>[] items = unsorted.toArray(new Pair[unsorted.size()]);
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].getKey() == null)
+                throw new NullPointerException("Key at index '" + i + "' is null.");
+        }
+        Arrays.parallelSort(items, Comparator.comparing(Pair::getKey)); //stable so the first duplicate stays in front
+        int count = 0;
+        for (Pair<K, V> item : items) {
+            if (count == 0 || items[count - 1].getKey().compareTo(item.getKey()) != 0)
+                items[count++] = item;
+        }
+        return load(items, count);
+    }
+
+    /**
+     * Reads a binary snapshot written by writeSnapshot(..) into a perfectly balanced tree in O(n)
+     * Note: the file is memory-mapped in successive 1GB regions
+     *
+     * @param path        File path
+     * @param key_codec   Key codec
+     * @param value_codec Value codec
+     * @param <K>         Key type
+     * @param <V>         Value type
+     * @return AVLTree
+     * @throws IOException when the file cannot be read or is not a valid snapshot
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> readSnapshot(Path path, IBinaryCodec<K> key_codec, IBinaryCodec<V> value_codec) throws IOException {
+        return readSnapshot(path, key_codec, value_codec, SNAPSHOT_REGION_SIZE);
+    }
+
+    /**
+     * Reads a binary snapshot written by writeSnapshot(..) into a perfectly balanced tree in O(n)
+     *
+     * @param path        File path
+     * @param key_codec   Key codec
+     * @param value_codec Value codec
+     * @param region      Size of the file regions to map (bytes, at least 12)
+     * @param <K>         Key type
+     * @param <V>         Value type
+     * @return AVLTree
+     * @throws IOException when the file cannot be read or is not a valid snapshot
+     */
+    static <K extends Comparable<? super K>, V> AVLTree<K, V> readSnapshot(Path path, IBinaryCodec<K> key_codec, IBinaryCodec<V> value_codec, int region) throws IOException {
+        AVLTree<K, V> tree = new AVLTree<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SnapshotReader<K, V> reader = new SnapshotReader<>(channel, region, key_codec, value_codec);
+            ByteBuffer buffer = reader.buffer();
+            if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != SNAPSHOT_MAGIC)
+                throw new IOException("'" + path + "' is not an AVLTree snapshot.");
+            int version = buffer.getInt();
+            if (version != SNAPSHOT_VERSION)
+                throw new IOException("Unsupported snapshot version (" + version + ") in '" + path + "'.");
+            int count = buffer.getInt();
+            if (count < 0)
+                throw new IOException("Invalid entry count (" + count + ") in snapshot '" + path + "'.");
+            tree.root = reader.read(count, null);
+            tree.node_count = count;
+            if (!reader.atEnd())
+                throw new IOException("Trailing data after the " + count + " entries of snapshot '" + path + "'.");
+        } catch (BufferUnderflowException e) {
+            tree.log.log_Error("Snapshot '", path, "' is truncated.");
+            throw new IOException("Snapshot '" + path + "' is truncated.", e);
+        } catch (IOException e) {
+            tree.log.log_Error("Could not read snapshot '", path, "': ", e.getMessage());
+            throw e;
+        }
+        return tree;
+    }
+
+    /**
+     * Reads the header of a binary snapshot written by writeSnapshot(..)
+     *
+     * @param path File path
+     * @return Number of entries in the snapshot
+     * @throws IOException when the file cannot be read or does not start with a valid snapshot header
+     */
+    static int readSnapshotCount(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                //reads the whole header
+            }
+            header.flip();
+            if (header.remaining() < 3 * Integer.BYTES || header.getInt() != SNAPSHOT_MAGIC || header.getInt() != SNAPSHOT_VERSION)
+                throw new IOException("'" + path + "' is not a valid AVLTree snapshot.");
+            return header.getInt();
+        }
+    }
+
+    /**
+     * Joins 2 trees and a pivot key into a new tree in O(log n)
+     * Note: the nodes of both trees are moved to the new tree, leaving them empty
+     *
+     * @param left  Tree whose keys are all smaller than the pivot key
+     * @param key   Pivot key
+     * @param value Pivot value
+     * @param right Tree whose keys are all larger than the pivot key
+     * @param <K>   Key type
+     * @param <V>   Value type
+     * @return Joined tree
+     * @throws IllegalArgumentException when the keys of the trees are not on either side of the pivot key
+     * @throws RuntimeException         when corruption is detected during re-balancing
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> join(AVLTree<K, V> left, K key, V value, AVLTree<K, V> right) throws IllegalArgumentException, RuntimeException {
+        if (left == right)
+            throw new IllegalArgumentException("Cannot join a tree with itself.");
+        if ((left.root != null && left.last().key.compareTo(key) >= 0) || (right.root != null && right.first().key.compareTo(key) <= 0))
+            throw new IllegalArgumentException("Keys of the left tree must be smaller than [" + key + "] and those of the right tree larger.");
+        left.rebalance();
+        right.rebalance();
+        AVLTree<K, V> tree = new AVLTree<>();
+        try {
+            tree.root = tree.join(left.root, new AVLTreeNode<>(null, key, value), right.root);
+        } catch (UndefinedException e) {
+            tree.log.log_Fatal("Corruption detected whilst joining trees at key '", key, "'.");
+            throw new RuntimeException("Corruption detected whilst joining trees at key [" + key + "].", e);
+        }
+        tree.node_count = tree.root.size;
+        left.release();
+        right.release();
+        return tree;
+    }
+
+    /**
+     * Runs a set operation between 2 trees in the common ForkJoinPool
+     *
+     * @param operation Set operation
+     * @param a         First tree
+     * @param b         Second tree
+     * @param merge     Function merging the values of keys found in both trees
+     * @return Resulting tree
+     * @throws IllegalArgumentException when both trees are the same instance
+     * @throws RuntimeException         when corruption is detected during re-balancing
+     */
+    private static <K extends Comparable<? super K>, V> AVLTree<K, V> run(SetOperation operation, AVLTree<K, V> a, AVLTree<K, V> b, BinaryOperator<V> merge) throws IllegalArgumentException, RuntimeException {
+        if (a == b)
+            throw new IllegalArgumentException("Cannot run a set operation between a tree and itself.");
+        a.rebalance();
+        b.rebalance();
+        SetOperationTask<K, V> task = new SetOperationTask<>(operation, merge, a.parallel_threshold, a.root, b.root);
+        AVLTree<K, V> tree;
+        try {
+            tree = adopt(ForkJoinPool.commonPool().invoke(task));
+        } catch (RuntimeException e) {
+            a.log.log_Fatal("Corruption detected whilst running a ", operation, " on trees.");
+            throw e;
+        }
+        tree.parallel_threshold = a.parallel_threshold;
+        a.release();
+        b.release();
+        return tree;
+    }
+
+    /**
+     * Unites 2 trees into a new tree in O(m log(n/m + 1)) work, forking over the sub-trees
+     * Note: the nodes of both trees are moved to the new tree (or dropped), leaving them empty (see copy())
+     *
+     * @param a     First tree
+     * @param b     Second tree
+     * @param merge Function merging the values of keys found in both trees (a's value first)
+     * @param <K>   Key type
+     * @param <V>   Value type
+     * @return Tree with the keys found in either tree
+     * @throws IllegalArgumentException when both trees are the same instance
+     * @throws RuntimeException         when corruption is detected during re-balancing
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> union(AVLTree<K, V> a, AVLTree<K, V> b, BinaryOperator<V> merge) throws IllegalArgumentException, RuntimeException {
+        return run(SetOperation.UNION, a, b, merge);
+    }
+
+    /**
+     * Intersects 2 trees into a new tree in O(m log(n/m + 1)) work, forking over the sub-trees
+     * Note: the nodes of both trees are moved to the new tree (or dropped), leaving them empty (see copy())
+     *
+     * @param a     First tree
+     * @param b     Second tree
+     * @param merge Function merging the values of keys found in both trees (a's value first)
+     * @param <K>   Key type
+     * @param <V>   Value type
+     * @return Tree with the keys found in both trees
+     * @throws IllegalArgumentException when both trees are the same instance
+     * @throws RuntimeException         when corruption is detected during re-balancing
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> intersection(AVLTree<K, V> a, AVLTree<K, V> b, BinaryOperator<V> merge) throws IllegalArgumentException, RuntimeException {
+        return run(SetOperation.INTERSECTION, a, b, merge);
+    }
+
+    /**
+     * Subtracts a tree from another into a new tree in O(m log(n/m + 1)) work, forking over the sub-trees
+     * Note: the nodes of both trees are moved to the new tree (or dropped), leaving them empty (see copy())
+     *
+     * @param a   Tree to subtract from
+     * @param b   Tree to subtract
+     * @param <K> Key type
+     * @param <V> Value type
+     * @return Tree with the keys of a not found in b
+     * @throws IllegalArgumentException when both trees are the same instance
+     * @throws RuntimeException         when corruption is detected during re-balancing
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> difference(AVLTree<K, V> a, AVLTree<K, V> b) throws IllegalArgumentException, RuntimeException {
+        return run(SetOperation.DIFFERENCE, a, b, (x, y) -> x);
+    }
+
+    /**
+     * Concatenates 2 trees into a new tree in O(log n)
+     * Note: the nodes of both trees are moved to the new tree, leaving them empty
+     *
+     * @param left  Tree whose keys are all smaller than those of the right tree
+     * @param right Tree whose keys are all larger than those of the left tree
+     * @param <K>   Key type
+     * @param <V>   Value type
+     * @return Concatenated tree
+     * @throws IllegalArgumentException when the keys of the trees overlap
+     * @throws RuntimeException         when corruption is detected during re-balancing
+     */
+    public static <K extends Comparable<? super K>, V> AVLTree<K, V> concat(AVLTree<K, V> left, AVLTree<K, V> right) throws IllegalArgumentException, RuntimeException {
+        if (left == right)
+            throw new IllegalArgumentException("Cannot concatenate a tree with itself.");
+        left.rebalance();
+        right.rebalance();
+        if (left.root == null || right.root == null) {
+            AVLTree<K, V> tree = adopt(left.root != null ? left.root : right.root);
+            left.release();
+            right.release();
+            return tree;
+        }
+        AVLTreeNode<K, V> pivot = left.last();
+        if (pivot.key.compareTo(right.first().key) >= 0)
+            throw new IllegalArgumentException("Keys of the left tree must all be smaller than those of the right tree.");
+        AVLTree<K, V> tree = new AVLTree<>();
+        try {
+            left.removeNode(pivot);
+            left.rebalance();
+            tree.root = tree.join(left.root, pivot, right.root);
+        } catch (UndefinedException e) {
+            tree.log.log_Fatal("Corruption detected whilst concatenating trees at key '", pivot.key, "'.");
+            throw new RuntimeException("Corruption detected whilst concatenating trees at key [" + pivot.key + "].", e);
+        }
+        tree.node_count = tree.root.size;
+        left.release();
+        right.release();
+        return tree;
+    }
+
     /**
      * Adds a key to the tree
      *
@@ -529,36 +2285,12 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
     public boolean add(K key, V value) throws UndefinedException {
         try {
             log.log_Debug("Adding <", key, ", ", value, "> to tree.");
-            if (this.node_count < 1) {
-                this.root = new AVLTreeNode<>(null, key, value);
-                this.node_count++;
-            } else {
-                AVLTreeNode<K, V> ptr = this.root;
-                while (true) {
-                    if (key.compareTo(ptr.key) < 0) {
-                        if (ptr.left != null) {
-                            ptr = ptr.left;
-                        } else {
-                            ptr.left = new AVLTreeNode<>(ptr, key, value);
-                            this.node_count++;
-                            balance(ptr);
-                            break;
-                        }
-                    } else if (key.compareTo(ptr.key) > 0) {
-                        if (ptr.right != null) {
-                            ptr = ptr.right;
-                        } else {
-                            ptr.right = new AVLTreeNode<>(ptr, key, value);
-                            this.node_count++;
-                            balance(ptr);
-                            break;
-                        }
-                    } else {
-                        log.log_Error("Key '", key, "' already exists in tree.");
-                        return false;
-                    }
-                }
+            AVLTreeNode<K, V> parent = locate(key);
+            if (parent != null && key.compareTo(parent.key) == 0) {
+                log.log_Error("Key '", key, "' already exists in tree.");
+                return false;
             }
+            insertAt(parent, key, value);
             return true;
         } catch (UndefinedException e) {
             throw new UndefinedException("Balancing failed whilst adding key [" + key + "] to tree.", e);
@@ -566,65 +2298,394 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
     }
 
     /**
-     * Gets the value for a key
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in AVLTree
+     */
+    public V getValue(K key) throws NullPointerException {
+        AVLTreeNode<K, V> node = lookup(key);
+        if (node != null)
+            return node.value;
+        log.log_Error("Could not find key '", key, "' in tree.");
+        throw new NullPointerException("Key '" + key + "' does not exists in AVLTree.");
+    }
+
+    /**
+     * Runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in AVLTree
+     */
+    public V apply(K key, Function<V, V> function) throws NullPointerException {
+        AVLTreeNode<K, V> node = lookup(key);
+        if (node != null) {
+            updateValue(node, function.apply(node.value));
+            return node.value;
+        }
+        log.log_Error("Could not find key '", key, "' in tree.");
+        throw new NullPointerException("Key '" + key + "' does not exists in AVLTree.");
+    }
+
+    /**
+     * Creates a finger for searches and additions in (nearly) sorted key order
+     *
+     * @return Finger starting at the root
+     */
+    public AVLTreeFinger finger() {
+        return new AVLTreeFinger();
+    }
+
+    /**
+     * Adds pairs to the tree, fastest when they are sorted by key
+     * Note: an empty tree is bulk loaded in O(n) when the pairs are strictly sorted, otherwise the pairs are added
+     * with a finger so that each costs O(1) key comparisons when the keys follow each other in the tree
+     *
+     * @param sorted Pairs (ideally sorted in ascending order of key)
+     * @return Number of pairs added (pairs with a key already in the tree are skipped as with add(K, V))
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public int addAllSorted(Collection<Pair<K, V>> sorted) throws UndefinedException {
+        if (this.root == null) {
+            @SuppressWarnings("unchecked")
+            Pair<K, V>[] items = sorted.toArray(new Pair[sorted.size()]);
+            if (sortedUntil(items) == items.length) {
+                this.root = build(items, 0, items.length, null);
+                this.node_count = items.length;
+                for (Pair<K, V> item : items) {
+                    indexValue(item.getKey(), item.getValue());
+                }
+                return items.length;
+            }
+        }
+        AVLTreeFinger finger = new AVLTreeFinger();
+        int added = 0;
+        for (Pair<K, V> item : sorted) {
+            if (finger.add(item.getKey(), item.getValue()))
+                added++;
+        }
+        return added;
+    }
+
+    /**
+     * Gets the values of a batch of keys with a single merged traversal of the tree
+     * Note: the probe keys are sorted once (skipped when already ascending) and then resolved top-down
+     * in O(m log(n/m + 1)) comparisons
+     *
+     * @param keys    Keys to look up (in any order, duplicates allowed)
+     * @param values  Array to write the value of each key into, at the same index as the key
+     * @param missing Marker written for the keys not in the tree
+     * @return Number of keys found (duplicates counted each time)
+     * @throws IllegalArgumentException when the array is smaller than the number of keys
+     */
+    public int getAll(List<? extends K> keys, V[] values, V missing) throws IllegalArgumentException {
+        if (values.length < keys.size()) {
+            log.log_Error("Value array (", values.length, ") is smaller than the number of keys (", keys.size(), ").");
+            throw new IllegalArgumentException("Value array (" + values.length + ") is smaller than the number of keys (" + keys.size() + ").");
+        }
+        int count = keys.size();
+        ArrayList<K> sorted = new ArrayList<>(keys);
+        boolean ascending = true;
+        for (int i = 1; i < count && ascending; i++) {
+            ascending = sorted.get(i - 1).compareTo(sorted.get(i)) <= 0;
+        }
+        int[] order = null;
+        if (!ascending) { //sorts the keys with their indices so that the values can be written back in place
+            ArrayList<Probe<K>> probes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                probes.add(new Probe<>(sorted.get(i), i));
+            }
+            probes.sort((a, b) -> a.key.compareTo(b.key));
+            order = new int[count];
+            for (int i = 0; i < count; i++) {
+                Probe<K> probe = probes.get(i);
+                sorted.set(i, probe.key);
+                order[i] = probe.index;
+            }
+        }
+        Arrays.fill(values, 0, count, missing);
+        return resolve(this.root, sorted, order, 0, count, values);
+    }
+
+    /**
+     * Gets the values of a batch of keys with a single merged traversal of the tree
+     * Note: the probe keys are sorted once and then resolved top-down in O(m log(n/m + 1)) comparisons
+     *
+     * @param keys    Keys to look up (in any order)
+     * @param values  Map to put every key into with its value (or the missing marker)
+     * @param missing Marker put for the keys not in the tree
+     * @return Number of distinct keys found
+     */
+    public int getAll(Collection<? extends K> keys, Map<? super K, ? super V> values, V missing) {
+        ArrayList<K> sorted = new ArrayList<>(keys);
+        sorted.sort(null);
+        int count = 0;
+        for (K key : sorted) { //drops the duplicates in place
+            if (count == 0 || sorted.get(count - 1).compareTo(key) != 0)
+                sorted.set(count++, key);
+        }
+        @SuppressWarnings("unchecked")
+        V[] found_values = (V[]) new Object[count];
+        Arrays.fill(found_values, missing);
+        int found = resolve(this.root, sorted, null, 0, count, found_values);
+        for (int i = 0; i < count; i++) {
+            values.put(sorted.get(i), found_values[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Gets the value for a key or a default value when the key is not in the tree
+     *
+     * @param key           Key
+     * @param default_value Value to return when the key is not in the tree
+     * @return Value at key or the default value
+     */
+    public V getOrDefault(K key, V default_value) {
+        AVLTreeNode<K, V> node = lookup(key);
+        return node != null ? node.value : default_value;
+    }
+
+    /**
+     * Adds a key to the tree unless it is already in it
+     *
+     * @param key   Key
+     * @param value Value to add
+     * @return Current value of the key or null if the key was added
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public V putIfAbsent(K key, V value) throws UndefinedException {
+        AVLTreeNode<K, V> node = locate(key);
+        if (node != null && key.compareTo(node.key) == 0)
+            return node.value;
+        insertAt(node, key, value);
+        return null;
+    }
+
+    /**
+     * Replaces the value of a key already in the tree
+     *
+     * @param key   Key
+     * @param value New value
+     * @return Previous value or null if the key is not in the tree
+     */
+    public V replace(K key, V value) {
+        AVLTreeNode<K, V> node = lookup(key);
+        return node != null ? updateValue(node, value) : null;
+    }
+
+    /**
+     * Replaces the value of a key already in the tree only if it currently holds a given value
+     *
+     * @param key       Key
+     * @param old_value Expected current value
+     * @param new_value New value
+     * @return Success
+     */
+    public boolean replace(K key, V old_value, V new_value) {
+        AVLTreeNode<K, V> node = lookup(key);
+        if (node == null || !Objects.equals(node.value, old_value))
+            return false;
+        updateValue(node, new_value);
+        return true;
+    }
+
+    /**
+     * Computes the value of a key from its current value (null when the key is not in the tree)
+     * Note: the key is added when absent and removed when the function returns null
+     *
+     * @param key      Key
+     * @param function Function computing the new value from the key and its current value
+     * @return New value (null if the key is not in the tree anymore)
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) throws UndefinedException {
+        AVLTreeNode<K, V> node = locate(key);
+        boolean found = node != null && key.compareTo(node.key) == 0;
+        V value = function.apply(key, found ? node.value : null);
+        if (found) {
+            if (value == null)
+                removeNode(node);
+            else
+                updateValue(node, value);
+        } else if (value != null) {
+            insertAt(node, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Computes and adds the value of a key when it is not in the tree
+     *
+     * @param key      Key
+     * @param function Function computing the value from the key (nothing is added if it returns null)
+     * @return Current value of the key or the computed value
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) throws UndefinedException {
+        AVLTreeNode<K, V> node = locate(key);
+        if (node != null && key.compareTo(node.key) == 0)
+            return node.value;
+        V value = function.apply(key);
+        if (value != null)
+            insertAt(node, key, value);
+        return value;
+    }
+
+    /**
+     * Computes the value of a key when it is in the tree
+     * Note: the key is removed when the function returns null
+     *
+     * @param key      Key
+     * @param function Function computing the new value from the key and its current value
+     * @return New value or null if the key is not in the tree (anymore)
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> function) throws UndefinedException {
+        AVLTreeNode<K, V> node = lookup(key);
+        if (node == null)
+            return null;
+        V value = function.apply(key, node.value);
+        if (value == null)
+            removeNode(node);
+        else
+            updateValue(node, value);
+        return value;
+    }
+
+    /**
+     * Adds a key to the tree or merges the given value with its current one
+     * Note: the key is removed when the merge function returns null
+     *
+     * @param key      Key
+     * @param value    Value to add or merge
+     * @param function Function merging the current value (first) with the given one
+     * @return New value (null if the key is not in the tree anymore)
+     * @throws NullPointerException when the value is null
+     * @throws UndefinedException   when corruption is detected during re-balancing
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) throws NullPointerException, UndefinedException {
+        if (value == null) {
+            log.log_Error("Cannot merge a null value into key '", key, "'.");
+            throw new NullPointerException("Cannot merge a null value into key [" + key + "].");
+        }
+        AVLTreeNode<K, V> node = locate(key);
+        if (node == null || key.compareTo(node.key) != 0) {
+            insertAt(node, key, value);
+            return value;
+        }
+        V merged = function.apply(node.value, value);
+        if (merged == null)
+            removeNode(node);
+        else
+            updateValue(node, merged);
+        return merged;
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     * @throws UndefinedException when corruption is detected in the tree.
+     */
+    public boolean remove(K key) throws UndefinedException {
+        AVLTreeNode<K, V> node = findNode(key);
+        if (node == null)
+            return false;
+        removeNode(node);
+        log.log_Debug("Removed '", key, "'.");
+        return true;
+    }
+
+    /**
+     * Splits the tree in 2 at a key in O(log n)
+     * Note: the nodes are moved to the 2 new trees, leaving this one empty (the value index is not carried over)
      *
-     * @param key Key
-     * @return Value at key
-     * @throws NullPointerException when key is not in AVLTree
+     * @param key Key to split at
+     * @return Trees holding the keys smaller than the key and the keys greater or equal to it
+     * @throws RuntimeException when corruption is detected during re-balancing
      */
-    public V getValue(K key) throws NullPointerException {
-        if (search(key)) {
-            AVLTreeNode<K, V> node = this.root;
-            while (node != null) {
-                int comparison = key.compareTo(node.key());
-                if (comparison == 0)
-                    return node.value;
-                else if (comparison < 0 && node.left != null)
-                    node = node.left;
-                else if (comparison > 0 && node.right != null)
-                    node = node.right;
-            }
+    public Pair<AVLTree<K, V>, AVLTree<K, V>> split(K key) throws RuntimeException {
+        rebalance();
+        AVLTreeNode<K, V> node = this.root;
+        this.root = null;
+        try {
+            Split<K, V> halves = split(node, key);
+            AVLTreeNode<K, V> right = halves.node != null ? join(null, halves.node, halves.right) : halves.right;
+            release();
+            return new Pair<>(adopt(halves.left), adopt(right));
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected whilst splitting the tree at key '", key, "'.");
+            throw new RuntimeException("Corruption detected whilst splitting the tree at key [" + key + "].", e);
         }
-        log.log_Error("Could not find key '", key, "' in tree.");
-        throw new NullPointerException("Key '" + key + "' does not exists in AVLTree.");
     }
 
     /**
-     * Runs a given function on the value at specified key
+     * Writes a binary snapshot of the tree to a file
+     * Note: the snapshot is written to a temporary file first and then moved in place
+     * <p>
+     * Format: magic number, format version and entry count (4 bytes each) followed by the key-sorted entries
+     * encoded with the given codecs.
+     * </p>
      *
-     * @param key      Key
-     * @param function Function to run on value
-     * @return Post-function value
-     * @throws NullPointerException when key is not in AVLTree
+     * @param path        File path
+     * @param key_codec   Key codec
+     * @param value_codec Value codec
+     * @throws IOException when the file cannot be written
      */
-    public V apply(K key, Function<V, V> function) throws NullPointerException {
-        if (search(key)) {
-            AVLTreeNode<K, V> node = this.root;
-            while (node != null) {
-                int comparison = key.compareTo(node.key());
-                if (comparison == 0) {
-                    node.value = function.apply(node.value());
-                    return node.value();
-                } else if (comparison < 0 && node.left != null) {
-                    node = node.left;
-                } else if (comparison > 0 && node.right != null) {
-                    node = node.right;
+    public void writeSnapshot(Path path, IBinaryCodec<K> key_codec, IBinaryCodec<V> value_codec) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_SIZE);
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(this.node_count);
+            AVLTreeIterator it = new AVLTreeIterator(this.root);
+            while (it.hasNext()) {
+                AVLTreeNode<K, V> node = it.next();
+                int size = key_codec.size(node.key) + value_codec.size(node.value);
+                if (size > buffer.remaining()) {
+                    flush(channel, buffer);
+                    if (size > buffer.capacity()) { //oversized entry
+                        ByteBuffer entry = ByteBuffer.allocate(size);
+                        key_codec.encode(node.key, entry);
+                        value_codec.encode(node.value, entry);
+                        flush(channel, entry);
+                        continue;
+                    }
                 }
+                key_codec.encode(node.key, buffer);
+                value_codec.encode(node.value, buffer);
             }
+            flush(channel, buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            log.log_Error("Could not write snapshot to '", temp, "'.");
+            Files.deleteIfExists(temp);
+            throw e;
         }
-        log.log_Error("Could not find key '", key, "' in tree.");
-        throw new NullPointerException("Key '" + key + "' does not exists in AVLTree.");
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.log_Debug("Wrote snapshot of ", this.node_count, " entries to '", path, "'.");
     }
 
     /**
-     * Removes key in tree matching given key
+     * Copies the tree's structure in O(n)
+     * Note: keys and values are shared with the copy, the value index is not carried over
      *
-     * @param key Key to remove
-     * @return Success
-     * @throws UndefinedException when corruption is detected in the tree.
+     * @return Copy of the tree
      */
-    public boolean remove(K key) throws UndefinedException {
-        return this.size() > 0 && remove(key, null, ROOT, this.root);
+    public AVLTree<K, V> copy() {
+        AVLTree<K, V> tree = adopt(copy(this.root, null));
+        tree.parallel_threshold = this.parallel_threshold;
+        tree.relaxed = this.relaxed;
+        tree.unbalanced = this.unbalanced;
+        return tree;
     }
 
     /**
@@ -635,6 +2696,67 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
         return new AVLTreeIterator(this.root);
     }
 
+    /**
+     * {@inheritDoc}
+     * Note: splits on the nodes' in-order ranks so that parallel streams divide the work evenly
+     */
+    @Override
+    public Spliterator<AVLTreeNode<K, V>> spliterator() {
+        return new AVLTreeSpliterator(0, -1, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<AVLTreeNode<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<AVLTreeNode<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Gets an iterator over the nodes in descending order of key
+     *
+     * @return Descending iterator
+     */
+    public Iterator<AVLTreeNode<K, V>> descendingIterator() {
+        return new AVLTreeIterator(this.root, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Note: the elements of the tree are its nodes, membership is checked by climbing the node's parent links in O(log n)
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof AVLTreeNode))
+            return false;
+        AVLTreeNode<?, ?> node = (AVLTreeNode<?, ?>) o;
+        while (node.parent != null) {
+            if (node.parent.left != node && node.parent.right != node)
+                return false;
+            node = node.parent;
+        }
+        return node == this.root;
+    }
+
+    /**
+     * Gets a NavigableMap view of the tree
+     * Note: changes made through the view are made to the tree and vice-versa
+     *
+     * @return NavigableMap backed by the tree
+     */
+    public AVLTreeMap<K, V> asNavigableMap() {
+        return new AVLTreeMap<>(this);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -656,8 +2778,14 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
      * Clears everything from the tree
      */
     public void clear() {
+        this.epoch++;
         this.root = null;
         this.node_count = 0;
+        this.unbalanced = false;
+        if (this.value_index != null)
+            this.value_index.clear();
+        if (this.cache != null)
+            this.cache.clear();
     }
 
     /**
@@ -713,20 +2841,190 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
      * @return Key existence state
      */
     public boolean search(K key) {
+        if (this.cache != null)
+            return lookup(key) != null;
         return this.size() > 0 && search(key, this.root);
     }
 
     /**
      * Searches for key of a value
+     * Note: O(1) expected when the value index is enabled, O(n) otherwise
      *
      * @param value Value to search for
-     * @return Key of value or null if not found
+     * @return Smallest key of value or null if not found
      */
     public K search(V value) {
         log.log_Debug("Searching for value '", value, "'");
         return search(value, this.root);
     }
 
+    /**
+     * Searches for all the keys of a value
+     * Note: O(1) expected (plus the copy of the keys) when the value index is enabled, O(n) otherwise
+     *
+     * @param value Value to search for
+     * @return Keys of value in ascending order (empty if not found)
+     */
+    public Collection<K> searchAll(V value) {
+        if (this.value_index != null) {
+            TreeSet<K> keys = this.value_index.get(value);
+            return keys == null ? new ArrayList<>() : new ArrayList<>(keys);
+        }
+        ArrayList<K> keys = new ArrayList<>();
+        AVLTreeIterator it = new AVLTreeIterator(this.root);
+        while (it.hasNext()) {
+            AVLTreeNode<K, V> current = it.next();
+            if (Objects.equals(current.value, value))
+                keys.add(current.key);
+        }
+        return keys;
+    }
+
+    /**
+     * Sets the value at a key
+     *
+     * @param key   Key
+     * @param value New value
+     * @return Previous value
+     * @throws NullPointerException when key is not in AVLTree
+     */
+    public V setValue(K key, V value) throws NullPointerException {
+        AVLTreeNode<K, V> node = lookup(key);
+        if (node == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in AVLTree.");
+        }
+        return updateValue(node, value);
+    }
+
+    /**
+     * Enables the reverse (value to keys) hash index used by search(V) and searchAll(V)
+     * Note: built in O(n), then maintained by add/remove/apply/setValue at an O(1) expected cost each.
+     * Values must have consistent equals/hashCode and values changed through AVLTreeNode.setValue(V) bypass the index.
+     */
+    public void enableValueIndex() {
+        if (this.value_index != null)
+            return;
+        this.value_index = new HashMap<>();
+        AVLTreeIterator it = new AVLTreeIterator(this.root);
+        while (it.hasNext()) {
+            AVLTreeNode<K, V> current = it.next();
+            indexValue(current.key, current.value);
+        }
+    }
+
+    /**
+     * Disables and drops the reverse (value to keys) hash index
+     */
+    public void disableValueIndex() {
+        this.value_index = null;
+    }
+
+    /**
+     * Checks if the reverse (value to keys) hash index is enabled
+     *
+     * @return Value index state
+     */
+    public boolean isValueIndexed() {
+        return this.value_index != null;
+    }
+
+    /**
+     * Enables the front cache of hot keys so that repeated look-ups of a key skip the descent
+     * Note: keys must have equals/hashCode consistent with compareTo, look-ups update the cache so even read-only
+     * use of the tree must not be concurrent
+     *
+     * @param capacity Maximum number of cached keys (&gt;0)
+     * @throws IllegalArgumentException when the capacity is less than 1
+     */
+    public void enableCache(int capacity) throws IllegalArgumentException {
+        if (capacity < 1) {
+            log.log_Error("Cache capacity (", capacity, ") must be at least 1.");
+            throw new IllegalArgumentException("Cache capacity (" + capacity + ") must be at least 1.");
+        }
+        this.cache = new AVLTreeCache<>(capacity);
+    }
+
+    /**
+     * Disables the front cache
+     */
+    public void disableCache() {
+        this.cache = null;
+    }
+
+    /**
+     * Checks if the front cache is enabled
+     *
+     * @return Cache state
+     */
+    public boolean isCached() {
+        return this.cache != null;
+    }
+
+    /**
+     * Gets the number of look-ups served by the front cache since it was enabled
+     *
+     * @return Hit count (0 when disabled)
+     */
+    public long getCacheHitCount() {
+        return this.cache != null ? this.cache.hits() : 0;
+    }
+
+    /**
+     * Gets the number of look-ups that missed the front cache since it was enabled
+     *
+     * @return Miss count (0 when disabled)
+     */
+    public long getCacheMissCount() {
+        return this.cache != null ? this.cache.misses() : 0;
+    }
+
+    /**
+     * Enables the relaxed balance mode for write bursts
+     * Note: adds/removes only rotate where a node's balance factor goes past +/-4 so the height stays within
+     * a constant factor of log n (about 2.5 log2(n) instead of 1.44 log2(n)), the strict AVL balance is
+     * restored with rebalance() or when the mode is disabled
+     */
+    public void enableRelaxedBalance() {
+        this.relaxed = true;
+    }
+
+    /**
+     * Disables the relaxed balance mode and rebalances the tree
+     */
+    public void disableRelaxedBalance() {
+        this.relaxed = false;
+        rebalance();
+    }
+
+    /**
+     * Checks if the relaxed balance mode is enabled
+     *
+     * @return Relaxed balance state
+     */
+    public boolean isRelaxed() {
+        return this.relaxed;
+    }
+
+    /**
+     * Restores the strict AVL balance deferred by the relaxed balance mode
+     * Note: the nodes are relinked in place into a perfectly balanced shape in O(n), nothing is done when no
+     * imbalance was recorded since the last rebalance
+     */
+    public void rebalance() {
+        if (!this.unbalanced)
+            return;
+        @SuppressWarnings("unchecked")
+        AVLTreeNode<K, V>[] nodes = (AVLTreeNode<K, V>[]) new AVLTreeNode<?, ?>[this.node_count];
+        int index = 0;
+        for (AVLTreeNode<K, V> node = first(); node != null; node = successor(node)) {
+            nodes[index++] = node;
+        }
+        this.root = relink(nodes, 0, index, null);
+        this.unbalanced = false;
+        log.log_Debug("Rebalanced ", index, " nodes.");
+    }
+
     /**
      * Searches for all keys that return true when passed to the comparator function
      *
@@ -761,6 +3059,297 @@ public class AVLTree<K extends Comparable<? super K>, V> extends AbstractCollect
         return list;
     }
 
+    /**
+     * Sets the sub-tree size under which the parallel bulk operations stop forking
+     *
+     * @param threshold Sub-tree size (1 or more)
+     * @throws IllegalArgumentException when the threshold is less than 1
+     */
+    public void setParallelThreshold(int threshold) throws IllegalArgumentException {
+        if (threshold < 1) {
+            log.log_Error("Parallel threshold (", threshold, ") must be at least 1.");
+            throw new IllegalArgumentException("Parallel threshold '" + threshold + "' must be at least 1.");
+        }
+        this.parallel_threshold = threshold;
+    }
+
+    /**
+     * Gets the sub-tree size under which the parallel bulk operations stop forking
+     *
+     * @return Sub-tree size
+     */
+    public int getParallelThreshold() {
+        return this.parallel_threshold;
+    }
+
+    /**
+     * Runs an action on every node of the tree in parallel
+     * Note: the action is called concurrently and in no particular order, the tree must not be modified meanwhile
+     *
+     * @param action Action to run on each node
+     */
+    public void parallelForEach(Consumer<? super AVLTreeNode<K, V>> action) {
+        new SubTreeFold<Void>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            Void fold(AVLTreeNode<K, V> root) {
+                if (root != null)
+                    new AVLTreeIterator(root).forEachRemaining(action);
+                return null;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            Void combine(Void left, AVLTreeNode<K, V> node, Void right) {
+                action.accept(node);
+                return null;
+            }
+        }.invoke();
+    }
+
+    /**
+     * Reduces the nodes of the tree in parallel
+     * Note: partial results are combined in key order so the combiner only needs to be associative
+     *
+     * @param identity    Identity value of the reduction
+     * @param accumulator Function folding a node into a partial result
+     * @param combiner    Associative function combining 2 partial results
+     * @param <R>         Result type
+     * @return Result of the reduction
+     */
+    public <R> R parallelReduce(R identity, BiFunction<R, ? super AVLTreeNode<K, V>, R> accumulator, BinaryOperator<R> combiner) {
+        return new SubTreeFold<R>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            R fold(AVLTreeNode<K, V> root) {
+                R result = identity;
+                if (root != null) {
+                    AVLTreeIterator it = new AVLTreeIterator(root);
+                    while (it.hasNext()) {
+                        result = accumulator.apply(result, it.next());
+                    }
+                }
+                return result;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            R combine(R left, AVLTreeNode<K, V> node, R right) {
+                return combiner.apply(combiner.apply(left, accumulator.apply(identity, node)), right);
+            }
+        }.invoke();
+    }
+
+    /**
+     * Searches in parallel for all values that return true when passed to the comparator function
+     *
+     * @param comparator Comparator with Value as arg. (called concurrently)
+     * @return Collection of values in key order
+     */
+    public Collection<V> parallelSearchValues(Function<V, Boolean> comparator) {
+        return new SubTreeFold<ArrayList<V>>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            ArrayList<V> fold(AVLTreeNode<K, V> root) {
+                ArrayList<V> list = new ArrayList<>();
+                if (root != null) {
+                    AVLTreeIterator it = new AVLTreeIterator(root);
+                    while (it.hasNext()) {
+                        AVLTreeNode<K, V> current = it.next();
+                        if (comparator.apply(current.value))
+                            list.add(current.value);
+                    }
+                }
+                return list;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            ArrayList<V> combine(ArrayList<V> left, AVLTreeNode<K, V> node, ArrayList<V> right) {
+                if (comparator.apply(node.value))
+                    left.add(node.value);
+                left.addAll(right);
+                return left;
+            }
+        }.invoke();
+    }
+
+    /**
+     * Runs a given function on every value of the tree in parallel, in place
+     * Note: the function is called concurrently, the tree must not be modified meanwhile.
+     * The value index (when enabled) is rebuilt afterwards.
+     *
+     * @param function Function to run on each value
+     */
+    public void parallelApplyAll(Function<V, V> function) {
+        parallelForEach(node -> node.value = function.apply(node.value));
+        if (this.value_index != null) {
+            this.value_index = null;
+            enableValueIndex();
+        }
+    }
+
+    /**
+     * Gets a view of the keys in a range
+     *
+     * @param from Lower bound of the range (inclusive)
+     * @param to   Upper bound of the range (exclusive)
+     * @return Range view
+     */
+    public AVLTreeRange subTree(K from, K to) {
+        return subTree(from, true, to, false);
+    }
+
+    /**
+     * Gets a view of the keys in a range
+     *
+     * @param from           Lower bound of the range
+     * @param from_inclusive Flag to include the lower bound in the range
+     * @param to             Upper bound of the range
+     * @param to_inclusive   Flag to include the upper bound in the range
+     * @return Range view
+     * @throws NullPointerException when a bound is null
+     */
+    public AVLTreeRange subTree(K from, boolean from_inclusive, K to, boolean to_inclusive) throws NullPointerException {
+        if (from == null || to == null)
+            throw new NullPointerException("Range bounds cannot be null.");
+        return new AVLTreeRange(from, from_inclusive, to, to_inclusive);
+    }
+
+    /**
+     * Gets a view of the keys below a key
+     *
+     * @param to Upper bound of the range (exclusive)
+     * @return Range view
+     */
+    public AVLTreeRange headTree(K to) {
+        return headTree(to, false);
+    }
+
+    /**
+     * Gets a view of the keys below a key
+     *
+     * @param to        Upper bound of the range
+     * @param inclusive Flag to include the upper bound in the range
+     * @return Range view
+     * @throws NullPointerException when the bound is null
+     */
+    public AVLTreeRange headTree(K to, boolean inclusive) throws NullPointerException {
+        if (to == null)
+            throw new NullPointerException("Range bounds cannot be null.");
+        return new AVLTreeRange(null, false, to, inclusive);
+    }
+
+    /**
+     * Gets a view of the keys above a key
+     *
+     * @param from Lower bound of the range (inclusive)
+     * @return Range view
+     */
+    public AVLTreeRange tailTree(K from) {
+        return tailTree(from, true);
+    }
+
+    /**
+     * Gets a view of the keys above a key
+     *
+     * @param from      Lower bound of the range
+     * @param inclusive Flag to include the lower bound in the range
+     * @return Range view
+     * @throws NullPointerException when the bound is null
+     */
+    public AVLTreeRange tailTree(K from, boolean inclusive) throws NullPointerException {
+        if (from == null)
+            throw new NullPointerException("Range bounds cannot be null.");
+        return new AVLTreeRange(from, inclusive, null, false);
+    }
+
+    /**
+     * Gets the rank of a key (i.e. the number of keys in the tree smaller than it)
+     * Note: the key does not need to be in the tree
+     *
+     * @param key Key
+     * @return Rank of the key
+     */
+    public int rank(K key) {
+        return countBelow(key, false);
+    }
+
+    /**
+     * Gets the key at a rank (i.e. the i-th smallest key)
+     *
+     * @param index Rank (0 to size-1)
+     * @return Key at rank
+     * @throws IndexOutOfBoundsException when the index is not within the tree's size
+     */
+    public K select(int index) throws IndexOutOfBoundsException {
+        return selectNode(index).key;
+    }
+
+    /**
+     * Counts the keys within a range
+     *
+     * @param from Lower bound of the range (inclusive)
+     * @param to   Upper bound of the range (exclusive)
+     * @return Number of keys in [from, to)
+     */
+    public int countRange(K from, K to) {
+        return countRange(from, true, to, false);
+    }
+
+    /**
+     * Counts the keys within a range
+     *
+     * @param from           Lower bound of the range
+     * @param from_inclusive Flag to include the lower bound in the range
+     * @param to             Upper bound of the range
+     * @param to_inclusive   Flag to include the upper bound in the range
+     * @return Number of keys in the range
+     */
+    public int countRange(K from, boolean from_inclusive, K to, boolean to_inclusive) {
+        int count = countBelow(to, to_inclusive) - countBelow(from, !from_inclusive);
+        return count > 0 ? count : 0;
+    }
+
+    /**
+     * Gets the key at a percentile of the tree's keys (nearest-rank method)
+     *
+     * @param percentile Percentile (0 to 100)
+     * @return Key at the percentile
+     * @throws IllegalArgumentException  when the percentile is outside of [0, 100]
+     * @throws IndexOutOfBoundsException when the tree is empty
+     */
+    public K percentile(double percentile) throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            log.log_Error("Percentile (", percentile, ") not within [0, 100].");
+            throw new IllegalArgumentException("Percentile '" + percentile + "' not within [0, 100].");
+        }
+        int index = (int) Math.ceil(percentile / 100 * this.node_count) - 1;
+        return select(index < 0 ? 0 : index);
+    }
+
+    /**
+     * Gets the percentile rank of a key (i.e. the percentage of keys in the tree smaller than it)
+     *
+     * @param key Key
+     * @return Percentile rank (0 to 100) or 0 when the tree is empty
+     */
+    public double percentileRank(K key) {
+        return this.node_count == 0 ? 0 : rank(key) * 100.0 / this.node_count;
+    }
+
     /**
      * Print the tree in Pre-Order
      *
@@ -0,0 +1,157 @@
+package eadjlib.datastructure;
+
+import java.util.HashMap;
+
+/**
+ * Bounded front cache of the nodes of an AVLTree, evicting with the CLOCK (second chance) policy
+ * <p>
+ * Each slot has a reference bit set on every hit. When full, the clock hand sweeps the slots clearing the bits
+ * it passes over and evicts the first slot whose bit was already clear, so keys hit since the last sweep survive.
+ * Keys must have equals/hashCode consistent with compareTo. Not thread-safe: hits update the reference bits.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+class AVLTreeCache<K extends Comparable<? super K>, V> {
+    private final HashMap<K, Integer> slots;
+    private final AVLTreeNode<?, ?>[] nodes;
+    private final boolean[] referenced;
+    private int count = 0;
+    private int hand = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructor
+     *
+     * @param capacity Maximum number of cached nodes (&gt;0)
+     */
+    AVLTreeCache(int capacity) {
+        this.slots = new HashMap<>(capacity * 4 / 3 + 1);
+        this.nodes = new AVLTreeNode<?, ?>[capacity];
+        this.referenced = new boolean[capacity];
+    }
+
+    /**
+     * Gets the node in a slot
+     *
+     * @param slot Slot
+     * @return Node
+     */
+    @SuppressWarnings("unchecked")
+    private AVLTreeNode<K, V> node(int slot) {
+        return (AVLTreeNode<K, V>) this.nodes[slot];
+    }
+
+    /**
+     * Gets the cached node of a key
+     *
+     * @param key Key
+     * @return Node or null on a miss
+     */
+    AVLTreeNode<K, V> get(K key) {
+        Integer slot = this.slots.get(key);
+        if (slot == null) {
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        this.referenced[slot] = true;
+        return node(slot);
+    }
+
+    /**
+     * Caches the node of a key, evicting another when full
+     *
+     * @param node Node
+     */
+    void put(AVLTreeNode<K, V> node) {
+        int slot;
+        if (this.count < this.nodes.length) {
+            slot = this.count++;
+        } else {
+            while (this.referenced[this.hand]) {
+                this.referenced[this.hand] = false;
+                this.hand = (this.hand + 1) % this.nodes.length;
+            }
+            slot = this.hand;
+            this.hand = (this.hand + 1) % this.nodes.length;
+            this.slots.remove(this.nodes[slot].key);
+        }
+        this.nodes[slot] = node;
+        this.referenced[slot] = false;
+        this.slots.put(node.key, slot);
+    }
+
+    /**
+     * Removes a key from the cache
+     * Note: the freed slot is filled with the last used slot to keep the used slots contiguous
+     *
+     * @param key Key
+     */
+    void invalidate(K key) {
+        Integer slot = this.slots.remove(key);
+        if (slot == null)
+            return;
+        int last = --this.count;
+        if (slot != last) {
+            this.nodes[slot] = this.nodes[last];
+            this.referenced[slot] = this.referenced[last];
+            this.slots.put(node(slot).key, slot);
+        }
+        this.nodes[last] = null;
+        this.referenced[last] = false;
+        if (this.hand >= this.count)
+            this.hand = 0;
+    }
+
+    /**
+     * Empties the cache (counters are kept)
+     */
+    void clear() {
+        this.slots.clear();
+        for (int i = 0; i < this.count; i++) {
+            this.nodes[i] = null;
+            this.referenced[i] = false;
+        }
+        this.count = 0;
+        this.hand = 0;
+    }
+
+    /**
+     * Gets the number of cached nodes
+     *
+     * @return Size
+     */
+    int size() {
+        return this.count;
+    }
+
+    /**
+     * Gets the maximum number of cached nodes
+     *
+     * @return Capacity
+     */
+    int capacity() {
+        return this.nodes.length;
+    }
+
+    /**
+     * Gets the number of hits
+     *
+     * @return Hit count
+     */
+    long hits() {
+        return this.hits;
+    }
+
+    /**
+     * Gets the number of misses
+     *
+     * @return Miss count
+     */
+    long misses() {
+        return this.misses;
+    }
+}
@@ -0,0 +1,1060 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+import eadjlib.logger.Logger;
+
+import java.util.*;
+
+/**
+ * NavigableMap backed by an AVLTree
+ * <p>
+ * Look-ups, insertions, removals and navigation (floor/ceiling/higher/lower, first/last, pollFirst/pollLast)
+ * are all O(log n) on the backing tree. Sub-map, descending and key/value/entry views are backed by the same
+ * tree and bounded by key range and/or reversed in order.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class AVLTreeMap<K extends Comparable<? super K>, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final Logger log = Logger.getLoggerInstance(AVLTreeMap.class.getName());
+    private final AVLTree<K, V> tree;
+    private final K lo;
+    private final boolean lo_inclusive;
+    private final K hi;
+    private final boolean hi_inclusive;
+    private final boolean descending;
+
+    //==================================================================================================================
+    // Sub-classes
+    //==================================================================================================================
+
+    /**
+     * Map entry backed by a tree node
+     * Note: setting the value writes through to the node
+     */
+    private class Entry implements Map.Entry<K, V> {
+        private final AVLTreeNode<K, V> node;
+
+        /**
+         * Constructor
+         *
+         * @param node Tree node
+         */
+        Entry(AVLTreeNode<K, V> node) {
+            this.node = node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K getKey() {
+            return this.node.key;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V getValue() {
+            return this.node.value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V setValue(V value) {
+            return tree.updateValue(this.node, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Iterator over the nodes of the map in the map's order
+     *
+     * @param <T> Type returned by the iterator
+     */
+    private abstract class NodeIterator<T> implements Iterator<T> {
+        private AVLTreeNode<K, V> next;
+        private AVLTreeNode<K, V> last_returned = null;
+
+        /**
+         * Constructor
+         */
+        NodeIterator() {
+            this.next = firstNode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        /**
+         * Gets the next node
+         *
+         * @return Next node
+         * @throws NoSuchElementException when there are no more nodes
+         */
+        AVLTreeNode<K, V> nextNode() throws NoSuchElementException {
+            if (this.next == null)
+                throw new NoSuchElementException("No more entries in the map.");
+            this.last_returned = this.next;
+            this.next = AVLTreeMap.this.nextNode(this.next);
+            return this.last_returned;
+        }
+
+        /**
+         * {@inheritDoc}
+         * Note: removal is safe as the tree moves nodes instead of copying keys between them
+         */
+        @Override
+        public void remove() throws IllegalStateException {
+            if (this.last_returned == null)
+                throw new IllegalStateException("No entry to remove.");
+            deleteNode(this.last_returned);
+            this.last_returned = null;
+        }
+    }
+
+    /**
+     * Navigable view of the map's keys
+     */
+    private static class KeySet<K extends Comparable<? super K>> extends AbstractSet<K> implements NavigableSet<K> {
+        private final AVLTreeMap<K, ?> map;
+
+        /**
+         * Constructor
+         *
+         * @param map Backing map
+         */
+        KeySet(AVLTreeMap<K, ?> map) {
+            this.map = map;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<K> iterator() {
+            return this.map.keyIterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return this.map.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isEmpty() {
+            return this.map.isEmpty();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean contains(Object o) {
+            return this.map.containsKey(o);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean remove(Object o) {
+            if (!this.map.containsKey(o))
+                return false;
+            this.map.remove(o);
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void clear() {
+            this.map.clear();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K lower(K k) {
+            return this.map.lowerKey(k);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K floor(K k) {
+            return this.map.floorKey(k);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K ceiling(K k) {
+            return this.map.ceilingKey(k);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K higher(K k) {
+            return this.map.higherKey(k);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K pollFirst() {
+            Map.Entry<K, ?> entry = this.map.pollFirstEntry();
+            return entry == null ? null : entry.getKey();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K pollLast() {
+            Map.Entry<K, ?> entry = this.map.pollLastEntry();
+            return entry == null ? null : entry.getKey();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return new KeySet<>(this.map.descendingMap());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return new KeySet<>(this.map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return new KeySet<>(this.map.headMap(toElement, inclusive));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return new KeySet<>(this.map.tailMap(fromElement, inclusive));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Comparator<? super K> comparator() {
+            return this.map.comparator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K first() {
+            return this.map.firstKey();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K last() {
+            return this.map.lastKey();
+        }
+    }
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Constructor for the bounded/descending views
+     *
+     * @param tree         Backing tree
+     * @param lo           Lower bound in ascending key order (null for unbounded)
+     * @param lo_inclusive Flag to include the lower bound
+     * @param hi           Upper bound in ascending key order (null for unbounded)
+     * @param hi_inclusive Flag to include the upper bound
+     * @param descending   Flag for a map in descending key order
+     */
+    private AVLTreeMap(AVLTree<K, V> tree, K lo, boolean lo_inclusive, K hi, boolean hi_inclusive, boolean descending) {
+        this.tree = tree;
+        this.lo = lo;
+        this.lo_inclusive = lo_inclusive;
+        this.hi = hi;
+        this.hi_inclusive = hi_inclusive;
+        this.descending = descending;
+    }
+
+    /**
+     * Casts an object to the key type
+     *
+     * @param o Object
+     * @return Key
+     * @throws NullPointerException when the object is null
+     * @throws ClassCastException   when the object is not comparable
+     */
+    @SuppressWarnings("unchecked")
+    private K toKey(Object o) throws NullPointerException, ClassCastException {
+        if (o == null)
+            throw new NullPointerException("AVLTreeMap does not support null keys.");
+        return (K) (Comparable<? super K>) o;
+    }
+
+    /**
+     * Checks if a key is below the lower bound
+     *
+     * @param key Key
+     * @return Below bound state
+     */
+    private boolean tooLow(K key) {
+        if (this.lo == null)
+            return false;
+        int comparison = key.compareTo(this.lo);
+        return comparison < 0 || (comparison == 0 && !this.lo_inclusive);
+    }
+
+    /**
+     * Checks if a key is above the upper bound
+     *
+     * @param key Key
+     * @return Above bound state
+     */
+    private boolean tooHigh(K key) {
+        if (this.hi == null)
+            return false;
+        int comparison = key.compareTo(this.hi);
+        return comparison > 0 || (comparison == 0 && !this.hi_inclusive);
+    }
+
+    /**
+     * Checks if a key is within the bounds of the map
+     *
+     * @param key Key
+     * @return In range state
+     */
+    private boolean inRange(K key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    /**
+     * Checks if a key can be used as a bound for a sub-map of this map
+     *
+     * @param key       Key
+     * @param inclusive Flag for an inclusive bound
+     * @return Valid bound state
+     */
+    private boolean isValidBound(K key, boolean inclusive) {
+        if (inclusive)
+            return inRange(key);
+        return (this.lo == null || key.compareTo(this.lo) >= 0) && (this.hi == null || key.compareTo(this.hi) <= 0);
+    }
+
+    /**
+     * Gets the node with the lowest key in range
+     *
+     * @return Node or null
+     */
+    private AVLTreeNode<K, V> absLowest() {
+        AVLTreeNode<K, V> node = this.lo == null ? this.tree.first() : this.tree.ceilingNode(this.lo, this.lo_inclusive);
+        return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    /**
+     * Gets the node with the highest key in range
+     *
+     * @return Node or null
+     */
+    private AVLTreeNode<K, V> absHighest() {
+        AVLTreeNode<K, V> node = this.hi == null ? this.tree.last() : this.tree.floorNode(this.hi, this.hi_inclusive);
+        return node == null || tooLow(node.key) ? null : node;
+    }
+
+    /**
+     * Gets the node in range with the smallest key above (or equal to) a key
+     *
+     * @param key       Key
+     * @param inclusive Flag to accept a node matching the key
+     * @return Node or null
+     */
+    private AVLTreeNode<K, V> absCeiling(K key, boolean inclusive) {
+        if (tooLow(key))
+            return absLowest();
+        AVLTreeNode<K, V> node = this.tree.ceilingNode(key, inclusive);
+        return node == null || tooHigh(node.key) ? null : node;
+    }
+
+    /**
+     * Gets the node in range with the largest key below (or equal to) a key
+     *
+     * @param key       Key
+     * @param inclusive Flag to accept a node matching the key
+     * @return Node or null
+     */
+    private AVLTreeNode<K, V> absFloor(K key, boolean inclusive) {
+        if (tooHigh(key))
+            return absHighest();
+        AVLTreeNode<K, V> node = this.tree.floorNode(key, inclusive);
+        return node == null || tooLow(node.key) ? null : node;
+    }
+
+    /**
+     * Gets the first node in the map's order
+     *
+     * @return Node or null
+     */
+    private AVLTreeNode<K, V> firstNode() {
+        return this.descending ? absHighest() : absLowest();
+    }
+
+    /**
+     * Gets the last node in the map's order
+     *
+     * @return Node or null
+     */
+    private AVLTreeNode<K, V> lastNode() {
+        return this.descending ? absLowest() : absHighest();
+    }
+
+    /**
+     * Gets the node following another in the map's order
+     *
+     * @param node Node
+     * @return Next node or null
+     */
+    private AVLTreeNode<K, V> nextNode(AVLTreeNode<K, V> node) {
+        AVLTreeNode<K, V> next = this.descending ? this.tree.predecessor(node) : this.tree.successor(node);
+        return next == null || !inRange(next.key) ? null : next;
+    }
+
+    /**
+     * Removes a node from the backing tree
+     *
+     * @param node Node
+     * @throws RuntimeException when corruption is detected in the tree
+     */
+    private void deleteNode(AVLTreeNode<K, V> node) throws RuntimeException {
+        try {
+            this.tree.removeNode(node);
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected whilst removing key '", node.key, "' through the AVLTreeMap.");
+            throw new RuntimeException("Corruption detected whilst removing key [" + node.key + "] through the AVLTreeMap.", e);
+        }
+    }
+
+    /**
+     * Removes a node from the backing tree and exports it as an immutable entry
+     *
+     * @param node Node (can be null)
+     * @return Entry or null
+     */
+    private Map.Entry<K, V> pollNode(AVLTreeNode<K, V> node) {
+        if (node == null)
+            return null;
+        Map.Entry<K, V> entry = exportEntry(node);
+        deleteNode(node);
+        return entry;
+    }
+
+    /**
+     * Exports a node as an immutable entry
+     *
+     * @param node Node (can be null)
+     * @return Entry or null
+     */
+    private Map.Entry<K, V> exportEntry(AVLTreeNode<K, V> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+    }
+
+    /**
+     * Gets the key of a node
+     *
+     * @param node Node (can be null)
+     * @return Key or null
+     */
+    private K keyOf(AVLTreeNode<K, V> node) {
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * Gets the key of a node
+     *
+     * @param node Node (can be null)
+     * @return Key
+     * @throws NoSuchElementException when the node is null
+     */
+    private K keyOrThrow(AVLTreeNode<K, V> node) throws NoSuchElementException {
+        if (node == null)
+            throw new NoSuchElementException("AVLTreeMap is empty.");
+        return node.key;
+    }
+
+    /**
+     * Gets an iterator over the keys in the map's order
+     *
+     * @return Key iterator
+     */
+    private Iterator<K> keyIterator() {
+        return new NodeIterator<K>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public K next() {
+                return nextNode().key;
+            }
+        };
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     */
+    public AVLTreeMap() {
+        this(new AVLTree<>());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tree Backing tree
+     */
+    public AVLTreeMap(AVLTree<K, V> tree) {
+        this(tree, null, false, null, false, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        if (this.lo == null && this.hi == null)
+            return this.tree.size();
+        int upper = this.hi == null ? this.tree.size() : this.tree.countBelow(this.hi, this.hi_inclusive);
+        int lower = this.lo == null ? 0 : this.tree.countBelow(this.lo, !this.lo_inclusive);
+        return upper > lower ? upper - lower : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return absLowest() == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        K k = toKey(key);
+        return inRange(k) && this.tree.findNode(k) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        K k = toKey(key);
+        if (!inRange(k))
+            return null;
+        AVLTreeNode<K, V> node = this.tree.findNode(k);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException     when the key is null
+     * @throws IllegalArgumentException when the key is outside the range of the map
+     * @throws RuntimeException         when corruption is detected in the tree
+     */
+    @Override
+    public V put(K key, V value) throws NullPointerException, IllegalArgumentException, RuntimeException {
+        if (key == null)
+            throw new NullPointerException("AVLTreeMap does not support null keys.");
+        if (!inRange(key))
+            throw new IllegalArgumentException("Key '" + key + "' is out of the map's range.");
+        AVLTreeNode<K, V> node = this.tree.findInsertionPoint(key);
+        if (node != null && key.compareTo(node.key) == 0)
+            return this.tree.updateValue(node, value);
+        try {
+            this.tree.insertAt(node, key, value);
+            return null;
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected whilst adding key '", key, "' through the AVLTreeMap.");
+            throw new RuntimeException("Corruption detected whilst adding key [" + key + "] through the AVLTreeMap.", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RuntimeException when corruption is detected in the tree
+     */
+    @Override
+    public V remove(Object key) throws RuntimeException {
+        K k = toKey(key);
+        if (!inRange(k))
+            return null;
+        AVLTreeNode<K, V> node = this.tree.findNode(k);
+        if (node == null)
+            return null;
+        V old = node.value;
+        deleteNode(node);
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        if (this.lo == null && this.hi == null) {
+            this.tree.clear();
+        } else {
+            for (AVLTreeNode<K, V> node = absLowest(); node != null; node = absLowest()) {
+                deleteNode(node);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return exportEntry(this.descending ? absCeiling(key, false) : absFloor(key, false));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K lowerKey(K key) {
+        return keyOf(this.descending ? absCeiling(key, false) : absFloor(key, false));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return exportEntry(this.descending ? absCeiling(key, true) : absFloor(key, true));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K floorKey(K key) {
+        return keyOf(this.descending ? absCeiling(key, true) : absFloor(key, true));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return exportEntry(this.descending ? absFloor(key, true) : absCeiling(key, true));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K ceilingKey(K key) {
+        return keyOf(this.descending ? absFloor(key, true) : absCeiling(key, true));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return exportEntry(this.descending ? absFloor(key, false) : absCeiling(key, false));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K higherKey(K key) {
+        return keyOf(this.descending ? absFloor(key, false) : absCeiling(key, false));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return exportEntry(firstNode());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return exportEntry(lastNode());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return pollNode(firstNode());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return pollNode(lastNode());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K firstKey() throws NoSuchElementException {
+        return keyOrThrow(firstNode());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K lastKey() throws NoSuchElementException {
+        return keyOrThrow(lastNode());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Comparator<? super K> comparator() {
+        return this.descending ? Collections.reverseOrder() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AVLTreeMap<K, V> descendingMap() {
+        return new AVLTreeMap<>(this.tree, this.lo, this.lo_inclusive, this.hi, this.hi_inclusive, !this.descending);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NavigableSet<K> keySet() {
+        return navigableKeySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Iterator<V> iterator() {
+                return new NodeIterator<V>() {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public V next() {
+                        return nextNode().value;
+                    }
+                };
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int size() {
+                return AVLTreeMap.this.size();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void clear() {
+                AVLTreeMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new NodeIterator<Map.Entry<K, V>>() {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        return new Entry(nextNode());
+                    }
+                };
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public int size() {
+                return AVLTreeMap.this.size();
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry))
+                    return false;
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                K key = toKey(entry.getKey());
+                if (!inRange(key))
+                    return false;
+                AVLTreeNode<K, V> node = tree.findNode(key);
+                return node != null && Objects.equals(node.value, entry.getValue());
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean remove(Object o) {
+                if (!contains(o))
+                    return false;
+                AVLTreeMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void clear() {
+                AVLTreeMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException when the bounds are inverted or outside the range of the map
+     */
+    @Override
+    public AVLTreeMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) throws IllegalArgumentException {
+        if (fromKey == null || toKey == null)
+            throw new NullPointerException("AVLTreeMap does not support null keys.");
+        int comparison = fromKey.compareTo(toKey);
+        if (this.descending ? comparison < 0 : comparison > 0)
+            throw new IllegalArgumentException("fromKey > toKey");
+        if (!isValidBound(fromKey, fromInclusive))
+            throw new IllegalArgumentException("fromKey out of range");
+        if (!isValidBound(toKey, toInclusive))
+            throw new IllegalArgumentException("toKey out of range");
+        return this.descending
+                ? new AVLTreeMap<>(this.tree, toKey, toInclusive, fromKey, fromInclusive, true)
+                : new AVLTreeMap<>(this.tree, fromKey, fromInclusive, toKey, toInclusive, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException when the bound is outside the range of the map
+     */
+    @Override
+    public AVLTreeMap<K, V> headMap(K toKey, boolean inclusive) throws IllegalArgumentException {
+        if (toKey == null)
+            throw new NullPointerException("AVLTreeMap does not support null keys.");
+        if (!isValidBound(toKey, inclusive))
+            throw new IllegalArgumentException("toKey out of range");
+        return this.descending
+                ? new AVLTreeMap<>(this.tree, toKey, inclusive, this.hi, this.hi_inclusive, true)
+                : new AVLTreeMap<>(this.tree, this.lo, this.lo_inclusive, toKey, inclusive, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException when the bound is outside the range of the map
+     */
+    @Override
+    public AVLTreeMap<K, V> tailMap(K fromKey, boolean inclusive) throws IllegalArgumentException {
+        if (fromKey == null)
+            throw new NullPointerException("AVLTreeMap does not support null keys.");
+        if (!isValidBound(fromKey, inclusive))
+            throw new IllegalArgumentException("fromKey out of range");
+        return this.descending
+                ? new AVLTreeMap<>(this.tree, this.lo, this.lo_inclusive, fromKey, inclusive, true)
+                : new AVLTreeMap<>(this.tree, fromKey, inclusive, this.hi, this.hi_inclusive, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * Gets the backing tree
+     *
+     * @return AVLTree
+     */
+    public AVLTree<K, V> tree() {
+        return this.tree;
+    }
+}
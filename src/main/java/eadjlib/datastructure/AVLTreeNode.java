@@ -1,9 +1,19 @@
 package eadjlib.datastructure;
 
-import eadjlib.logger.Logger;
+/**
+ * AVL tree node
+ * <p>
+ * Memory footprint per node on a 64-bit HotSpot JVM (key and value objects not included):
+ * - compressed oops (heap under 32GB): 12B header + 5 x 4B references + 4B size + 1B height = 37B, padded to 40B
+ * - uncompressed oops              : 16B header + 5 x 8B references + 4B size + 1B height = 61B, padded to 64B
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
 public class AVLTreeNode<K extends Comparable<? super K>, V> implements Comparable<K> {
-    private final Logger log = Logger.getLoggerInstance(AVLTreeNode.class.getName());
-    private Integer balance_factor;
+    byte height = 1;
+    int size = 1;
     K key;
     V value;
     AVLTreeNode<K, V> parent;
@@ -31,27 +41,50 @@ public class AVLTreeNode<K extends Comparable<? super K>, V> implements Comparab
 
     /**
      * Gets the height of the node in the tree
+     * Note: this is the cached height, kept up to date by the tree during re-balancing
      *
      * @return Height of node
      */
     public int height() {
-        int l_height = 0;
-        int r_height = 0;
-        if (this.left != null)
-            l_height = this.left.height();
-        if (this.right != null)
-            r_height = this.right.height();
-        return Math.max(l_height, r_height) + 1;
+        return this.height;
     }
 
     /**
-     * Refreshes and gets the balance status of the balance factor
+     * Refreshes the cached height of the node from the cached heights of its children
+     */
+    void updateHeight() {
+        int l_height = this.left != null ? this.left.height : 0;
+        int r_height = this.right != null ? this.right.height : 0;
+        this.height = (byte) (Math.max(l_height, r_height) + 1);
+    }
+
+    /**
+     * Gets the number of nodes in the sub-tree rooted at this node
+     * Note: this is the cached size, kept up to date by the tree during re-balancing
+     *
+     * @return Size of the sub-tree
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Refreshes the cached sub-tree size of the node from the cached sizes of its children
+     */
+    void updateSize() {
+        int l_size = this.left != null ? this.left.size : 0;
+        int r_size = this.right != null ? this.right.size : 0;
+        this.size = l_size + r_size + 1;
+    }
+
+    /**
+     * Gets the balance status of the node
      *
      * @return Balance status
      */
     public boolean isBalanced() {
-        getBalanceFactor();
-        return this.balance_factor > -2 && this.balance_factor < 2;
+        int factor = getBalanceFactor();
+        return factor > -2 && factor < 2;
     }
 
     /**
@@ -60,14 +93,9 @@ public class AVLTreeNode<K extends Comparable<? super K>, V> implements Comparab
      * @return Balance factor
      */
     public int getBalanceFactor() {
-        int l_height = 0;
-        int r_height = 0;
-        if (this.left != null)
-            l_height = this.left.height();
-        if (this.right != null)
-            r_height = this.right.height();
-        this.balance_factor = l_height - r_height;
-        return this.balance_factor;
+        int l_height = this.left != null ? this.left.height : 0;
+        int r_height = this.right != null ? this.right.height : 0;
+        return l_height - r_height;
     }
 
     /**
@@ -106,6 +134,7 @@ public class AVLTreeNode<K extends Comparable<? super K>, V> implements Comparab
 
     /**
      * Sets the node's value
+     * Note: this bypasses the tree's value index, use AVLTree.setValue(K, V) on indexed trees
      *
      * @param value Value to set the node to
      */
@@ -0,0 +1,856 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+import eadjlib.logger.Logger;
+import javafx.util.Pair;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * AVL tree whose nodes are stored as a struct-of-arrays and addressed by int index
+ * <p>
+ * Keys, values, links and heights live in parallel arrays so that there are no node objects for the GC
+ * to trace and descents touch contiguous memory. Removed slots are recycled through a free list and the
+ * arrays grow by 50% when full. Slot 0 is a sentinel standing for 'no node' (height 0).
+ * </p>
+ * <p>
+ * Memory footprint per slot on a 64-bit JVM with compressed oops (key and value objects not included):
+ * 2 x 4B references + 3 x 4B links + 1B height = 21B, plus up to 50% growth slack.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ArrayAVLTree<K extends Comparable<? super K>, V> extends AbstractCollection<Map.Entry<K, V>> {
+    private static final int NIL = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+    private final Logger log = Logger.getLoggerInstance(ArrayAVLTree.class.getName());
+    private Object[] keys;
+    private Object[] values;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private byte[] height;
+    private int root = NIL;
+    private int node_count = 0;
+    private int next_slot = 1;
+    private int free_list = NIL;
+
+    //==================================================================================================================
+    // Sub-classes
+    //==================================================================================================================
+
+    /**
+     * Key-Value entry backed by a slot of the tree
+     * Note: setting the value writes through to the tree
+     */
+    private class Entry implements Map.Entry<K, V> {
+        private final int index;
+
+        /**
+         * Constructor
+         *
+         * @param index Slot index
+         */
+        Entry(int index) {
+            this.index = index;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public K getKey() {
+            return keyAt(this.index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V getValue() {
+            return valueAt(this.index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V setValue(V value) {
+            V old = valueAt(this.index);
+            values[this.index] = value;
+            return old;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "[" + getKey() + "]=" + getValue();
+        }
+    }
+
+    /**
+     * In-order iterator
+     * Note: walks the parent links so iterating needs no extra storage
+     */
+    public class ArrayAVLTreeIterator implements Iterator<Map.Entry<K, V>> {
+        private int next;
+
+        /**
+         * Constructor
+         *
+         * @param first Slot of the first node to return
+         */
+        ArrayAVLTreeIterator(int first) {
+            this.next = first;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return this.next != NIL;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return next entry
+         * @throws NoSuchElementException when there are no more entries
+         */
+        @Override
+        public Map.Entry<K, V> next() throws NoSuchElementException {
+            if (this.next == NIL)
+                throw new NoSuchElementException("No more entries in the tree.");
+            int current = this.next;
+            this.next = successor(current);
+            return new Entry(current);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException("Removal is not supported on the AVL tree iterator.");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+            while (hasNext()) {
+                action.accept(next());
+            }
+        }
+    }
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Gets the key stored in a slot
+     *
+     * @param index Slot index
+     * @return Key
+     */
+    @SuppressWarnings("unchecked")
+    private K keyAt(int index) {
+        return (K) this.keys[index];
+    }
+
+    /**
+     * Gets the value stored in a slot
+     *
+     * @param index Slot index
+     * @return Value
+     */
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) this.values[index];
+    }
+
+    /**
+     * Finds the slot of a key
+     *
+     * @param key Key to look for
+     * @return Slot index or NIL if not found
+     */
+    private int find(K key) {
+        int node = this.root;
+        while (node != NIL) {
+            int comparison = key.compareTo(keyAt(node));
+            if (comparison < 0)
+                node = this.left[node];
+            else if (comparison > 0)
+                node = this.right[node];
+            else
+                return node;
+        }
+        return NIL;
+    }
+
+    /**
+     * Takes a free slot for a new leaf, growing the arrays when none are left
+     *
+     * @param parent Parent slot
+     * @param key    Key
+     * @param value  Value
+     * @return Slot index
+     */
+    private int allocate(int parent, K key, V value) {
+        int index;
+        if (this.free_list != NIL) {
+            index = this.free_list;
+            this.free_list = this.right[index];
+        } else {
+            if (this.next_slot == this.keys.length)
+                grow();
+            index = this.next_slot++;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.left[index] = NIL;
+        this.right[index] = NIL;
+        this.parent[index] = parent;
+        this.height[index] = 1;
+        return index;
+    }
+
+    /**
+     * Returns a slot to the free list
+     *
+     * @param index Slot index
+     */
+    private void release(int index) {
+        this.keys[index] = null;
+        this.values[index] = null;
+        this.left[index] = NIL;
+        this.parent[index] = NIL;
+        this.height[index] = 0;
+        this.right[index] = this.free_list;
+        this.free_list = index;
+    }
+
+    /**
+     * Grows the arrays by 50%
+     *
+     * @throws IllegalStateException when the maximum capacity is reached
+     */
+    private void grow() throws IllegalStateException {
+        int capacity = this.keys.length;
+        if (capacity == Integer.MAX_VALUE - 8) {
+            log.log_Fatal("Maximum capacity of ArrayAVLTree reached.");
+            throw new IllegalStateException("Maximum capacity of ArrayAVLTree reached.");
+        }
+        int new_capacity = (int) Math.min((long) capacity + (capacity >> 1) + 1, Integer.MAX_VALUE - 8);
+        resize(new_capacity);
+    }
+
+    /**
+     * Re-sizes the arrays
+     *
+     * @param capacity New array length (sentinel included)
+     */
+    private void resize(int capacity) {
+        this.keys = Arrays.copyOf(this.keys, capacity);
+        this.values = Arrays.copyOf(this.values, capacity);
+        this.left = Arrays.copyOf(this.left, capacity);
+        this.right = Arrays.copyOf(this.right, capacity);
+        this.parent = Arrays.copyOf(this.parent, capacity);
+        this.height = Arrays.copyOf(this.height, capacity);
+    }
+
+    /**
+     * Refreshes the cached height of a node from the cached heights of its children
+     *
+     * @param node Slot index
+     */
+    private void updateHeight(int node) {
+        this.height[node] = (byte) (Math.max(this.height[this.left[node]], this.height[this.right[node]]) + 1);
+    }
+
+    /**
+     * Gets the balance factor of a node
+     *
+     * @param node Slot index
+     * @return Balance factor
+     */
+    private int getBalanceFactor(int node) {
+        return this.height[this.left[node]] - this.height[this.right[node]];
+    }
+
+    /**
+     * Balances the nodes in the tree in reverse (leaf to root)
+     * Note: stops at the first ancestor whose sub-tree height is unchanged as nothing above it can be affected
+     *
+     * @param node Root of the balance
+     * @throws UndefinedException when corruption is detected
+     */
+    private void balance(int node) throws UndefinedException {
+        while (node != NIL) {
+            int parent = this.parent[node];
+            int height = this.height[node];
+            updateHeight(node);
+            int factor = getBalanceFactor(node);
+            if (factor > 1) {
+                if (getBalanceFactor(this.left[node]) < 0)
+                    rotateLeft(this.left[node]);
+                node = rotateRight(node);
+            } else if (factor < -1) {
+                if (getBalanceFactor(this.right[node]) > 0)
+                    rotateRight(this.right[node]);
+                node = rotateLeft(node);
+            }
+            if (this.height[node] == height)
+                return;
+            node = parent;
+        }
+    }
+
+    /**
+     * Right rotation
+     * Note: where a<-b<-c becomes a<-b->c
+     *
+     * @param a Root of the rotation
+     * @return New root of the rotated sub-tree
+     * @throws UndefinedException when the root points to a parent that isn't his
+     */
+    private int rotateRight(int a) throws UndefinedException {
+        int b = this.left[a];
+        replace(a, b);
+        this.left[a] = this.right[b];
+        if (this.left[a] != NIL)
+            this.parent[this.left[a]] = a;
+        this.right[b] = a;
+        this.parent[a] = b;
+        updateHeight(a);
+        updateHeight(b);
+        return b;
+    }
+
+    /**
+     * Left rotation
+     * Note: where a->b->c becomes a<-b->c
+     *
+     * @param a Root of the rotation
+     * @return New root of the rotated sub-tree
+     * @throws UndefinedException when the root points to a parent that isn't his
+     */
+    private int rotateLeft(int a) throws UndefinedException {
+        int b = this.right[a];
+        replace(a, b);
+        this.right[a] = this.left[b];
+        if (this.right[a] != NIL)
+            this.parent[this.right[a]] = a;
+        this.left[b] = a;
+        this.parent[a] = b;
+        updateHeight(a);
+        updateHeight(b);
+        return b;
+    }
+
+    /**
+     * Puts a node/branch in the place of another in the latter's parent
+     *
+     * @param node        Slot to replace
+     * @param replacement Replacement slot (can be NIL)
+     * @throws UndefinedException when the node points to a parent that isn't his
+     */
+    private void replace(int node, int replacement) throws UndefinedException {
+        int parent = this.parent[node];
+        if (parent == NIL) {
+            this.root = replacement;
+        } else if (this.left[parent] == node) {
+            this.left[parent] = replacement;
+        } else if (this.right[parent] == node) {
+            this.right[parent] = replacement;
+        } else {
+            throw new UndefinedException("Node [" + this.keys[node] + "] points to the wrong parent. Must have attachment issues or be confused.");
+        }
+        if (replacement != NIL)
+            this.parent[replacement] = parent;
+    }
+
+    /**
+     * Unlinks a node from the tree and re-balances
+     * Note: a node with 2 children takes the key/value of the largest node of its left sub-tree which is unlinked instead
+     *
+     * @param node Slot to remove
+     * @throws UndefinedException when corruption is detected
+     */
+    private void delete(int node) throws UndefinedException {
+        if (this.left[node] != NIL && this.right[node] != NIL) {
+            int replacement = this.left[node];
+            while (this.right[replacement] != NIL) {
+                replacement = this.right[replacement];
+            }
+            this.keys[node] = this.keys[replacement];
+            this.values[node] = this.values[replacement];
+            node = replacement;
+        }
+        int parent = this.parent[node];
+        replace(node, this.left[node] != NIL ? this.left[node] : this.right[node]);
+        release(node);
+        this.node_count--;
+        balance(parent);
+    }
+
+    /**
+     * Gets the first node in-order
+     *
+     * @return Slot index or NIL when empty
+     */
+    private int first() {
+        int node = this.root;
+        if (node != NIL) {
+            while (this.left[node] != NIL) {
+                node = this.left[node];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Gets the in-order successor of a node
+     *
+     * @param node Slot index
+     * @return Successor slot index or NIL if the node is the last one
+     */
+    private int successor(int node) {
+        if (this.right[node] != NIL) {
+            node = this.right[node];
+            while (this.left[node] != NIL) {
+                node = this.left[node];
+            }
+            return node;
+        }
+        while (this.parent[node] != NIL && this.right[this.parent[node]] == node) {
+            node = this.parent[node];
+        }
+        return this.parent[node];
+    }
+
+    /**
+     * Pre-Order Binary Tree transversal
+     *
+     * @param printer Printer function
+     * @param node    Node to process
+     */
+    private void preOrder(IPrintFunction printer, int node) {
+        if (node != NIL) {
+            printer.call(this.keys[node], this.values[node]);
+            preOrder(printer, this.left[node]);
+            preOrder(printer, this.right[node]);
+        }
+    }
+
+    /**
+     * In-Order BinaryTree transversal
+     *
+     * @param printer Printer function
+     * @param node    Node to process
+     */
+    private void inOrder(IPrintFunction printer, int node) {
+        if (node != NIL) {
+            inOrder(printer, this.left[node]);
+            printer.call(this.keys[node], this.values[node]);
+            inOrder(printer, this.right[node]);
+        }
+    }
+
+    /**
+     * Post-Order BinaryTree transversal
+     *
+     * @param printer Printer function
+     * @param node    Node to process
+     */
+    private void postOrder(IPrintFunction printer, int node) {
+        if (node != NIL) {
+            postOrder(printer, this.left[node]);
+            postOrder(printer, this.right[node]);
+            printer.call(this.keys[node], this.values[node]);
+        }
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     */
+    public ArrayAVLTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param capacity Initial number of node slots
+     * @throws IllegalArgumentException when the capacity is negative
+     */
+    public ArrayAVLTree(int capacity) throws IllegalArgumentException {
+        if (capacity < 0 || capacity > Integer.MAX_VALUE - 9) {
+            log.log_Error("Invalid capacity (", capacity, ") given to ArrayAVLTree.");
+            throw new IllegalArgumentException("Invalid capacity (" + capacity + ") given to ArrayAVLTree.");
+        }
+        this.keys = new Object[capacity + 1];
+        this.values = new Object[capacity + 1];
+        this.left = new int[capacity + 1];
+        this.right = new int[capacity + 1];
+        this.parent = new int[capacity + 1];
+        this.height = new byte[capacity + 1];
+    }
+
+    /**
+     * Constructor
+     *
+     * @param list List of keys to initialise the tree with
+     * @throws RuntimeException when corruption is detected during tree construction
+     */
+    public ArrayAVLTree(Collection<Pair<K, V>> list) throws RuntimeException {
+        this(list.size());
+        try {
+            for (Pair<K, V> item : list) {
+                this.add(item.getKey(), item.getValue());
+            }
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected during additions of keys from ArrayAVLTree constructor list.");
+            throw new RuntimeException("Corruption detected during additions of keys from ArrayAVLTree constructor list.", e);
+        }
+    }
+
+    /**
+     * Adds a key to the tree
+     *
+     * @param key   Key to add
+     * @param value Value to add
+     * @return Success
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public boolean add(K key, V value) throws UndefinedException {
+        int parent = NIL;
+        int node = this.root;
+        int comparison = 0;
+        while (node != NIL) {
+            parent = node;
+            comparison = key.compareTo(keyAt(node));
+            if (comparison < 0) {
+                node = this.left[node];
+            } else if (comparison > 0) {
+                node = this.right[node];
+            } else {
+                log.log_Error("Key '", key, "' already exists in tree.");
+                return false;
+            }
+        }
+        node = allocate(parent, key, value);
+        if (parent == NIL)
+            this.root = node;
+        else if (comparison < 0)
+            this.left[parent] = node;
+        else
+            this.right[parent] = node;
+        this.node_count++;
+        try {
+            balance(parent);
+        } catch (UndefinedException e) {
+            throw new UndefinedException("Balancing failed whilst adding key [" + key + "] to tree.", e);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in ArrayAVLTree
+     */
+    public V getValue(K key) throws NullPointerException {
+        int node = find(key);
+        if (node == NIL) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in ArrayAVLTree.");
+        }
+        return valueAt(node);
+    }
+
+    /**
+     * Runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in ArrayAVLTree
+     */
+    public V apply(K key, Function<V, V> function) throws NullPointerException {
+        int node = find(key);
+        if (node == NIL) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in ArrayAVLTree.");
+        }
+        V value = function.apply(valueAt(node));
+        this.values[node] = value;
+        return value;
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     * @throws UndefinedException when corruption is detected in the tree.
+     */
+    public boolean remove(K key) throws UndefinedException {
+        int node = find(key);
+        if (node == NIL)
+            return false;
+        try {
+            delete(node);
+            return true;
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected during removal of a node with key '", key, "'.");
+            throw new UndefinedException("Corruption detected during removal of a node with key [" + key + "].", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new ArrayAVLTreeIterator(first());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.node_count;
+    }
+
+    /**
+     * Gets the number of node slots currently allocated
+     *
+     * @return Capacity
+     */
+    public int capacity() {
+        return this.keys.length - 1;
+    }
+
+    /**
+     * Gets the height of the tree
+     *
+     * @return Tree height
+     */
+    public int height() {
+        return this.height[this.root];
+    }
+
+    /**
+     * Clears everything from the tree
+     * Note: the allocated capacity is kept
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, null);
+        Arrays.fill(this.height, (byte) 0);
+        this.root = NIL;
+        this.node_count = 0;
+        this.next_slot = 1;
+        this.free_list = NIL;
+    }
+
+    /**
+     * Checks if tree is empty
+     *
+     * @return Empty state of tree
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.node_count == 0;
+    }
+
+    /**
+     * Checks if the tree is full
+     *
+     * @return Full state of tree
+     */
+    public boolean isFull() {
+        if (this.node_count == 0) return true;
+        boolean flag = false;
+        Queue<Integer> queue = new LinkedList<>();
+        queue.add(this.root);
+        while (!queue.isEmpty()) {
+            int current = queue.remove();
+            if (this.left[current] != NIL) {
+                if (flag) return false;
+                queue.add(this.left[current]);
+            } else {
+                flag = true;
+            }
+            if (this.right[current] != NIL) {
+                if (flag) return false;
+                queue.add(this.right[current]);
+            } else {
+                flag = true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the tree is complete
+     *
+     * @return Complete state of tree
+     */
+    public boolean isComplete() {
+        return (Math.pow(2, this.height()) - 1) == this.node_count;
+    }
+
+    /**
+     * Looks for the existence of a key in the tree
+     *
+     * @param key Key to look for
+     * @return Key existence state
+     */
+    public boolean search(K key) {
+        return find(key) != NIL;
+    }
+
+    /**
+     * Searches for key of a value
+     *
+     * @param value Value to search for
+     * @return Key of value or null if not found
+     */
+    public K search(V value) {
+        for (int node = first(); node != NIL; node = successor(node)) {
+            if (this.values[node].equals(value))
+                return keyAt(node);
+        }
+        return null;
+    }
+
+    /**
+     * Searches for all keys that return true when passed to the comparator function
+     *
+     * @param comparator Comparator with Key as arg.
+     * @return Collection of values
+     */
+    public Collection<V> searchKeys(Function<K, Boolean> comparator) {
+        LinkedList<V> list = new LinkedList<>();
+        for (int node = first(); node != NIL; node = successor(node)) {
+            if (comparator.apply(keyAt(node)))
+                list.add(valueAt(node));
+        }
+        return list;
+    }
+
+    /**
+     * Searches for all values that return true when passed to the comparator function
+     *
+     * @param comparator Comparator with Value as arg.
+     * @return Collection of values
+     */
+    public Collection<V> searchValues(Function<V, Boolean> comparator) {
+        LinkedList<V> list = new LinkedList<>();
+        for (int node = first(); node != NIL; node = successor(node)) {
+            if (comparator.apply(valueAt(node)))
+                list.add(valueAt(node));
+        }
+        return list;
+    }
+
+    /**
+     * Print the tree in Pre-Order
+     *
+     * @param printer Printing function
+     */
+    public void preOrder(IPrintFunction printer) {
+        this.preOrder(printer, this.root);
+    }
+
+    /**
+     * Print the tree in In-Order
+     *
+     * @param printer Printing function
+     */
+    public void inOrder(IPrintFunction printer) {
+        this.inOrder(printer, this.root);
+    }
+
+    /**
+     * Print the tree in Post-Order
+     *
+     * @param printer Printing function
+     */
+    public void postOrder(IPrintFunction printer) {
+        this.postOrder(printer, this.root);
+    }
+
+    /**
+     * Print the tree in Level-Order
+     *
+     * @param printer Printing function
+     */
+    public void levelOrder(IPrintFunction printer) {
+        if (this.root != NIL) {
+            int[] queue = new int[this.node_count];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = this.root;
+            while (head < tail) {
+                int current = queue[head++];
+                printer.call(this.keys[current], this.values[current]);
+                if (this.left[current] != NIL) queue[tail++] = this.left[current];
+                if (this.right[current] != NIL) queue[tail++] = this.right[current];
+            }
+        }
+    }
+
+    /**
+     * toString method
+     *
+     * @return Summary of the ArrayAVLTree data-structure as a string
+     */
+    @Override
+    public String toString() {
+        return "ArrayAVLTree<K>( nodes = " + this.node_count + ", height = " + this.height() + ", capacity = " + this.capacity() + " )";
+    }
+
+    /**
+     * Prints the all nodes and their children in rows
+     *
+     * @return String containing the nodes and their children connected
+     */
+    public String toString_Debug() {
+        StringBuilder s = new StringBuilder();
+        if (this.root != NIL) {
+            int[] queue = new int[this.node_count];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = this.root;
+            while (head < tail) {
+                int current = queue[head++];
+                String l = this.left[current] != NIL ? "(" + this.keys[this.left[current]] + ")" : "()";
+                String r = this.right[current] != NIL ? "(" + this.keys[this.right[current]] + ")" : "()";
+                s.append(l).append("<-(").append(this.keys[current]).append(")->").append(r).append("\n");
+                if (this.left[current] != NIL) queue[tail++] = this.left[current];
+                if (this.right[current] != NIL) queue[tail++] = this.right[current];
+            }
+        }
+        return s.toString();
+    }
+}
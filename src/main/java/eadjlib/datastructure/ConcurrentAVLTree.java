@@ -0,0 +1,615 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+import eadjlib.logger.Logger;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe AVL tree with lock-free readers
+ * <p>
+ * Look-ups never block: they descend the tree without locking and validate every step against the version of the
+ * node they came from (optimistic concurrency control after Bronson et al., "A Practical Concurrent Binary Search
+ * Tree"). A rotation flags the node whose key range it shrinks, so a reader that raced with it retries from the
+ * deepest node that is still valid instead of from the root.
+ * Writers (add/remove/apply/clear) are serialised by a lock and are linearizable with the readers.
+ * Removing a key whose node has 2 children only clears the value, the node being kept to route searches until it
+ * has less than 2 children and can be unlinked. Null keys and values are not supported.
+ * Iterators are weakly consistent: they never throw ConcurrentModificationException and return every key present
+ * throughout the iteration exactly once, in ascending order.
+ * Note: nothing is logged on the read path as the logger is synchronised.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ConcurrentAVLTree<K extends Comparable<? super K>, V> extends AbstractCollection<Map.Entry<K, V>> {
+    private final Logger log = Logger.getLoggerInstance(ConcurrentAVLTree.class.getName());
+    private static final int SPIN_LIMIT = 100;
+    private final ReentrantLock write_lock = new ReentrantLock();
+    private final ConcurrentAVLTreeNode<K, V> holder = new ConcurrentAVLTreeNode<>(null, null, null);
+    private final ConcurrentAVLTreeNode<K, V> retry = new ConcurrentAVLTreeNode<>(null, null, null);
+    private volatile int node_count = 0;
+
+    //==================================================================================================================
+    // Sub-classes
+    //==================================================================================================================
+
+    /**
+     * Weakly consistent in-order iterator
+     * Note: each step is a look-up of the smallest key above the last one returned
+     */
+    public class ConcurrentAVLTreeIterator implements Iterator<Map.Entry<K, V>> {
+        private Map.Entry<K, V> next;
+        private Map.Entry<K, V> last_returned = null;
+
+        /**
+         * Constructor
+         */
+        ConcurrentAVLTreeIterator() {
+            this.next = entryAbove(null);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return Snapshot of the next entry
+         * @throws NoSuchElementException when there are no more entries
+         */
+        @Override
+        public Map.Entry<K, V> next() throws NoSuchElementException {
+            if (this.next == null)
+                throw new NoSuchElementException("No more entries in the tree.");
+            this.last_returned = this.next;
+            this.next = entryAbove(this.last_returned.getKey());
+            return this.last_returned;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws IllegalStateException when next() has not been called since the last removal
+         * @throws RuntimeException      when corruption is detected in the tree
+         */
+        @Override
+        public void remove() throws IllegalStateException, RuntimeException {
+            if (this.last_returned == null)
+                throw new IllegalStateException("No entry to remove.");
+            try {
+                ConcurrentAVLTree.this.remove(this.last_returned.getKey());
+                this.last_returned = null;
+            } catch (UndefinedException e) {
+                throw new RuntimeException("Corruption detected whilst removing key [" + this.last_returned.getKey() + "] through the iterator.", e);
+            }
+        }
+    }
+
+    //==================================================================================================================
+    // Private methods (readers)
+    //==================================================================================================================
+
+    /**
+     * Waits for a rotation flagged on a node to finish
+     *
+     * @param node    Node
+     * @param version Version read from the node
+     */
+    private static void waitUntilShrunk(ConcurrentAVLTreeNode<?, ?> node, long version) {
+        if ((version & ConcurrentAVLTreeNode.SHRINKING) == 0)
+            return;
+        int spins = 0;
+        while (node.version == version) {
+            if (++spins > SPIN_LIMIT)
+                Thread.yield();
+        }
+    }
+
+    /**
+     * Finds the node of a key without locking
+     *
+     * @param key Key
+     * @return Node of the key (possibly a routing node) or null if not found
+     */
+    private ConcurrentAVLTreeNode<K, V> find(K key) {
+        while (true) {
+            ConcurrentAVLTreeNode<K, V> result = attemptFind(key, this.holder, true, this.holder.version);
+            if (result != this.retry)
+                return result;
+        }
+    }
+
+    /**
+     * Optimistic descent for a key in a sub-tree
+     *
+     * @param key          Key
+     * @param node         Node the descent is at
+     * @param right        Flag for the branch of the node to descend into
+     * @param node_version Version of the node when its key range was known to include the key
+     * @return Node of the key, null if not found or the retry marker when the node's key range has changed
+     */
+    private ConcurrentAVLTreeNode<K, V> attemptFind(K key, ConcurrentAVLTreeNode<K, V> node, boolean right, long node_version) {
+        while (true) {
+            ConcurrentAVLTreeNode<K, V> child = node.child(right);
+            if (node.version != node_version)
+                return this.retry;
+            if (child == null)
+                return null;
+            int comparison = key.compareTo(child.key);
+            if (comparison == 0)
+                return child;
+            long child_version = child.version;
+            if (ConcurrentAVLTreeNode.isChanging(child_version)) {
+                waitUntilShrunk(child, child_version);
+            } else if (child == node.child(right)) {
+                if (node.version != node_version)
+                    return this.retry;
+                ConcurrentAVLTreeNode<K, V> result = attemptFind(key, child, comparison > 0, child_version);
+                if (result != this.retry)
+                    return result;
+            }
+        }
+    }
+
+    /**
+     * Gets a snapshot of the entry with the smallest key above another without locking
+     *
+     * @param key Key (null for the first entry)
+     * @return Entry or null if there is none
+     */
+    private Map.Entry<K, V> entryAbove(K key) {
+        while (true) {
+            ConcurrentAVLTreeNode<K, V> node;
+            do {
+                node = attemptHigher(key, this.holder, true, this.holder.version);
+            } while (node == this.retry);
+            if (node == null)
+                return null;
+            V value = node.value;
+            if (value != null)
+                return new AbstractMap.SimpleImmutableEntry<>(node.key, value);
+            key = node.key; //removed since it was found
+        }
+    }
+
+    /**
+     * Optimistic descent for the node with the smallest key above another with a value in a sub-tree
+     *
+     * @param key          Key (null for the smallest key of the sub-tree)
+     * @param node         Node the descent is at
+     * @param right        Flag for the branch of the node to descend into
+     * @param node_version Version of the node when its key range was known to include the key
+     * @return Node, null if not found or the retry marker when the node's key range has changed
+     */
+    private ConcurrentAVLTreeNode<K, V> attemptHigher(K key, ConcurrentAVLTreeNode<K, V> node, boolean right, long node_version) {
+        while (true) {
+            ConcurrentAVLTreeNode<K, V> child = node.child(right);
+            if (node.version != node_version)
+                return this.retry;
+            if (child == null)
+                return null;
+            long child_version = child.version;
+            if (ConcurrentAVLTreeNode.isChanging(child_version)) {
+                waitUntilShrunk(child, child_version);
+                continue;
+            }
+            if (child != node.child(right))
+                continue;
+            if (node.version != node_version)
+                return this.retry;
+            ConcurrentAVLTreeNode<K, V> result;
+            if (key == null || key.compareTo(child.key) < 0) {
+                result = attemptHigher(key, child, false, child_version);
+                if (result == null) {
+                    if (child.value != null && child.version == child_version)
+                        return child;
+                    result = attemptHigher(key, child, true, child_version);
+                }
+            } else {
+                result = attemptHigher(key, child, true, child_version);
+            }
+            if (result != this.retry)
+                return result;
+        }
+    }
+
+    //==================================================================================================================
+    // Private methods (writers, lock must be held)
+    //==================================================================================================================
+
+    /**
+     * Finds the node of a key
+     *
+     * @param key Key
+     * @return Node of the key (possibly a routing node) or null if not found
+     */
+    private ConcurrentAVLTreeNode<K, V> findLocked(K key) {
+        ConcurrentAVLTreeNode<K, V> node = this.holder.right;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison == 0)
+                return node;
+            node = node.child(comparison > 0);
+        }
+        return null;
+    }
+
+    /**
+     * Refreshes heights, re-balances and unlinks routing nodes from a node up to the root
+     *
+     * @param node Node to start from
+     * @throws UndefinedException when corruption is detected
+     */
+    private void fix(ConcurrentAVLTreeNode<K, V> node) throws UndefinedException {
+        while (node != this.holder) {
+            ConcurrentAVLTreeNode<K, V> parent = node.parent;
+            if (node.isUnlinkable()) {
+                unlink(node);
+                node = parent;
+                continue;
+            }
+            node.updateHeight();
+            int factor = node.getBalanceFactor();
+            if (factor > 1) {
+                if (node.left.getBalanceFactor() < 0)
+                    prune(rotateLeft(node.left).left);
+                ConcurrentAVLTreeNode<K, V> root = rotateRight(node);
+                prune(node);
+                node = root; //re-examined as a demoted routing node may have been unlinked
+            } else if (factor < -1) {
+                if (node.right.getBalanceFactor() > 0)
+                    prune(rotateRight(node.right).right);
+                ConcurrentAVLTreeNode<K, V> root = rotateLeft(node);
+                prune(node);
+                node = root; //re-examined as a demoted routing node may have been unlinked
+            } else {
+                node = parent;
+            }
+        }
+    }
+
+    /**
+     * Unlinks a node if it is a routing node with less than 2 children
+     *
+     * @param node Node
+     * @throws UndefinedException when the node points to a parent that isn't his
+     */
+    private void prune(ConcurrentAVLTreeNode<K, V> node) throws UndefinedException {
+        if (node.isUnlinkable())
+            unlink(node);
+    }
+
+    /**
+     * Unlinks a node with less than 2 children from the tree
+     * Note: the parent is re-linked before the node is flagged so readers retrying from the parent see the change
+     *
+     * @param node Node
+     * @throws UndefinedException when the node points to a parent that isn't his
+     */
+    private void unlink(ConcurrentAVLTreeNode<K, V> node) throws UndefinedException {
+        replace(node, node.left != null ? node.left : node.right);
+        node.version = ConcurrentAVLTreeNode.UNLINKED;
+    }
+
+    /**
+     * Right rotation
+     * Note: links are changed bottom-up so that a reader never sees a node whose branches miss part of its range
+     *
+     * @param a Root of the rotation
+     * @return New root of the rotated sub-tree
+     * @throws UndefinedException when the root points to a parent that isn't his
+     */
+    private ConcurrentAVLTreeNode<K, V> rotateRight(ConcurrentAVLTreeNode<K, V> a) throws UndefinedException {
+        ConcurrentAVLTreeNode<K, V> b = a.left;
+        ConcurrentAVLTreeNode<K, V> orphan = b.right;
+        a.beginShrink();
+        a.left = orphan;
+        if (orphan != null)
+            orphan.parent = a;
+        b.right = a;
+        replace(a, b);
+        a.parent = b;
+        a.updateHeight();
+        b.updateHeight();
+        a.endShrink();
+        return b;
+    }
+
+    /**
+     * Left rotation
+     * Note: links are changed bottom-up so that a reader never sees a node whose branches miss part of its range
+     *
+     * @param a Root of the rotation
+     * @return New root of the rotated sub-tree
+     * @throws UndefinedException when the root points to a parent that isn't his
+     */
+    private ConcurrentAVLTreeNode<K, V> rotateLeft(ConcurrentAVLTreeNode<K, V> a) throws UndefinedException {
+        ConcurrentAVLTreeNode<K, V> b = a.right;
+        ConcurrentAVLTreeNode<K, V> orphan = b.left;
+        a.beginShrink();
+        a.right = orphan;
+        if (orphan != null)
+            orphan.parent = a;
+        b.left = a;
+        replace(a, b);
+        a.parent = b;
+        a.updateHeight();
+        b.updateHeight();
+        a.endShrink();
+        return b;
+    }
+
+    /**
+     * Puts a node/branch in the place of another in the latter's parent
+     *
+     * @param node        Node to replace
+     * @param replacement Replacement (can be null)
+     * @throws UndefinedException when the node points to a parent that isn't his
+     */
+    private void replace(ConcurrentAVLTreeNode<K, V> node, ConcurrentAVLTreeNode<K, V> replacement) throws UndefinedException {
+        ConcurrentAVLTreeNode<K, V> parent = node.parent;
+        if (parent.left == node) {
+            parent.left = replacement;
+        } else if (parent.right == node) {
+            parent.right = replacement;
+        } else {
+            throw new UndefinedException("Node points to the wrong parent. Must have attachment issues or be confused.");
+        }
+        if (replacement != null)
+            replacement.parent = parent;
+    }
+
+    //==================================================================================================================
+    // Package methods
+    //==================================================================================================================
+
+    /**
+     * Gets the root node of the tree
+     *
+     * @return Root node (can be null)
+     */
+    ConcurrentAVLTreeNode<K, V> root() {
+        return this.holder.right;
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     */
+    public ConcurrentAVLTree() {
+    }
+
+    /**
+     * Adds a key to the tree
+     *
+     * @param key   Key to add
+     * @param value Value to add
+     * @return Success
+     * @throws NullPointerException when the key or value is null
+     * @throws UndefinedException   when corruption is detected during re-balancing
+     */
+    public boolean add(K key, V value) throws NullPointerException, UndefinedException {
+        if (key == null || value == null)
+            throw new NullPointerException("ConcurrentAVLTree does not support null keys or values.");
+        this.write_lock.lock();
+        try {
+            ConcurrentAVLTreeNode<K, V> parent = this.holder;
+            ConcurrentAVLTreeNode<K, V> node = this.holder.right;
+            boolean right = true;
+            while (node != null) {
+                int comparison = key.compareTo(node.key);
+                if (comparison == 0) {
+                    if (node.value != null) {
+                        log.log_Error("Key '", key, "' already exists in tree.");
+                        return false;
+                    }
+                    node.value = value; //revives a routing node
+                    this.node_count++;
+                    return true;
+                }
+                parent = node;
+                right = comparison > 0;
+                node = node.child(right);
+            }
+            ConcurrentAVLTreeNode<K, V> leaf = new ConcurrentAVLTreeNode<>(parent, key, value);
+            if (right) {
+                parent.right = leaf;
+            } else {
+                parent.left = leaf;
+            }
+            this.node_count++;
+            fix(parent);
+            return true;
+        } catch (UndefinedException e) {
+            throw new UndefinedException("Balancing failed whilst adding key [" + key + "] to tree.", e);
+        } finally {
+            this.write_lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in ConcurrentAVLTree
+     */
+    public V getValue(K key) throws NullPointerException {
+        ConcurrentAVLTreeNode<K, V> node = find(key);
+        V value = node == null ? null : node.value;
+        if (value == null)
+            throw new NullPointerException("Key '" + key + "' does not exists in ConcurrentAVLTree.");
+        return value;
+    }
+
+    /**
+     * Gets the value for a key
+     * Note: unlike checking with search(K) before calling getValue(K) this is a single atomic look-up
+     *
+     * @param key      Key
+     * @param fallback Value to return when the key is not in the tree
+     * @return Value at key or the fallback
+     */
+    public V getValue(K key, V fallback) {
+        ConcurrentAVLTreeNode<K, V> node = find(key);
+        V value = node == null ? null : node.value;
+        return value == null ? fallback : value;
+    }
+
+    /**
+     * Atomically runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in ConcurrentAVLTree or the function returns null
+     */
+    public V apply(K key, Function<V, V> function) throws NullPointerException {
+        this.write_lock.lock();
+        try {
+            ConcurrentAVLTreeNode<K, V> node = findLocked(key);
+            if (node == null || node.value == null) {
+                log.log_Error("Could not find key '", key, "' in tree.");
+                throw new NullPointerException("Key '" + key + "' does not exists in ConcurrentAVLTree.");
+            }
+            V value = function.apply(node.value);
+            if (value == null)
+                throw new NullPointerException("ConcurrentAVLTree does not support null values.");
+            node.value = value;
+            return value;
+        } finally {
+            this.write_lock.unlock();
+        }
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     * @throws UndefinedException when corruption is detected in the tree.
+     */
+    public boolean remove(K key) throws UndefinedException {
+        this.write_lock.lock();
+        try {
+            ConcurrentAVLTreeNode<K, V> node = findLocked(key);
+            if (node == null || node.value == null)
+                return false;
+            node.value = null;
+            this.node_count--;
+            if (node.isUnlinkable())
+                fix(node);
+            return true;
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected during removal of a node with key '", key, "'.");
+            throw new UndefinedException("Corruption detected during removal of a node with key [" + key + "].", e);
+        } finally {
+            this.write_lock.unlock();
+        }
+    }
+
+    /**
+     * Looks for the existence of a key in the tree
+     *
+     * @param key Key to look for
+     * @return Key existence state
+     */
+    public boolean search(K key) {
+        ConcurrentAVLTreeNode<K, V> node = find(key);
+        return node != null && node.value != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new ConcurrentAVLTreeIterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.node_count;
+    }
+
+    /**
+     * Gets the height of the tree
+     * Note: routing nodes are counted and the value is only indicative whilst writers are active
+     *
+     * @return Tree height
+     */
+    public int height() {
+        ConcurrentAVLTreeNode<K, V> root = this.holder.right;
+        return root == null ? 0 : root.height;
+    }
+
+    /**
+     * Clears everything from the tree
+     * Note: as with ConcurrentSkipListMap this is not atomic, concurrent readers may see some keys gone and not others
+     */
+    @Override
+    public void clear() {
+        this.write_lock.lock();
+        try {
+            for (ConcurrentAVLTreeNode<K, V> node = this.holder.right; node != null; ) {
+                if (node.left != null) {
+                    node = node.left;
+                } else if (node.right != null) {
+                    node = node.right;
+                } else {
+                    node.value = null;
+                    ConcurrentAVLTreeNode<K, V> parent = node.parent;
+                    if (parent.left == node) {
+                        parent.left = null;
+                    } else {
+                        parent.right = null;
+                    }
+                    node.version = ConcurrentAVLTreeNode.UNLINKED;
+                    node = parent == this.holder ? null : parent;
+                }
+            }
+            this.node_count = 0;
+        } finally {
+            this.write_lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if tree is empty
+     *
+     * @return Empty state of tree
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.node_count == 0;
+    }
+
+    /**
+     * toString method
+     *
+     * @return Summary of the ConcurrentAVLTree data-structure as a string
+     */
+    @Override
+    public String toString() {
+        return "ConcurrentAVLTree<K,V>( nodes = " + this.node_count + ", height = " + this.height() + " )";
+    }
+}
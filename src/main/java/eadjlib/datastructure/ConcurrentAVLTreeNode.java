@@ -0,0 +1,103 @@
+package eadjlib.datastructure;
+
+/**
+ * Node of the ConcurrentAVLTree
+ * <p>
+ * The version is read by the lock-free readers to validate their descent:
+ * - UNLINKED  : the node has been removed from the tree
+ * - SHRINKING : a rotation is moving part of the node's key range elsewhere
+ * - otherwise a counter bumped every time a rotation shrinks the node's key range
+ * A null value marks a removed key whose node is kept as a routing node (it still has 2 children).
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+final class ConcurrentAVLTreeNode<K extends Comparable<? super K>, V> {
+    static final long UNLINKED = 1L;
+    static final long SHRINKING = 2L;
+    static final long SHRINK_COUNT = 4L;
+    final K key;
+    volatile V value;
+    volatile long version = 0;
+    volatile ConcurrentAVLTreeNode<K, V> left;
+    volatile ConcurrentAVLTreeNode<K, V> right;
+    ConcurrentAVLTreeNode<K, V> parent;
+    byte height = 1;
+
+    /**
+     * Constructor
+     *
+     * @param parent Parent of the node
+     * @param key    Key
+     * @param value  Value
+     */
+    ConcurrentAVLTreeNode(ConcurrentAVLTreeNode<K, V> parent, K key, V value) {
+        this.parent = parent;
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Gets a child of the node
+     *
+     * @param right Flag to get the right child instead of the left one
+     * @return Child (can be null)
+     */
+    ConcurrentAVLTreeNode<K, V> child(boolean right) {
+        return right ? this.right : this.left;
+    }
+
+    /**
+     * Checks if a version is that of a node being rotated or removed
+     *
+     * @param version Version
+     * @return Changing state
+     */
+    static boolean isChanging(long version) {
+        return (version & (UNLINKED | SHRINKING)) != 0;
+    }
+
+    /**
+     * Flags the node as having its key range shrunk by a rotation
+     */
+    void beginShrink() {
+        this.version = this.version | SHRINKING;
+    }
+
+    /**
+     * Flags the end of the shrinking of the node's key range
+     */
+    void endShrink() {
+        this.version = (this.version & ~SHRINKING) + SHRINK_COUNT;
+    }
+
+    /**
+     * Refreshes the cached height of the node from the cached heights of its children
+     */
+    void updateHeight() {
+        int l_height = this.left != null ? this.left.height : 0;
+        int r_height = this.right != null ? this.right.height : 0;
+        this.height = (byte) (Math.max(l_height, r_height) + 1);
+    }
+
+    /**
+     * Gets the balance factor
+     *
+     * @return Balance factor
+     */
+    int getBalanceFactor() {
+        int l_height = this.left != null ? this.left.height : 0;
+        int r_height = this.right != null ? this.right.height : 0;
+        return l_height - r_height;
+    }
+
+    /**
+     * Checks if the node is a routing node that can be unlinked from the tree
+     *
+     * @return Unlinkable state
+     */
+    boolean isUnlinkable() {
+        return this.value == null && (this.left == null || this.right == null);
+    }
+}
@@ -0,0 +1,658 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+import eadjlib.logger.Logger;
+import eadjlib.logger.fileIO.BinaryFileInput;
+import eadjlib.logger.fileIO.BinaryFileOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * AVLTree made durable with a write-ahead log and checkpoints
+ * <p>
+ * Every successful add, remove and apply is appended to the log ('name.wal') as the resulting put/delete of the key
+ * so that replaying the log is idempotent. Checkpoints write a snapshot of the tree ('name.snapshot') and truncate
+ * the log; they are taken automatically after a number of records or once the log reaches a size. On construction the tree is recovered from the last snapshot and the log is replayed over it; a torn
+ * record at the end of the log (crash mid-write) is detected with its checksum and cut off.
+ * </p>
+ * <p>
+ * The tree and the pending log records are guarded by a lock whilst the log writes and forces happen outside of it,
+ * so concurrent writers waiting on their records (Durability.SYNC) are group-committed by a single force.
+ * </p>
+ * <p>
+ * A record is encoded before its change is made to the tree so a failing codec leaves both untouched. When a log
+ * write fails the log is truncated back to its last good offset and the records are kept to be written again ahead
+ * of the newer ones; if that truncation fails too the log is in an unknown state and all further mutations throw.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class DurableAVLTree<K extends Comparable<? super K>, V> implements Closeable {
+    private final Logger log = Logger.getLoggerInstance(DurableAVLTree.class.getName());
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+    private static final int ASYNC_BUFFER_SIZE = 1 << 20;
+    private static final int LOG_REGION_SIZE = 1 << 30; //size of the log regions mapped during the replay
+    private final AVLTree<K, V> tree;
+    private final IBinaryCodec<K> key_codec;
+    private final IBinaryCodec<V> value_codec;
+    private final Durability durability;
+    private final Path snapshot_path;
+    private final BinaryFileOutput wal;
+    private final ReentrantLock lock = new ReentrantLock(); //tree and pending records
+    private final Object sync_lock = new Object(); //log writes, forces and checkpoints
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    private ByteBuffer spare = ByteBuffer.allocate(4096);
+    private long appended_lsn = 0;
+    private volatile long written_lsn = 0;
+    private volatile long durable_lsn = 0;
+    private volatile long checkpoint_lsn = 0;
+    private volatile long log_size = 0; //offset of the end of the last record written to the log
+    private volatile IOException failure = null;
+    private int checkpoint_interval = 1000000;
+    private long checkpoint_size = 1L << 28;
+
+    /**
+     * Describes when the mutations are durable
+     */
+    public enum Durability {
+        /**
+         * Mutations return once their record is forced to the storage device (survives power loss)
+         */
+        SYNC,
+        /**
+         * Mutations return once their record is written to the file (survives a crash of the process)
+         */
+        FLUSH,
+        /**
+         * Records are buffered and written in batches, or on sync(), checkpoint() and close()
+         */
+        ASYNC
+    }
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Replays the records of the log over the tree
+     * Note: the log is memory-mapped in successive regions, a record running past the end of a region is read again
+     * from a region mapped at its start
+     *
+     * @param input  Log
+     * @param region Size of the regions to map (bytes)
+     * @return Offset of the end of the last valid record
+     * @throws IOException        when the log cannot be read
+     * @throws UndefinedException when corruption is detected in the tree
+     */
+    private long replay(BinaryFileInput input, int region) throws IOException, UndefinedException {
+        CRC32 checksum = new CRC32();
+        long size = input.size();
+        long base = 0;
+        ByteBuffer buffer = input.read(0, (int) Math.min(region, size));
+        int records = 0;
+        long end = 0;
+        while (true) {
+            int start = buffer.position();
+            int length = buffer.remaining() >= RECORD_HEADER ? buffer.getInt(start) : 0;
+            if (buffer.remaining() >= RECORD_HEADER && (length <= 0 || length > Integer.MAX_VALUE - RECORD_HEADER))
+                break;
+            if (buffer.remaining() < RECORD_HEADER + length) {
+                if (base + buffer.limit() >= size)
+                    break; //end of the log
+                base += start;
+                buffer = input.read(base, (int) Math.min(Math.max(region, RECORD_HEADER + length), size - base));
+                continue;
+            }
+            int crc = buffer.getInt(start + Integer.BYTES);
+            buffer.position(start + RECORD_HEADER);
+            ByteBuffer body = buffer.slice();
+            body.limit(length);
+            checksum.reset();
+            checksum.update(body);
+            if ((int) checksum.getValue() != crc)
+                break;
+            body.rewind();
+            byte operation = body.get();
+            K key = this.key_codec.decode(body);
+            if (operation == PUT) {
+                V value = this.value_codec.decode(body);
+                if (!this.tree.add(key, value))
+                    this.tree.setValue(key, value);
+            } else {
+                this.tree.remove(key);
+            }
+            buffer.position(start + RECORD_HEADER + length);
+            end = base + buffer.position();
+            records++;
+        }
+        log.log_Debug("Replayed ", records, " log records.");
+        this.checkpoint_lsn = -records; //replayed records are still in the log and count towards the next checkpoint
+        return end;
+    }
+
+    /**
+     * Appends a record to the pending records
+     * Note: must be called whilst holding the lock
+     *
+     * @param operation Operation (PUT/DELETE)
+     * @param key       Key
+     * @param value     Value (ignored for DELETE)
+     * @return Sequence number of the record
+     * @throws RuntimeException when the codecs fail to encode the record (nothing is appended)
+     */
+    private long append(byte operation, K key, V value) {
+        int length = 1 + this.key_codec.size(key) + (operation == PUT ? this.value_codec.size(value) : 0);
+        if (this.pending.remaining() < RECORD_HEADER + length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(this.pending.capacity() * 2, this.pending.position() + RECORD_HEADER + length));
+            this.pending.flip();
+            larger.put(this.pending);
+            this.pending = larger;
+        }
+        int start = this.pending.position();
+        try {
+            this.pending.position(start + RECORD_HEADER);
+            this.pending.put(operation);
+            this.key_codec.encode(key, this.pending);
+            if (operation == PUT)
+                this.value_codec.encode(value, this.pending);
+        } catch (RuntimeException e) {
+            this.pending.position(start);
+            log.log_Error("Could not encode the log record of key '", key, "'.");
+            throw e;
+        }
+        int end = this.pending.position();
+        ByteBuffer body = this.pending.duplicate();
+        body.position(start + RECORD_HEADER);
+        body.limit(end);
+        this.crc.reset();
+        this.crc.update(body);
+        this.pending.putInt(start, end - start - RECORD_HEADER);
+        this.pending.putInt(start + Integer.BYTES, (int) this.crc.getValue());
+        return ++this.appended_lsn;
+    }
+
+    /**
+     * Writes out the pending records up to (at least) a sequence number
+     *
+     * @param lsn   Sequence number of the record
+     * @param force Flag to force the records to the storage device
+     * @throws IOException when the log cannot be written to
+     */
+    private void commit(long lsn, boolean force) throws IOException {
+        if ((force ? this.durable_lsn : this.written_lsn) >= lsn)
+            return;
+        synchronized (this.sync_lock) {
+            if ((force ? this.durable_lsn : this.written_lsn) >= lsn)
+                return; //group-committed by another writer
+            write(force);
+        }
+    }
+
+    /**
+     * Writes out all the pending records
+     * Note: must be called whilst holding the sync lock, on failure the records are put back in front of the
+     * pending ones to be written again
+     *
+     * @param force Flag to force the records to the storage device
+     * @throws IOException when the log cannot be written to or is in a failed state
+     */
+    private void write(boolean force) throws IOException {
+        checkFailure();
+        ByteBuffer batch;
+        long batch_lsn;
+        this.lock.lock();
+        try {
+            batch = this.pending;
+            batch_lsn = this.appended_lsn;
+            this.pending = this.spare;
+            this.spare = null;
+        } finally {
+            this.lock.unlock();
+        }
+        long offset = this.log_size;
+        batch.flip();
+        try {
+            this.wal.append(batch);
+            if (force)
+                this.wal.force();
+        } catch (IOException e) {
+            log.log_Error("Could not write ", batch.limit(), " bytes of records to the log at offset ", offset, ".");
+            requeue(batch, offset);
+            throw e;
+        }
+        this.log_size = offset + batch.limit();
+        this.written_lsn = batch_lsn;
+        if (force)
+            this.durable_lsn = batch_lsn;
+        batch.clear();
+        this.spare = batch;
+    }
+
+    /**
+     * Truncates the log back to its last good offset and puts the records of a failed write back in front of the
+     * pending records
+     * Note: must be called whilst holding the sync lock
+     *
+     * @param batch  Records that failed to be written
+     * @param offset Offset of the log before the failed write
+     */
+    private void requeue(ByteBuffer batch, long offset) {
+        try {
+            this.wal.truncate(offset);
+        } catch (IOException e) {
+            fail(e);
+        }
+        this.lock.lock();
+        try {
+            batch.position(0);
+            ByteBuffer merged = ByteBuffer.allocate(Math.max(this.pending.capacity(), batch.remaining() + this.pending.position()));
+            merged.put(batch);
+            this.pending.flip();
+            merged.put(this.pending);
+            this.pending.clear();
+            this.spare = this.pending;
+            this.pending = merged;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the tree in a failed state in which all further mutations throw
+     *
+     * @param e Cause of the failure
+     */
+    private void fail(IOException e) {
+        log.log_Fatal("The log is in an unknown state, further mutations are refused.");
+        log.log_Exception(e);
+        this.failure = e;
+    }
+
+    /**
+     * Checks that the tree is not in a failed state
+     *
+     * @throws IOException when a previous failure left the log in an unknown state
+     */
+    private void checkFailure() throws IOException {
+        if (this.failure != null)
+            throw new IOException("The log is in an unknown state after a failed write.", this.failure);
+    }
+
+    /**
+     * Makes a freshly appended record as durable as required and checkpoints when due
+     *
+     * @param lsn Sequence number of the record
+     * @throws IOException when the log cannot be written to
+     */
+    private void afterAppend(long lsn) throws IOException {
+        switch (this.durability) {
+            case SYNC:
+                commit(lsn, true);
+                break;
+            case FLUSH:
+                commit(lsn, false);
+                break;
+            default:
+                boolean full;
+                this.lock.lock();
+                try {
+                    full = this.pending.position() >= ASYNC_BUFFER_SIZE;
+                } finally {
+                    this.lock.unlock();
+                }
+                if (full)
+                    commit(lsn, false);
+        }
+        if (checkpointDue(lsn)) {
+            synchronized (this.sync_lock) {
+                if (checkpointDue(lsn)) //not already taken by another writer
+                    checkpoint();
+            }
+        }
+    }
+
+    /**
+     * Checks if a checkpoint is due, by number of records or by size of the log
+     *
+     * @param lsn Sequence number of the last record
+     * @return Due state
+     */
+    private boolean checkpointDue(long lsn) {
+        return lsn - this.checkpoint_lsn >= this.checkpoint_interval || this.log_size >= this.checkpoint_size;
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     * Note: recovers the tree from the snapshot and log files if they exist
+     *
+     * @param directory   Directory of the files
+     * @param name        Name of the files
+     * @param key_codec   Key codec
+     * @param value_codec Value codec
+     * @param durability  Durability of the mutations
+     * @throws IOException         when the files cannot be accessed or the snapshot is invalid
+     * @throws UndefinedException when corruption is detected in the tree during the log replay
+     */
+    public DurableAVLTree(String directory, String name, IBinaryCodec<K> key_codec, IBinaryCodec<V> value_codec, Durability durability) throws IOException, UndefinedException {
+        this(directory, name, key_codec, value_codec, durability, LOG_REGION_SIZE);
+    }
+
+    /**
+     * Constructor
+     * Note: recovers the tree from the snapshot and log files if they exist
+     *
+     * @param directory   Directory of the files
+     * @param name        Name of the files
+     * @param key_codec   Key codec
+     * @param value_codec Value codec
+     * @param durability  Durability of the mutations
+     * @param region      Size of the log regions mapped during the replay (bytes)
+     * @throws IOException        when the files cannot be accessed or the snapshot is invalid
+     * @throws UndefinedException when corruption is detected in the tree during the log replay
+     */
+    DurableAVLTree(String directory, String name, IBinaryCodec<K> key_codec, IBinaryCodec<V> value_codec, Durability durability, int region) throws IOException, UndefinedException {
+        this.key_codec = key_codec;
+        this.value_codec = value_codec;
+        this.durability = durability;
+        this.snapshot_path = FileSystems.getDefault().getPath(directory, name + ".snapshot");
+        this.tree = Files.exists(this.snapshot_path)
+                ? AVLTree.readSnapshot(this.snapshot_path, key_codec, value_codec)
+                : new AVLTree<>();
+        this.wal = new BinaryFileOutput(directory, name + ".wal");
+        BinaryFileInput input = null;
+        try {
+            long size = this.wal.size();
+            input = new BinaryFileInput(directory, name + ".wal");
+            long end = replay(input, region);
+            if (end < size) {
+                log.log_Warning("Discarding ", size - end, " bytes of torn/corrupt records at the end of the log '", name, ".wal'.");
+                this.wal.truncate(end);
+            }
+            this.log_size = end;
+        } catch (IOException | UndefinedException e) {
+            log.log_Fatal("Could not recover the tree from the log '", name, ".wal'.");
+            this.wal.closeChannel();
+            throw e;
+        } finally {
+            if (input != null)
+                input.closeChannel();
+        }
+        log.log_Debug("Recovered ", this.tree.size(), " entries from '", name, "'.");
+    }
+
+    /**
+     * Adds a key to the tree
+     *
+     * @param key   Key to add
+     * @param value Value to add
+     * @return Success
+     * @throws UndefinedException when corruption is detected during re-balancing
+     * @throws IOException         when the log cannot be written to (the change is applied in memory and its record
+     *                             kept for the next write) or is in a failed state (the change is not applied)
+     */
+    public boolean add(K key, V value) throws UndefinedException, IOException {
+        long lsn;
+        this.lock.lock();
+        try {
+            checkFailure();
+            if (this.tree.search(key))
+                return false;
+            lsn = append(PUT, key, value);
+            this.tree.add(key, value);
+        } finally {
+            this.lock.unlock();
+        }
+        afterAppend(lsn);
+        return true;
+    }
+
+    /**
+     * Runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in the tree
+     * @throws IOException          when the log cannot be written to (the change is applied in memory and its record
+     *                              kept for the next write) or is in a failed state (the change is not applied)
+     */
+    public V apply(K key, Function<V, V> function) throws NullPointerException, IOException {
+        long lsn;
+        V value;
+        this.lock.lock();
+        try {
+            checkFailure();
+            value = function.apply(this.tree.getValue(key));
+            lsn = append(PUT, key, value);
+            this.tree.setValue(key, value);
+        } finally {
+            this.lock.unlock();
+        }
+        afterAppend(lsn);
+        return value;
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     * @throws UndefinedException when corruption is detected in the tree
+     * @throws IOException         when the log cannot be written to (the change is applied in memory and its record
+     *                             kept for the next write) or is in a failed state (the change is not applied)
+     */
+    public boolean remove(K key) throws UndefinedException, IOException {
+        long lsn;
+        this.lock.lock();
+        try {
+            checkFailure();
+            if (!this.tree.search(key))
+                return false;
+            lsn = append(DELETE, key, null);
+            this.tree.remove(key);
+        } finally {
+            this.lock.unlock();
+        }
+        afterAppend(lsn);
+        return true;
+    }
+
+    /**
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in the tree
+     */
+    public V getValue(K key) throws NullPointerException {
+        this.lock.lock();
+        try {
+            return this.tree.getValue(key);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Looks for the existence of a key in the tree
+     *
+     * @param key Key to look for
+     * @return Key existence state
+     */
+    public boolean search(K key) {
+        this.lock.lock();
+        try {
+            return this.tree.search(key);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of keys in the tree
+     *
+     * @return Size
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.tree.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if tree is empty
+     *
+     * @return Empty state of tree
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Writes out and forces all pending records to the storage device
+     *
+     * @throws IOException when the log cannot be written to or is in a failed state
+     */
+    public void sync() throws IOException {
+        long lsn;
+        this.lock.lock();
+        try {
+            lsn = this.appended_lsn;
+        } finally {
+            this.lock.unlock();
+        }
+        commit(lsn, true);
+    }
+
+    /**
+     * Writes a snapshot of the tree and truncates the log
+     * Note: mutations are blocked for the duration of the snapshot, the log is only truncated once the header of the
+     * written snapshot has been read back and matches the tree
+     *
+     * @throws IOException when the snapshot or the log cannot be written to or the log is in a failed state
+     */
+    public void checkpoint() throws IOException {
+        synchronized (this.sync_lock) {
+            this.lock.lock();
+            try {
+                write(true);
+                this.tree.writeSnapshot(this.snapshot_path, this.key_codec, this.value_codec);
+                int count = AVLTree.readSnapshotCount(this.snapshot_path);
+                if (count != this.tree.size()) {
+                    log.log_Error("Snapshot '", this.snapshot_path, "' holds ", count, " entries instead of ", this.tree.size(), ", the log is kept.");
+                    throw new IOException("Snapshot '" + this.snapshot_path + "' holds " + count + " entries instead of " + this.tree.size() + ".");
+                }
+                try {
+                    this.wal.truncate(0);
+                } catch (IOException e) {
+                    fail(e);
+                    throw e;
+                }
+                this.log_size = 0;
+                this.checkpoint_lsn = this.appended_lsn;
+                log.log_Debug("Checkpointed ", this.tree.size(), " entries to '", this.snapshot_path, "'.");
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Sets the number of logged mutations after which a checkpoint is taken automatically
+     *
+     * @param interval Number of mutations (&gt;0)
+     * @throws IllegalArgumentException when the interval is less than 1
+     */
+    public void setCheckpointInterval(int interval) throws IllegalArgumentException {
+        if (interval < 1) {
+            log.log_Error("Checkpoint interval (", interval, ") must be at least 1.");
+            throw new IllegalArgumentException("Checkpoint interval (" + interval + ") must be at least 1.");
+        }
+        this.checkpoint_interval = interval;
+    }
+
+    /**
+     * Gets the number of logged mutations after which a checkpoint is taken automatically
+     *
+     * @return Number of mutations
+     */
+    public int getCheckpointInterval() {
+        return this.checkpoint_interval;
+    }
+
+    /**
+     * Sets the size of the log after which a checkpoint is taken automatically
+     * Note: keeps the replay of the log on recovery bounded whatever the size of the records
+     *
+     * @param size Size in bytes (&gt;0)
+     * @throws IllegalArgumentException when the size is less than 1
+     */
+    public void setCheckpointSize(long size) throws IllegalArgumentException {
+        if (size < 1) {
+            log.log_Error("Checkpoint size (", size, ") must be at least 1.");
+            throw new IllegalArgumentException("Checkpoint size (" + size + ") must be at least 1.");
+        }
+        this.checkpoint_size = size;
+    }
+
+    /**
+     * Gets the size of the log after which a checkpoint is taken automatically
+     *
+     * @return Size in bytes
+     */
+    public long getCheckpointSize() {
+        return this.checkpoint_size;
+    }
+
+    /**
+     * Gets the durability of the mutations
+     *
+     * @return Durability
+     */
+    public Durability getDurability() {
+        return this.durability;
+    }
+
+    /**
+     * Forces the pending records to the storage device and closes the log
+     *
+     * @throws IOException when the log cannot be written to or closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            this.wal.closeChannel();
+        }
+    }
+
+    /**
+     * toString method
+     *
+     * @return Summary of the DurableAVLTree data-structure as a string
+     */
+    @Override
+    public String toString() {
+        return "DurableAVLTree<K,V>( nodes = " + size() + ", durability = " + this.durability + ", snapshot = " + this.snapshot_path + " )";
+    }
+}
@@ -0,0 +1,180 @@
+package eadjlib.datastructure;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generic interface for encoding/decoding the keys and values of data-structures to/from binary
+ *
+ * @param <T> Type encoded
+ */
+public interface IBinaryCodec<T> {
+    /**
+     * Gets the number of bytes an object will be encoded into
+     *
+     * @param object Object to encode
+     * @return Encoded size in bytes (or an upper bound of it)
+     */
+    int size(T object);
+
+    /**
+     * Encodes an object at the current position of a buffer
+     *
+     * @param object Object to encode
+     * @param buffer Buffer with at least size(object) bytes remaining
+     */
+    void encode(T object, ByteBuffer buffer);
+
+    /**
+     * Decodes an object from the current position of a buffer
+     *
+     * @param buffer Buffer
+     * @return Decoded object
+     * @throws java.nio.BufferUnderflowException when the buffer runs out before the object is fully decoded
+     */
+    T decode(ByteBuffer buffer);
+
+    /**
+     * Codec for Integer (4 bytes)
+     */
+    IBinaryCodec<Integer> INTEGER = new IBinaryCodec<Integer>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size(Integer object) {
+            return Integer.BYTES;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(Integer object, ByteBuffer buffer) {
+            buffer.putInt(object);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    /**
+     * Codec for Long (8 bytes)
+     */
+    IBinaryCodec<Long> LONG = new IBinaryCodec<Long>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size(Long object) {
+            return Long.BYTES;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(Long object, ByteBuffer buffer) {
+            buffer.putLong(object);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * Codec for Double (8 bytes)
+     */
+    IBinaryCodec<Double> DOUBLE = new IBinaryCodec<Double>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size(Double object) {
+            return Double.BYTES;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(Double object, ByteBuffer buffer) {
+            buffer.putDouble(object);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    /**
+     * Codec for String (4 byte length followed by the UTF-8 bytes, a length of -1 encodes null)
+     */
+    IBinaryCodec<String> STRING = new IBinaryCodec<String>() {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size(String object) {
+            if (object == null)
+                return Integer.BYTES;
+            int length = object.length();
+            int bytes = length;
+            for (int i = 0; i < length; i++) {
+                char c = object.charAt(i);
+                if (c >= 0x800) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(object.charAt(i + 1))) {
+                        bytes += 2; //4 bytes for the pair
+                        i++;
+                    } else {
+                        bytes += 2;
+                    }
+                } else if (c >= 0x80) {
+                    bytes += 1;
+                }
+            }
+            return Integer.BYTES + bytes;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(String object, ByteBuffer buffer) {
+            if (object == null) {
+                buffer.putInt(-1);
+            } else {
+                byte[] bytes = object.getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(bytes.length);
+                buffer.put(bytes);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String decode(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0)
+                return null;
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+}
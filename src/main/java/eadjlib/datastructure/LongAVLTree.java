@@ -0,0 +1,215 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+import eadjlib.logger.Logger;
+
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * AVL tree specialised for primitive long keys
+ * Note: keys are compared as raw primitives and are never boxed on add/remove/search/getValue/apply
+ *
+ * @param <V> Value type
+ */
+public class LongAVLTree<V> extends PrimitiveAVLTree<LongAVLTreeNode<V>> {
+    private final Logger log = Logger.getLoggerInstance(LongAVLTree.class.getName());
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Finds the node of a key
+     *
+     * @param key Key to look for
+     * @return Node of the key or null if not found
+     */
+    private LongAVLTreeNode<V> find(long key) {
+        LongAVLTreeNode<V> node = this.root;
+        while (node != null) {
+            if (key < node.key)
+                node = node.left;
+            else if (key > node.key)
+                node = node.right;
+            else
+                return node;
+        }
+        return null;
+    }
+
+    //==================================================================================================================
+    // Package methods
+    //==================================================================================================================
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void print(IPrintFunction printer, LongAVLTreeNode<V> node) {
+        printer.call(node.key, node.value);
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     */
+    public LongAVLTree() {
+    }
+
+    /**
+     * Adds a key to the tree
+     *
+     * @param key   Key to add
+     * @param value Value to add
+     * @return Success
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public boolean add(long key, V value) throws UndefinedException {
+        LongAVLTreeNode<V> parent = null;
+        LongAVLTreeNode<V> node = this.root;
+        boolean left = false;
+        while (node != null) {
+            parent = node;
+            if (key < node.key) {
+                node = node.left;
+                left = true;
+            } else if (key > node.key) {
+                node = node.right;
+                left = false;
+            } else {
+                log.log_Error("Key '", key, "' already exists in tree.");
+                return false;
+            }
+        }
+        try {
+            insert(parent, new LongAVLTreeNode<>(parent, key, value), left);
+            return true;
+        } catch (UndefinedException e) {
+            throw new UndefinedException("Balancing failed whilst adding key [" + key + "] to tree.", e);
+        }
+    }
+
+    /**
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in LongAVLTree
+     */
+    public V getValue(long key) throws NullPointerException {
+        LongAVLTreeNode<V> node = find(key);
+        if (node == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in LongAVLTree.");
+        }
+        return node.value;
+    }
+
+    /**
+     * Runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in LongAVLTree
+     */
+    public V apply(long key, Function<V, V> function) throws NullPointerException {
+        LongAVLTreeNode<V> node = find(key);
+        if (node == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in LongAVLTree.");
+        }
+        node.value = function.apply(node.value);
+        return node.value;
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     * @throws UndefinedException when corruption is detected in the tree.
+     */
+    public boolean remove(long key) throws UndefinedException {
+        LongAVLTreeNode<V> node = find(key);
+        if (node == null)
+            return false;
+        try {
+            delete(node);
+            return true;
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected during removal of a node with key '", key, "'.");
+            throw new UndefinedException("Corruption detected during removal of a node with key [" + key + "].", e);
+        }
+    }
+
+    /**
+     * Looks for the existence of a key in the tree
+     *
+     * @param key Key to look for
+     * @return Key existence state
+     */
+    public boolean search(long key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Searches for key of a value
+     *
+     * @param value Value to search for
+     * @return Key of value or null if not found
+     */
+    public Long search(V value) {
+        for (LongAVLTreeNode<V> node : this) {
+            if (node.value.equals(value))
+                return node.key;
+        }
+        return null;
+    }
+
+    /**
+     * Searches for all keys that return true when passed to the predicate
+     *
+     * @param predicate Predicate with Key as arg.
+     * @return Collection of values
+     */
+    public Collection<V> searchKeys(LongPredicate predicate) {
+        LinkedList<V> list = new LinkedList<>();
+        for (LongAVLTreeNode<V> node : this) {
+            if (predicate.test(node.key))
+                list.add(node.value);
+        }
+        return list;
+    }
+
+    /**
+     * Searches for all values that return true when passed to the comparator function
+     *
+     * @param comparator Comparator with Value as arg.
+     * @return Collection of values
+     */
+    public Collection<V> searchValues(Function<V, Boolean> comparator) {
+        LinkedList<V> list = new LinkedList<>();
+        for (LongAVLTreeNode<V> node : this) {
+            if (comparator.apply(node.value))
+                list.add(node.value);
+        }
+        return list;
+    }
+
+    /**
+     * toString method
+     *
+     * @return Summary of the LongAVLTree data-structure as a string
+     */
+    @Override
+    public String toString() {
+        return "LongAVLTree<V>( nodes = " + this.node_count + ", height = " + this.height() + " )";
+    }
+}
@@ -0,0 +1,64 @@
+package eadjlib.datastructure;
+
+/**
+ * AVL tree node with a primitive long key
+ * <p>
+ * Memory footprint per node on a 64-bit HotSpot JVM with compressed oops:
+ * 12B header + 4B value reference + 8B key + 3 x 4B references + 1B height = 37B, padded to 40B
+ * (no boxed key object).
+ * </p>
+ *
+ * @param <V> Value type
+ */
+public class LongAVLTreeNode<V> extends PrimitiveAVLTreeNode<LongAVLTreeNode<V>> {
+    long key;
+    V value;
+
+    /**
+     * Constructor
+     *
+     * @param parent Parent of the node
+     * @param key    Key
+     * @param value  Value
+     */
+    LongAVLTreeNode(LongAVLTreeNode<V> parent, long key, V value) {
+        super(parent);
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Gets the node's key
+     *
+     * @return Key
+     */
+    public long key() {
+        return this.key;
+    }
+
+    /**
+     * Gets the node's value
+     *
+     * @return Value
+     */
+    public V value() {
+        return this.value;
+    }
+
+    /**
+     * Sets the node's value
+     *
+     * @param value Value to set the node to
+     */
+    public void setValue(V value) {
+        this.value = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "[" + this.key + "]=" + this.value;
+    }
+}
@@ -0,0 +1,214 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+import eadjlib.logger.Logger;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * AVL tree specialised for primitive long keys and values
+ * Note: keys and values are never boxed on add/remove/search/getValue/apply
+ */
+public class LongLongAVLTree extends PrimitiveAVLTree<LongLongAVLTreeNode> {
+    private final Logger log = Logger.getLoggerInstance(LongLongAVLTree.class.getName());
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Finds the node of a key
+     *
+     * @param key Key to look for
+     * @return Node of the key or null if not found
+     */
+    private LongLongAVLTreeNode find(long key) {
+        LongLongAVLTreeNode node = this.root;
+        while (node != null) {
+            if (key < node.key)
+                node = node.left;
+            else if (key > node.key)
+                node = node.right;
+            else
+                return node;
+        }
+        return null;
+    }
+
+    //==================================================================================================================
+    // Package methods
+    //==================================================================================================================
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void print(IPrintFunction printer, LongLongAVLTreeNode node) {
+        printer.call(node.key, node.value);
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     */
+    public LongLongAVLTree() {
+    }
+
+    /**
+     * Adds a key to the tree
+     *
+     * @param key   Key to add
+     * @param value Value to add
+     * @return Success
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public boolean add(long key, long value) throws UndefinedException {
+        LongLongAVLTreeNode parent = null;
+        LongLongAVLTreeNode node = this.root;
+        boolean left = false;
+        while (node != null) {
+            parent = node;
+            if (key < node.key) {
+                node = node.left;
+                left = true;
+            } else if (key > node.key) {
+                node = node.right;
+                left = false;
+            } else {
+                log.log_Error("Key '", key, "' already exists in tree.");
+                return false;
+            }
+        }
+        try {
+            insert(parent, new LongLongAVLTreeNode(parent, key, value), left);
+            return true;
+        } catch (UndefinedException e) {
+            throw new UndefinedException("Balancing failed whilst adding key [" + key + "] to tree.", e);
+        }
+    }
+
+    /**
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in LongLongAVLTree
+     */
+    public long getValue(long key) throws NullPointerException {
+        LongLongAVLTreeNode node = find(key);
+        if (node == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in LongLongAVLTree.");
+        }
+        return node.value;
+    }
+
+    /**
+     * Runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in LongLongAVLTree
+     */
+    public long apply(long key, LongUnaryOperator function) throws NullPointerException {
+        LongLongAVLTreeNode node = find(key);
+        if (node == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in LongLongAVLTree.");
+        }
+        node.value = function.applyAsLong(node.value);
+        return node.value;
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     * @throws UndefinedException when corruption is detected in the tree.
+     */
+    public boolean remove(long key) throws UndefinedException {
+        LongLongAVLTreeNode node = find(key);
+        if (node == null)
+            return false;
+        try {
+            delete(node);
+            return true;
+        } catch (UndefinedException e) {
+            log.log_Fatal("Corruption detected during removal of a node with key '", key, "'.");
+            throw new UndefinedException("Corruption detected during removal of a node with key [" + key + "].", e);
+        }
+    }
+
+    /**
+     * Looks for the existence of a key in the tree
+     *
+     * @param key Key to look for
+     * @return Key existence state
+     */
+    public boolean search(long key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Searches for key of a value
+     *
+     * @param value Value to search for
+     * @return Key of value or null if not found
+     */
+    public Long searchValue(long value) {
+        for (LongLongAVLTreeNode node : this) {
+            if (node.value == value)
+                return node.key;
+        }
+        return null;
+    }
+
+    /**
+     * Searches for all keys that return true when passed to the predicate
+     *
+     * @param predicate Predicate with Key as arg.
+     * @return Array of values
+     */
+    public long[] searchKeys(LongPredicate predicate) {
+        long[] values = new long[this.node_count];
+        int i = 0;
+        for (LongLongAVLTreeNode node : this) {
+            if (predicate.test(node.key))
+                values[i++] = node.value;
+        }
+        return Arrays.copyOf(values, i);
+    }
+
+    /**
+     * Searches for all values that return true when passed to the predicate
+     *
+     * @param predicate Predicate with Value as arg.
+     * @return Array of values
+     */
+    public long[] searchValues(LongPredicate predicate) {
+        long[] values = new long[this.node_count];
+        int i = 0;
+        for (LongLongAVLTreeNode node : this) {
+            if (predicate.test(node.value))
+                values[i++] = node.value;
+        }
+        return Arrays.copyOf(values, i);
+    }
+
+    /**
+     * toString method
+     *
+     * @return Summary of the LongLongAVLTree data-structure as a string
+     */
+    @Override
+    public String toString() {
+        return "LongLongAVLTree( nodes = " + this.node_count + ", height = " + this.height() + " )";
+    }
+}
@@ -0,0 +1,62 @@
+package eadjlib.datastructure;
+
+/**
+ * AVL tree node with a primitive long key and value
+ * <p>
+ * Memory footprint per node on a 64-bit HotSpot JVM with compressed oops:
+ * 12B header + 2 x 8B key/value + 3 x 4B references + 1B height = 41B, padded to 48B
+ * (no boxed key or value objects).
+ * </p>
+ */
+public class LongLongAVLTreeNode extends PrimitiveAVLTreeNode<LongLongAVLTreeNode> {
+    long key;
+    long value;
+
+    /**
+     * Constructor
+     *
+     * @param parent Parent of the node
+     * @param key    Key
+     * @param value  Value
+     */
+    LongLongAVLTreeNode(LongLongAVLTreeNode parent, long key, long value) {
+        super(parent);
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Gets the node's key
+     *
+     * @return Key
+     */
+    public long key() {
+        return this.key;
+    }
+
+    /**
+     * Gets the node's value
+     *
+     * @return Value
+     */
+    public long value() {
+        return this.value;
+    }
+
+    /**
+     * Sets the node's value
+     *
+     * @param value Value to set the node to
+     */
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "[" + this.key + "]=" + this.value;
+    }
+}
@@ -0,0 +1,424 @@
+package eadjlib.datastructure;
+
+import eadjlib.logger.Logger;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Persistent AVL tree
+ * <p>
+ * Nodes are immutable: an update copies the O(log n) nodes on the path from the root to the change and shares every
+ * other sub-tree with the previous version, which is then published by swapping the (volatile) root.
+ * snapshot() is O(1) and returns an independent tree frozen at the current version which can be read from any thread
+ * without locking whilst writers carry on with the original. Writers to the same tree are serialised.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class PersistentAVLTree<K extends Comparable<? super K>, V> extends AbstractCollection<Map.Entry<K, V>> {
+    private final Logger log = Logger.getLoggerInstance(PersistentAVLTree.class.getName());
+    private volatile PersistentAVLTreeNode<K, V> root;
+
+    //==================================================================================================================
+    // Sub-classes
+    //==================================================================================================================
+
+    /**
+     * In-order iterator over one version of the tree
+     * Note: later updates to the tree are not seen by the iterator
+     */
+    public class PersistentAVLTreeIterator implements Iterator<Map.Entry<K, V>> {
+        private final Object[] stack;
+        private int top = 0;
+
+        /**
+         * Constructor
+         *
+         * @param root Root of the version to iterate over
+         */
+        PersistentAVLTreeIterator(PersistentAVLTreeNode<K, V> root) {
+            this.stack = new Object[PersistentAVLTreeNode.height(root)];
+            pushLeft(root);
+        }
+
+        /**
+         * Pushes a node and its chain of left children
+         *
+         * @param node Node (can be null)
+         */
+        private void pushLeft(PersistentAVLTreeNode<K, V> node) {
+            while (node != null) {
+                this.stack[this.top++] = node;
+                node = node.left;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return this.top > 0;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return Next node
+         * @throws NoSuchElementException when there are no more nodes
+         */
+        @Override
+        public PersistentAVLTreeNode<K, V> next() throws NoSuchElementException {
+            if (this.top == 0)
+                throw new NoSuchElementException("No more nodes in the tree.");
+            PersistentAVLTreeNode<K, V> node = pop();
+            pushLeft(node.right);
+            return node;
+        }
+
+        /**
+         * Pops the node at the top of the stack
+         *
+         * @return Node
+         */
+        @SuppressWarnings("unchecked")
+        private PersistentAVLTreeNode<K, V> pop() {
+            PersistentAVLTreeNode<K, V> node = (PersistentAVLTreeNode<K, V>) this.stack[--this.top];
+            this.stack[this.top] = null;
+            return node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException("Removal is not supported on the persistent AVL tree iterator.");
+        }
+    }
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Constructor for snapshots
+     *
+     * @param root Root of the version to start from
+     */
+    private PersistentAVLTree(PersistentAVLTreeNode<K, V> root) {
+        this.root = root;
+    }
+
+    /**
+     * Finds the node of a key in a version of the tree
+     *
+     * @param node Root of the version
+     * @param key  Key to look for
+     * @return Node of the key or null if not found
+     */
+    private static <K extends Comparable<? super K>, V> PersistentAVLTreeNode<K, V> find(PersistentAVLTreeNode<K, V> node, K key) {
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison < 0)
+                node = node.left;
+            else if (comparison > 0)
+                node = node.right;
+            else
+                return node;
+        }
+        return null;
+    }
+
+    /**
+     * Creates a balanced node from a key/value and 2 sub-trees whose heights differ by at most 2
+     *
+     * @param key   Key
+     * @param value Value
+     * @param left  Left sub-tree
+     * @param right Right sub-tree
+     * @return New node (rotated when needed)
+     */
+    private static <K extends Comparable<? super K>, V> PersistentAVLTreeNode<K, V> balance(K key, V value, PersistentAVLTreeNode<K, V> left, PersistentAVLTreeNode<K, V> right) {
+        int l_height = PersistentAVLTreeNode.height(left);
+        int r_height = PersistentAVLTreeNode.height(right);
+        if (l_height > r_height + 1) {
+            if (PersistentAVLTreeNode.height(left.left) >= PersistentAVLTreeNode.height(left.right)) {
+                return new PersistentAVLTreeNode<>(left.key, left.value, left.left,
+                        new PersistentAVLTreeNode<>(key, value, left.right, right));
+            }
+            PersistentAVLTreeNode<K, V> pivot = left.right;
+            return new PersistentAVLTreeNode<>(pivot.key, pivot.value,
+                    new PersistentAVLTreeNode<>(left.key, left.value, left.left, pivot.left),
+                    new PersistentAVLTreeNode<>(key, value, pivot.right, right));
+        }
+        if (r_height > l_height + 1) {
+            if (PersistentAVLTreeNode.height(right.right) >= PersistentAVLTreeNode.height(right.left)) {
+                return new PersistentAVLTreeNode<>(right.key, right.value,
+                        new PersistentAVLTreeNode<>(key, value, left, right.left), right.right);
+            }
+            PersistentAVLTreeNode<K, V> pivot = right.left;
+            return new PersistentAVLTreeNode<>(pivot.key, pivot.value,
+                    new PersistentAVLTreeNode<>(key, value, left, pivot.left),
+                    new PersistentAVLTreeNode<>(right.key, right.value, pivot.right, right.right));
+        }
+        return new PersistentAVLTreeNode<>(key, value, left, right);
+    }
+
+    /**
+     * Inserts a key in a version of the tree
+     *
+     * @param node  Root of the version
+     * @param key   Key
+     * @param value Value
+     * @return Root of the new version (the same root when the key already exists)
+     */
+    private static <K extends Comparable<? super K>, V> PersistentAVLTreeNode<K, V> insert(PersistentAVLTreeNode<K, V> node, K key, V value) {
+        if (node == null)
+            return new PersistentAVLTreeNode<>(key, value, null, null);
+        int comparison = key.compareTo(node.key);
+        if (comparison < 0) {
+            PersistentAVLTreeNode<K, V> left = insert(node.left, key, value);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        } else if (comparison > 0) {
+            PersistentAVLTreeNode<K, V> right = insert(node.right, key, value);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        return node;
+    }
+
+    /**
+     * Replaces the value of a key in a version of the tree
+     *
+     * @param node  Root of the version
+     * @param key   Key (must be in the tree)
+     * @param value New value
+     * @return Root of the new version
+     */
+    private static <K extends Comparable<? super K>, V> PersistentAVLTreeNode<K, V> replace(PersistentAVLTreeNode<K, V> node, K key, V value) {
+        int comparison = key.compareTo(node.key);
+        if (comparison < 0)
+            return new PersistentAVLTreeNode<>(node.key, node.value, replace(node.left, key, value), node.right);
+        if (comparison > 0)
+            return new PersistentAVLTreeNode<>(node.key, node.value, node.left, replace(node.right, key, value));
+        return new PersistentAVLTreeNode<>(key, value, node.left, node.right);
+    }
+
+    /**
+     * Deletes a key from a version of the tree
+     * Note: a node with 2 children is replaced by the largest node of its left sub-tree
+     *
+     * @param node Root of the version
+     * @param key  Key (must be in the tree)
+     * @return Root of the new version
+     */
+    private static <K extends Comparable<? super K>, V> PersistentAVLTreeNode<K, V> delete(PersistentAVLTreeNode<K, V> node, K key) {
+        int comparison = key.compareTo(node.key);
+        if (comparison < 0)
+            return balance(node.key, node.value, delete(node.left, key), node.right);
+        if (comparison > 0)
+            return balance(node.key, node.value, node.left, delete(node.right, key));
+        if (node.left == null)
+            return node.right;
+        if (node.right == null)
+            return node.left;
+        PersistentAVLTreeNode<K, V> largest = node.left;
+        while (largest.right != null) {
+            largest = largest.right;
+        }
+        return balance(largest.key, largest.value, delete(node.left, largest.key), node.right);
+    }
+
+    //==================================================================================================================
+    // Package methods
+    //==================================================================================================================
+
+    /**
+     * Gets the root node of the current version
+     *
+     * @return Root node (can be null)
+     */
+    PersistentAVLTreeNode<K, V> root() {
+        return this.root;
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     */
+    public PersistentAVLTree() {
+        this.root = null;
+    }
+
+    /**
+     * Gets an O(1) snapshot of the current version of the tree
+     * Note: the snapshot and the tree share their nodes but evolve independently from then on
+     *
+     * @return Snapshot
+     */
+    public PersistentAVLTree<K, V> snapshot() {
+        return new PersistentAVLTree<>(this.root);
+    }
+
+    /**
+     * Adds a key to the tree
+     *
+     * @param key   Key to add
+     * @param value Value to add
+     * @return Success
+     */
+    public synchronized boolean add(K key, V value) {
+        PersistentAVLTreeNode<K, V> current = this.root;
+        PersistentAVLTreeNode<K, V> next = insert(current, key, value);
+        if (next == current) {
+            log.log_Error("Key '", key, "' already exists in tree.");
+            return false;
+        }
+        this.root = next;
+        return true;
+    }
+
+    /**
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in PersistentAVLTree
+     */
+    public V getValue(K key) throws NullPointerException {
+        PersistentAVLTreeNode<K, V> node = find(this.root, key);
+        if (node == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in PersistentAVLTree.");
+        }
+        return node.value;
+    }
+
+    /**
+     * Runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in PersistentAVLTree
+     */
+    public synchronized V apply(K key, Function<V, V> function) throws NullPointerException {
+        PersistentAVLTreeNode<K, V> current = this.root;
+        PersistentAVLTreeNode<K, V> node = find(current, key);
+        if (node == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in PersistentAVLTree.");
+        }
+        V value = function.apply(node.value);
+        this.root = replace(current, key, value);
+        return value;
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     */
+    public synchronized boolean remove(K key) {
+        PersistentAVLTreeNode<K, V> current = this.root;
+        if (find(current, key) == null)
+            return false;
+        this.root = delete(current, key);
+        return true;
+    }
+
+    /**
+     * Looks for the existence of a key in the tree
+     *
+     * @param key Key to look for
+     * @return Key existence state
+     */
+    public boolean search(K key) {
+        return find(this.root, key) != null;
+    }
+
+    /**
+     * Gets the rank of a key (i.e. the number of keys in the tree smaller than it)
+     *
+     * @param key Key
+     * @return Rank of the key
+     */
+    public int rank(K key) {
+        int count = 0;
+        PersistentAVLTreeNode<K, V> node = this.root;
+        while (node != null) {
+            if (key.compareTo(node.key) <= 0) {
+                node = node.left;
+            } else {
+                count += PersistentAVLTreeNode.size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Note: iterates over the version of the tree current when called
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new PersistentAVLTreeIterator(this.root);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return PersistentAVLTreeNode.size(this.root);
+    }
+
+    /**
+     * Gets the height of the tree
+     *
+     * @return Tree height
+     */
+    public int height() {
+        return PersistentAVLTreeNode.height(this.root);
+    }
+
+    /**
+     * Clears everything from the tree
+     * Note: snapshots taken beforehand are not affected
+     */
+    @Override
+    public synchronized void clear() {
+        this.root = null;
+    }
+
+    /**
+     * Checks if tree is empty
+     *
+     * @return Empty state of tree
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * toString method
+     *
+     * @return Summary of the PersistentAVLTree data-structure as a string
+     */
+    @Override
+    public String toString() {
+        PersistentAVLTreeNode<K, V> current = this.root;
+        return "PersistentAVLTree<K,V>( nodes = " + PersistentAVLTreeNode.size(current) + ", height = " + PersistentAVLTreeNode.height(current) + " )";
+    }
+}
@@ -0,0 +1,132 @@
+package eadjlib.datastructure;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable node of the PersistentAVLTree
+ * Note: there are no parent links as a node can be shared by any number of versions of the tree
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public final class PersistentAVLTreeNode<K extends Comparable<? super K>, V> implements Map.Entry<K, V> {
+    final K key;
+    final V value;
+    final PersistentAVLTreeNode<K, V> left;
+    final PersistentAVLTreeNode<K, V> right;
+    final byte height;
+    final int size;
+
+    /**
+     * Constructor
+     *
+     * @param key   Key
+     * @param value Value
+     * @param left  Left child (can be null)
+     * @param right Right child (can be null)
+     */
+    PersistentAVLTreeNode(K key, V value, PersistentAVLTreeNode<K, V> left, PersistentAVLTreeNode<K, V> right) {
+        this.key = key;
+        this.value = value;
+        this.left = left;
+        this.right = right;
+        this.height = (byte) (Math.max(height(left), height(right)) + 1);
+        this.size = size(left) + size(right) + 1;
+    }
+
+    /**
+     * Gets the height of a node
+     *
+     * @param node Node (can be null)
+     * @return Height of node (0 when null)
+     */
+    static int height(PersistentAVLTreeNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Gets the size of the sub-tree of a node
+     *
+     * @param node Node (can be null)
+     * @return Number of nodes in the sub-tree (0 when null)
+     */
+    static int size(PersistentAVLTreeNode<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Gets the height of the node in the tree
+     *
+     * @return Height of node
+     */
+    public int height() {
+        return this.height;
+    }
+
+    /**
+     * Gets the number of nodes in the sub-tree of the node
+     *
+     * @return Sub-tree size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public K getKey() {
+        return this.key;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V getValue() {
+        return this.value;
+    }
+
+    /**
+     * Not supported as nodes are immutable
+     *
+     * @param value Value
+     * @return Nothing
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public V setValue(V value) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Persistent AVL tree nodes are immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Map.Entry))
+            return false;
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        return Objects.equals(this.key, entry.getKey()) && Objects.equals(this.value, entry.getValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.key) ^ Objects.hashCode(this.value);
+    }
+
+    /**
+     * toString method
+     *
+     * @return Key and value as a string
+     */
+    @Override
+    public String toString() {
+        return this.key + "=" + this.value;
+    }
+}
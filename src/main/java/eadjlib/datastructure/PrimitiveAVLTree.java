@@ -0,0 +1,425 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Structure shared by the primitive keyed AVL trees (balancing, removal, traversals)
+ * Note: key descents are left to the implementations so that comparisons are done on raw primitives
+ *
+ * @param <N> Node type
+ */
+abstract class PrimitiveAVLTree<N extends PrimitiveAVLTreeNode<N>> extends AbstractCollection<N> {
+    N root;
+    int node_count = 0;
+
+    //==================================================================================================================
+    // Sub-classes
+    //==================================================================================================================
+
+    /**
+     * In-order iterator
+     * Note: walks the parent links so iterating needs no extra storage
+     */
+    public class PrimitiveAVLTreeIterator implements Iterator<N> {
+        private N next;
+
+        /**
+         * Constructor
+         *
+         * @param first First node to return
+         */
+        PrimitiveAVLTreeIterator(N first) {
+            this.next = first;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return next node
+         * @throws NoSuchElementException when there are no more nodes
+         */
+        @Override
+        public N next() throws NoSuchElementException {
+            if (this.next == null)
+                throw new NoSuchElementException("No more nodes in the tree.");
+            N current = this.next;
+            this.next = successor(current);
+            return current;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            throw new UnsupportedOperationException("Removal is not supported on the AVL tree iterator.");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super N> action) {
+            while (hasNext()) {
+                action.accept(next());
+            }
+        }
+    }
+
+    //==================================================================================================================
+    // Package methods
+    //==================================================================================================================
+
+    /**
+     * Links a new leaf to its parent and re-balances the tree
+     *
+     * @param parent Parent of the new leaf (null when the tree is empty)
+     * @param node   New leaf
+     * @param left   Flag to link the leaf on the left branch of the parent
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    void insert(N parent, N node, boolean left) throws UndefinedException {
+        if (parent == null) {
+            this.root = node;
+        } else if (left) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        this.node_count++;
+        balance(parent);
+    }
+
+    /**
+     * Unlinks a node from the tree and re-balances the tree
+     * Note: a node with 2 children is replaced by the largest node of its left sub-tree
+     *
+     * @param node Node to remove
+     * @throws UndefinedException when corruption is detected during removal or re-balancing
+     */
+    void delete(N node) throws UndefinedException {
+        N balance_from;
+        if (node.left != null && node.right != null) {
+            N replacement = node.left;
+            while (replacement.right != null) {
+                replacement = replacement.right;
+            }
+            if (replacement.parent == node) {
+                balance_from = replacement;
+            } else {
+                balance_from = replacement.parent;
+                balance_from.right = replacement.left;
+                if (replacement.left != null)
+                    replacement.left.parent = balance_from;
+                replacement.left = node.left;
+                replacement.left.parent = replacement;
+            }
+            replacement.right = node.right;
+            replacement.right.parent = replacement;
+            replacement.height = node.height;
+            replace(node, replacement);
+        } else {
+            balance_from = node.parent;
+            replace(node, node.left != null ? node.left : node.right);
+        }
+        node.parent = null;
+        node.left = null;
+        node.right = null;
+        this.node_count--;
+        balance(balance_from);
+    }
+
+    /**
+     * Gets the smallest node of the tree
+     *
+     * @return First node or null when the tree is empty
+     */
+    N first() {
+        N node = this.root;
+        if (node != null) {
+            while (node.left != null) {
+                node = node.left;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Gets the in-order successor of a node
+     *
+     * @param node Node
+     * @return Successor or null if node is the last one
+     */
+    N successor(N node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null) {
+                node = node.left;
+            }
+            return node;
+        }
+        while (node.parent != null && node.parent.right == node) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    /**
+     * Passes a node's key and value to a printer
+     *
+     * @param printer Printer function
+     * @param node    Node to print
+     */
+    abstract void print(IPrintFunction printer, N node);
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Balances the nodes in the tree in reverse (leaf to root)
+     * Note: stops at the first ancestor whose sub-tree height is unchanged as nothing above it can be affected
+     *
+     * @param node Root of the balance
+     * @throws UndefinedException when corruption is detected
+     */
+    private void balance(N node) throws UndefinedException {
+        while (node != null) {
+            N parent = node.parent;
+            int height = node.height;
+            node.updateHeight();
+            int factor = node.getBalanceFactor();
+            if (factor > 1) {
+                if (node.left.getBalanceFactor() < 0)
+                    rotateLeft(node.left);
+                node = rotateRight(node);
+            } else if (factor < -1) {
+                if (node.right.getBalanceFactor() > 0)
+                    rotateRight(node.right);
+                node = rotateLeft(node);
+            }
+            if (node.height == height)
+                return;
+            node = parent;
+        }
+    }
+
+    /**
+     * Right rotation
+     * Note: where a<-b<-c becomes a<-b->c
+     *
+     * @param a Root of the rotation
+     * @return New root of the rotated sub-tree
+     * @throws UndefinedException when the root points to a parent that isn't his
+     */
+    private N rotateRight(N a) throws UndefinedException {
+        N b = a.left;
+        replace(a, b);
+        a.left = b.right;
+        if (a.left != null)
+            a.left.parent = a;
+        b.right = a;
+        a.parent = b;
+        a.updateHeight();
+        b.updateHeight();
+        return b;
+    }
+
+    /**
+     * Left rotation
+     * Note: where a->b->c becomes a<-b->c
+     *
+     * @param a Root of the rotation
+     * @return New root of the rotated sub-tree
+     * @throws UndefinedException when the root points to a parent that isn't his
+     */
+    private N rotateLeft(N a) throws UndefinedException {
+        N b = a.right;
+        replace(a, b);
+        a.right = b.left;
+        if (a.right != null)
+            a.right.parent = a;
+        b.left = a;
+        a.parent = b;
+        a.updateHeight();
+        b.updateHeight();
+        return b;
+    }
+
+    /**
+     * Puts a node/branch in the place of another in the latter's parent
+     *
+     * @param node        Node to replace
+     * @param replacement Replacement (can be null)
+     * @throws UndefinedException when the node points to a parent that isn't his
+     */
+    private void replace(N node, N replacement) throws UndefinedException {
+        N parent = node.parent;
+        if (parent == null) {
+            this.root = replacement;
+        } else if (parent.left == node) {
+            parent.left = replacement;
+        } else if (parent.right == node) {
+            parent.right = replacement;
+        } else {
+            throw new UndefinedException("Node points to the wrong parent. Must have attachment issues or be confused.");
+        }
+        if (replacement != null)
+            replacement.parent = parent;
+    }
+
+    /**
+     * Pre-Order Binary Tree transversal
+     *
+     * @param printer Printer function
+     * @param node    Node to process
+     */
+    private void preOrder(IPrintFunction printer, N node) {
+        if (node != null) {
+            print(printer, node);
+            preOrder(printer, node.left);
+            preOrder(printer, node.right);
+        }
+    }
+
+    /**
+     * In-Order BinaryTree transversal
+     *
+     * @param printer Printer function
+     * @param node    Node to process
+     */
+    private void inOrder(IPrintFunction printer, N node) {
+        if (node != null) {
+            inOrder(printer, node.left);
+            print(printer, node);
+            inOrder(printer, node.right);
+        }
+    }
+
+    /**
+     * Post-Order BinaryTree transversal
+     *
+     * @param printer Printer function
+     * @param node    Node to process
+     */
+    private void postOrder(IPrintFunction printer, N node) {
+        if (node != null) {
+            postOrder(printer, node.left);
+            postOrder(printer, node.right);
+            print(printer, node);
+        }
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<N> iterator() {
+        return new PrimitiveAVLTreeIterator(first());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.node_count;
+    }
+
+    /**
+     * Gets the height of the tree
+     *
+     * @return Tree height
+     */
+    public int height() {
+        return this.root == null ? 0 : this.root.height();
+    }
+
+    /**
+     * Clears everything from the tree
+     */
+    @Override
+    public void clear() {
+        this.root = null;
+        this.node_count = 0;
+    }
+
+    /**
+     * Checks if tree is empty
+     *
+     * @return Empty state of tree
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.node_count == 0;
+    }
+
+    /**
+     * Checks if the tree is complete
+     *
+     * @return Complete state of tree
+     */
+    public boolean isComplete() {
+        return (Math.pow(2, this.height()) - 1) == this.node_count;
+    }
+
+    /**
+     * Print the tree in Pre-Order
+     *
+     * @param printer Printing function
+     */
+    public void preOrder(IPrintFunction printer) {
+        this.preOrder(printer, this.root);
+    }
+
+    /**
+     * Print the tree in In-Order
+     *
+     * @param printer Printing function
+     */
+    public void inOrder(IPrintFunction printer) {
+        this.inOrder(printer, this.root);
+    }
+
+    /**
+     * Print the tree in Post-Order
+     *
+     * @param printer Printing function
+     */
+    public void postOrder(IPrintFunction printer) {
+        this.postOrder(printer, this.root);
+    }
+
+    /**
+     * Print the tree in Level-Order
+     *
+     * @param printer Printing function
+     */
+    public void levelOrder(IPrintFunction printer) {
+        if (this.root != null) {
+            Queue<N> queue = new LinkedList<>();
+            queue.add(this.root);
+            while (!queue.isEmpty()) {
+                N current = queue.remove();
+                print(printer, current);
+                if (current.left != null) queue.add(current.left);
+                if (current.right != null) queue.add(current.right);
+            }
+        }
+    }
+}
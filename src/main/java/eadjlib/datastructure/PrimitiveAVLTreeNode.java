@@ -0,0 +1,63 @@
+package eadjlib.datastructure;
+
+/**
+ * Structural part of the nodes used by the primitive keyed AVL trees
+ * Note: keys and values are held by the implementations as raw primitives where possible
+ *
+ * @param <N> Node type
+ */
+abstract class PrimitiveAVLTreeNode<N extends PrimitiveAVLTreeNode<N>> {
+    byte height = 1;
+    N parent;
+    N left;
+    N right;
+
+    /**
+     * Constructor
+     *
+     * @param parent Parent of the node
+     */
+    PrimitiveAVLTreeNode(N parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Gets the height of the node in the tree
+     * Note: this is the cached height, kept up to date by the tree during re-balancing
+     *
+     * @return Height of node
+     */
+    public int height() {
+        return this.height;
+    }
+
+    /**
+     * Refreshes the cached height of the node from the cached heights of its children
+     */
+    void updateHeight() {
+        int l_height = this.left != null ? this.left.height : 0;
+        int r_height = this.right != null ? this.right.height : 0;
+        this.height = (byte) (Math.max(l_height, r_height) + 1);
+    }
+
+    /**
+     * Gets the balance status of the node
+     *
+     * @return Balance status
+     */
+    public boolean isBalanced() {
+        int factor = getBalanceFactor();
+        return factor > -2 && factor < 2;
+    }
+
+    /**
+     * Gets the balance factor
+     *
+     * @return Balance factor
+     */
+    public int getBalanceFactor() {
+        int l_height = this.left != null ? this.left.height : 0;
+        int r_height = this.right != null ? this.right.height : 0;
+        return l_height - r_height;
+    }
+}
@@ -0,0 +1,374 @@
+package eadjlib.datastructure;
+
+import eadjlib.exception.UndefinedException;
+import eadjlib.logger.Logger;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe, read-mostly wrapper around an AVLTree
+ * <p>
+ * Reads (getValue, search, rank, countRange, searchRange, size) first run against an optimistic StampedLock stamp
+ * and only take the read lock when a write invalidated the stamp. Writes (add, remove, apply, clear) take the write
+ * lock. Optimistic reads walk the nodes with a depth/visit budget as a concurrent rotation can momentarily present
+ * them with an inconsistent (even cyclic) view; the result of such a walk is never used as the stamp fails validation.
+ * Reads under the read lock see a consistent tree and walk it unbounded.
+ * The number of optimistic reads, read lock fall-backs and writes are counted to monitor contention.
+ * </p>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class StampedAVLTree<K extends Comparable<? super K>, V> {
+    private final Logger log = Logger.getLoggerInstance(StampedAVLTree.class.getName());
+    private static final int MAX_DEPTH = Byte.MAX_VALUE; //node heights are cached in a byte
+    private final AVLTree<K, V> tree;
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder optimistic_reads = new LongAdder();
+    private final LongAdder fallback_reads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    //==================================================================================================================
+    // Private methods
+    //==================================================================================================================
+
+    /**
+     * Runs a read, optimistically first
+     *
+     * @param reader Read to run (must not modify the tree), given the flag to bound its walk (optimistic pass)
+     * @param <T>    Result type
+     * @return Result of the read
+     */
+    private <T> T read(Function<Boolean, T> reader) {
+        long stamp = this.lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reader.apply(true);
+                if (this.lock.validate(stamp)) {
+                    this.optimistic_reads.increment();
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                //inconsistent view caused by a concurrent write: retried under the read lock
+            }
+        }
+        this.fallback_reads.increment();
+        stamp = this.lock.readLock();
+        try {
+            return reader.apply(false);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Finds a key
+     *
+     * @param key     Key
+     * @param bounded Flag to bound the depth of the descent
+     * @return Snapshot of the key's entry or null if not found
+     * @throws IllegalStateException when a bounded descent goes deeper than any consistent AVL tree can be
+     */
+    private Map.Entry<K, V> find(K key, boolean bounded) throws IllegalStateException {
+        AVLTreeNode<K, V> node = this.tree.root();
+        for (int depth = 0; node != null; depth++) {
+            if (bounded && depth > MAX_DEPTH)
+                throw new IllegalStateException("Inconsistent view of the tree.");
+            int comparison = key.compareTo(node.key);
+            if (comparison < 0)
+                node = node.left;
+            else if (comparison > 0)
+                node = node.right;
+            else
+                return new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+        }
+        return null;
+    }
+
+    /**
+     * Counts the keys below a key
+     *
+     * @param key       Key
+     * @param inclusive Flag to count the given key as well
+     * @param bounded   Flag to bound the depth of the descent
+     * @return Number of keys below (or equal to) the key
+     * @throws IllegalStateException when a bounded descent goes deeper than any consistent AVL tree can be
+     */
+    private int countBelow(K key, boolean inclusive, boolean bounded) throws IllegalStateException {
+        int count = 0;
+        AVLTreeNode<K, V> node = this.tree.root();
+        for (int depth = 0; node != null; depth++) {
+            if (bounded && depth > MAX_DEPTH)
+                throw new IllegalStateException("Inconsistent view of the tree.");
+            int comparison = key.compareTo(node.key);
+            if (comparison < 0 || (comparison == 0 && !inclusive)) {
+                node = node.left;
+            } else {
+                count += (node.left != null ? node.left.size : 0) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Collects in-order the values of the keys within [from, to) in a sub-tree
+     *
+     * @param node   Root of the sub-tree
+     * @param from   Lower bound of the range (inclusive)
+     * @param to     Upper bound of the range (exclusive)
+     * @param values Collection to add the values to
+     * @param depth  Depth of the node
+     * @param budget Number of nodes that can still be visited (negative for an unbounded walk)
+     * @return Number of nodes that can still be visited
+     * @throws IllegalStateException when a bounded walk goes deeper or wider than any consistent AVL tree can
+     */
+    private int collect(AVLTreeNode<K, V> node, K from, K to, Collection<V> values, int depth, int budget) throws IllegalStateException {
+        if (node == null)
+            return budget;
+        if (budget >= 0 && (depth > MAX_DEPTH || --budget < 0))
+            throw new IllegalStateException("Inconsistent view of the tree.");
+        boolean above_from = from.compareTo(node.key) <= 0;
+        boolean below_to = to.compareTo(node.key) > 0;
+        if (above_from)
+            budget = collect(node.left, from, to, values, depth + 1, budget);
+        if (above_from && below_to)
+            values.add(node.value);
+        if (below_to)
+            budget = collect(node.right, from, to, values, depth + 1, budget);
+        return budget;
+    }
+
+    //==================================================================================================================
+    // Public methods
+    //==================================================================================================================
+
+    /**
+     * Constructor
+     */
+    public StampedAVLTree() {
+        this(new AVLTree<>());
+    }
+
+    /**
+     * Constructor
+     * Note: the wrapper takes ownership of the tree, which must not be accessed directly afterwards
+     *
+     * @param tree Tree to wrap
+     */
+    public StampedAVLTree(AVLTree<K, V> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Adds a key to the tree
+     *
+     * @param key   Key to add
+     * @param value Value to add
+     * @return Success
+     * @throws UndefinedException when corruption is detected during re-balancing
+     */
+    public boolean add(K key, V value) throws UndefinedException {
+        long stamp = this.lock.writeLock();
+        try {
+            this.writes.increment();
+            return this.tree.add(key, value);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically runs a given function on the value at specified key
+     *
+     * @param key      Key
+     * @param function Function to run on value
+     * @return Post-function value
+     * @throws NullPointerException when key is not in the tree
+     */
+    public V apply(K key, Function<V, V> function) throws NullPointerException {
+        long stamp = this.lock.writeLock();
+        try {
+            this.writes.increment();
+            return this.tree.apply(key, function);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes key in tree matching given key
+     *
+     * @param key Key to remove
+     * @return Success
+     * @throws UndefinedException when corruption is detected in the tree.
+     */
+    public boolean remove(K key) throws UndefinedException {
+        long stamp = this.lock.writeLock();
+        try {
+            this.writes.increment();
+            return this.tree.remove(key);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Clears everything from the tree
+     */
+    public void clear() {
+        long stamp = this.lock.writeLock();
+        try {
+            this.writes.increment();
+            this.tree.clear();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the value for a key
+     *
+     * @param key Key
+     * @return Value at key
+     * @throws NullPointerException when key is not in the tree
+     */
+    public V getValue(K key) throws NullPointerException {
+        Map.Entry<K, V> entry = read(bounded -> find(key, bounded));
+        if (entry == null) {
+            log.log_Error("Could not find key '", key, "' in tree.");
+            throw new NullPointerException("Key '" + key + "' does not exists in StampedAVLTree.");
+        }
+        return entry.getValue();
+    }
+
+    /**
+     * Looks for the existence of a key in the tree
+     *
+     * @param key Key to look for
+     * @return Key existence state
+     */
+    public boolean search(K key) {
+        return read(bounded -> find(key, bounded)) != null;
+    }
+
+    /**
+     * Gets the rank of a key (i.e. the number of keys in the tree smaller than it)
+     *
+     * @param key Key
+     * @return Rank of the key
+     */
+    public int rank(K key) {
+        return read(bounded -> countBelow(key, false, bounded));
+    }
+
+    /**
+     * Counts the keys within a range
+     *
+     * @param from Lower bound of the range (inclusive)
+     * @param to   Upper bound of the range (exclusive)
+     * @return Number of keys in [from, to)
+     */
+    public int countRange(K from, K to) {
+        return read(bounded -> Math.max(0, countBelow(to, false, bounded) - countBelow(from, false, bounded)));
+    }
+
+    /**
+     * Gets the values of the keys within a range
+     *
+     * @param from Lower bound of the range (inclusive)
+     * @param to   Upper bound of the range (exclusive)
+     * @return Values in key order
+     */
+    public Collection<V> searchRange(K from, K to) {
+        return read(bounded -> {
+            ArrayList<V> values = new ArrayList<>();
+            collect(this.tree.root(), from, to, values, 0, bounded ? this.tree.size() + MAX_DEPTH : -1);
+            return values;
+        });
+    }
+
+    /**
+     * Gets the number of keys in the tree
+     *
+     * @return Size
+     */
+    public int size() {
+        return read(bounded -> this.tree.size());
+    }
+
+    /**
+     * Checks if tree is empty
+     *
+     * @return Empty state of tree
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets the number of reads validated without locking since the last reset
+     *
+     * @return Optimistic read count
+     */
+    public long getOptimisticReadCount() {
+        return this.optimistic_reads.sum();
+    }
+
+    /**
+     * Gets the number of reads that fell back to the read lock since the last reset
+     *
+     * @return Fall-back read count
+     */
+    public long getFallbackReadCount() {
+        return this.fallback_reads.sum();
+    }
+
+    /**
+     * Gets the number of writes since the last reset
+     *
+     * @return Write count
+     */
+    public long getWriteCount() {
+        return this.writes.sum();
+    }
+
+    /**
+     * Gets the proportion of reads that fell back to the read lock since the last reset
+     *
+     * @return Fall-back rate (0 to 1)
+     */
+    public double getFallbackRate() {
+        long fallbacks = this.fallback_reads.sum();
+        long total = fallbacks + this.optimistic_reads.sum();
+        return total == 0 ? 0 : (double) fallbacks / total;
+    }
+
+    /**
+     * Resets the contention counters
+     */
+    public void resetCounters() {
+        this.optimistic_reads.reset();
+        this.fallback_reads.reset();
+        this.writes.reset();
+    }
+
+    /**
+     * toString method
+     *
+     * @return Summary of the StampedAVLTree data-structure and its contention counters as a string
+     */
+    @Override
+    public String toString() {
+        return "StampedAVLTree<K,V>( nodes = " + size()
+                + ", optimistic reads = " + getOptimisticReadCount()
+                + ", fallback reads = " + getFallbackReadCount()
+                + ", writes = " + getWriteCount() + " )";
+    }
+}
@@ -0,0 +1,134 @@
+package eadjlib.logger.fileIO;
+
+import eadjlib.logger.microLogger.MicroLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary File Input
+ */
+public class BinaryFileInput extends FileIO {
+    private FileChannel channel = null;
+
+    /**
+     * Constructor
+     *
+     * @param folder_path Directory path
+     * @param file_name   File name
+     * @throws InvalidPathException when the path description is invalid
+     * @throws IOException          when the file can't be accessed
+     */
+    public BinaryFileInput(String folder_path, String file_name) throws InvalidPathException, IOException {
+        super(folder_path, file_name);
+        try {
+            this.channel = FileChannel.open(super.getFilePath(), StandardOpenOption.READ);
+        } catch (InvalidPathException e) {
+            MicroLogger.INSTANCE.log_Error("InvalidPathException raised in [BinaryFileInput.BinaryFileInput( ", folder_path, ", ", file_name, " )]");
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileInput.BinaryFileInput( ", folder_path, ", ", file_name, " )]");
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the file into a buffer (memory-mapped, files are limited to 2GB)
+     *
+     * @return Read-only buffer of the file's content
+     * @throws IOException when the file cannot be accessed
+     */
+    public synchronized ByteBuffer read() throws IOException {
+        try {
+            long size = this.channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("[BinaryFileInput.read()] File " + super.getFilePath() + " is over 2GB.");
+            return this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileInput.read()] for , ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        } finally {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Reads a region of the file into a buffer (memory-mapped, the channel is left open)
+     *
+     * @param position Offset of the region in the file
+     * @param length   Length of the region (bytes)
+     * @return Read-only buffer of the region's content
+     * @throws IOException when the file cannot be accessed
+     */
+    public synchronized ByteBuffer read(long position, int length) throws IOException {
+        try {
+            return this.channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileInput.read( ", position, ", ", length, " )] for , ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the size of the file
+     *
+     * @return Size in bytes
+     * @throws IOException when the file cannot be accessed
+     */
+    public synchronized long size() throws IOException {
+        return this.channel.size();
+    }
+
+    /**
+     * Closes the channel
+     *
+     * @throws IOException when trying to close the opened file and fails
+     */
+    public synchronized void closeChannel() throws IOException {
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+                this.channel = null;
+            } catch (IOException e) {
+                MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileInput.closeChannel()] for , ", super.getFilePath());
+                MicroLogger.INSTANCE.log_ExceptionMsg(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Deletes the file
+     *
+     * @return Success
+     */
+    public synchronized boolean deleteFile() {
+        try {
+            return super.deleteFile();
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileInput.deleteFile()] for , ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            return false;
+        } catch (InvalidPathException e) {
+            MicroLogger.INSTANCE.log_Error("InvalidPathException raised in [BinaryFileInput.deleteFile()] for , ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the BinaryFileInput file is open
+     *
+     * @return Opened state
+     */
+    public synchronized boolean isOpen() {
+        return this.channel != null;
+    }
+}
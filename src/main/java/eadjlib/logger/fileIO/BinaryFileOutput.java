@@ -0,0 +1,151 @@
+package eadjlib.logger.fileIO;
+
+import eadjlib.logger.microLogger.MicroLogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary File Output
+ * Appends raw bytes through a FileChannel so that writes can be forced to the storage device
+ */
+public class BinaryFileOutput extends FileIO {
+    private FileChannel channel = null;
+
+    /**
+     * Constructor
+     *
+     * @param folder_path Directory path
+     * @param file_name   File name
+     * @throws IOException          when file cannot be accessed
+     * @throws InvalidPathException when the path description is invalid
+     */
+    public BinaryFileOutput(String folder_path, String file_name) throws IOException {
+        super(folder_path, file_name);
+        try {
+            if (super.createFile()) {
+                this.channel = FileChannel.open(super.getFilePath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } else {
+                MicroLogger.INSTANCE.log_Error("[BinaryFileOutput.BinaryFileOutput( ", folder_path, ", ", file_name, " )] Couldn't create/access the file.");
+                throw new IOException("[BinaryFileOutput.BinaryFileOutput( " + folder_path + ", " + file_name + " )] Failed to create/access the file " + getFilePath().toString());
+            }
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileOutput.BinaryFileOutput( ", folder_path, ", ", file_name, " )]");
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        } catch (InvalidPathException e) {
+            MicroLogger.INSTANCE.log_Error("InvalidPathException raised in [BinaryFileOutput.BinaryFileOutput( ", folder_path, ", ", file_name, " )]");
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to the end of the file
+     *
+     * @param buffer Buffer to append to file
+     * @throws IOException when the file cannot be accessed
+     */
+    public synchronized void append(ByteBuffer buffer) throws IOException {
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileOutput.append(..)] for ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Forces the content written so far to the storage device
+     *
+     * @throws IOException when the file cannot be accessed
+     */
+    public synchronized void force() throws IOException {
+        try {
+            this.channel.force(false);
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileOutput.force()] for ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Truncates the file
+     *
+     * @param size Size to truncate the file to (in bytes)
+     * @throws IOException when the file cannot be accessed
+     */
+    public synchronized void truncate(long size) throws IOException {
+        try {
+            this.channel.truncate(size);
+            this.channel.force(true);
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileOutput.truncate( ", size, " )] for ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the size of the file
+     *
+     * @return Size in bytes
+     * @throws IOException when the file cannot be accessed
+     */
+    public synchronized long size() throws IOException {
+        return this.channel.size();
+    }
+
+    /**
+     * Closes the channel
+     *
+     * @throws IOException when trying to close the opened file and fails
+     */
+    public synchronized void closeChannel() throws IOException {
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+                this.channel = null;
+            } catch (IOException e) {
+                MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileOutput.closeChannel()] for , ", super.getFilePath());
+                MicroLogger.INSTANCE.log_ExceptionMsg(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Deletes file
+     *
+     * @return Success
+     */
+    public synchronized boolean deleteFile() {
+        try {
+            return super.deleteFile();
+        } catch (InvalidPathException e) {
+            MicroLogger.INSTANCE.log_Error("InvalidPathException raised in [BinaryFileOutput.deleteFile()] for , ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            return false;
+        } catch (IOException e) {
+            MicroLogger.INSTANCE.log_Error("IOException raised in [BinaryFileOutput.deleteFile()] for , ", super.getFilePath());
+            MicroLogger.INSTANCE.log_ExceptionMsg(e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the BinaryFileOutput file is open
+     *
+     * @return Opened state
+     */
+    public synchronized boolean isOpen() {
+        return this.channel != null;
+    }
+}
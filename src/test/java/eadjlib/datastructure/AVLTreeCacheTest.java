@@ -0,0 +1,64 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AVLTreeCacheTest {
+    private AVLTreeCache<Integer, String> cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new AVLTreeCache<>(3);
+    }
+
+    private static AVLTreeNode<Integer, String> node(int key) {
+        return new AVLTreeNode<>(null, key, "v" + key);
+    }
+
+    @Test
+    public void get_put() throws Exception {
+        AVLTreeNode<Integer, String> node = node(1);
+        Assert.assertNull(cache.get(1));
+        cache.put(node);
+        Assert.assertSame(node, cache.get(1));
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertEquals(1, cache.misses());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(3, cache.capacity());
+    }
+
+    @Test
+    public void eviction_second_chance() throws Exception {
+        cache.put(node(1));
+        cache.put(node(2));
+        cache.put(node(3));
+        cache.get(1);
+        cache.get(3);
+        cache.put(node(4)); //1 gets a second chance, 2 is evicted
+        Assert.assertEquals(3, cache.size());
+        Assert.assertNull(cache.get(2));
+        Assert.assertNotNull(cache.get(1));
+        Assert.assertNotNull(cache.get(3));
+        Assert.assertNotNull(cache.get(4));
+    }
+
+    @Test
+    public void invalidate() throws Exception {
+        cache.put(node(1));
+        cache.put(node(2));
+        cache.put(node(3));
+        cache.invalidate(1);
+        cache.invalidate(5);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(1));
+        Assert.assertNotNull(cache.get(3));
+        cache.put(node(6));
+        cache.put(node(7));
+        Assert.assertEquals(3, cache.size());
+        Assert.assertNotNull(cache.get(7));
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get(7));
+    }
+}
@@ -0,0 +1,196 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class AVLTreeMapTest {
+    private AVLTreeMap<Integer, String> map;
+    private TreeMap<Integer, String> expected;
+
+    @Before
+    public void setUp() throws Exception {
+        map = new AVLTreeMap<>();
+        expected = new TreeMap<>();
+        for (int i = 0; i < 40; i += 2) {
+            map.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+    }
+
+    private void assertNavigation(NavigableMap<Integer, String> expected, NavigableMap<Integer, String> actual) {
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(expected.isEmpty(), actual.isEmpty());
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        Assert.assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(actual.values()));
+        Assert.assertEquals(expected.firstEntry(), actual.firstEntry());
+        Assert.assertEquals(expected.lastEntry(), actual.lastEntry());
+        for (int i = -2; i < 43; i++) {
+            Assert.assertEquals(expected.lowerKey(i), actual.lowerKey(i));
+            Assert.assertEquals(expected.floorKey(i), actual.floorKey(i));
+            Assert.assertEquals(expected.ceilingKey(i), actual.ceilingKey(i));
+            Assert.assertEquals(expected.higherKey(i), actual.higherKey(i));
+            Assert.assertEquals(expected.containsKey(i), actual.containsKey(i));
+            Assert.assertEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void put_get() throws Exception {
+        Assert.assertEquals(20, map.size());
+        Assert.assertEquals("v4", map.get(4));
+        Assert.assertNull(map.get(5));
+        Assert.assertEquals("v4", map.put(4, "x"));
+        Assert.assertEquals("x", map.get(4));
+        Assert.assertNull(map.put(5, "v5"));
+        Assert.assertEquals(21, map.size());
+        Assert.assertEquals(21, map.tree().size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void put_fail() throws Exception {
+        map.put(null, "");
+    }
+
+    @Test
+    public void remove() throws Exception {
+        Assert.assertEquals("v10", map.remove(10));
+        Assert.assertNull(map.remove(10));
+        Assert.assertNull(map.remove(11));
+        expected.remove(10);
+        assertNavigation(expected, map);
+    }
+
+    @Test
+    public void navigation() throws Exception {
+        assertNavigation(expected, map);
+        assertNavigation(new TreeMap<Integer, String>(), new AVLTreeMap<Integer, String>());
+    }
+
+    @Test
+    public void descendingMap() throws Exception {
+        assertNavigation(expected.descendingMap(), map.descendingMap());
+        assertNavigation(expected.descendingMap().descendingMap(), map.descendingMap().descendingMap());
+        Assert.assertEquals(new ArrayList<>(expected.descendingKeySet()), new ArrayList<>(map.descendingKeySet()));
+    }
+
+    @Test
+    public void subMap() throws Exception {
+        assertNavigation(expected.subMap(5, true, 21, false), map.subMap(5, true, 21, false));
+        assertNavigation(expected.subMap(6, false, 20, true), map.subMap(6, false, 20, true));
+        assertNavigation(expected.headMap(13, false), map.headMap(13, false));
+        assertNavigation(expected.tailMap(13, true), map.tailMap(13, true));
+        assertNavigation(expected.subMap(7, true, 7, false), map.subMap(7, true, 7, false));
+        assertNavigation(expected.descendingMap().subMap(30, true, 10, false), map.descendingMap().subMap(30, true, 10, false));
+        assertNavigation(expected.subMap(4, true, 30, true).descendingMap().headMap(10, true), map.subMap(4, true, 30, true).descendingMap().headMap(10, true));
+        assertNavigation(expected.subMap(4, true, 30, true).tailMap(10, false), map.subMap(4, true, 30, true).tailMap(10, false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subMap_fail_inverted() throws Exception {
+        map.subMap(10, true, 5, true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subMap_fail_out_of_range() throws Exception {
+        map.subMap(4, true, 10, true).headMap(12, true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subMap_put_fail() throws Exception {
+        map.headMap(10, false).put(10, "");
+    }
+
+    @Test
+    public void subMap_write_through() throws Exception {
+        NavigableMap<Integer, String> sub = map.subMap(10, true, 20, true);
+        sub.put(11, "v11");
+        Assert.assertEquals("v11", map.get(11));
+        Assert.assertEquals(7, sub.size());
+        sub.remove(12);
+        Assert.assertFalse(map.containsKey(12));
+        map.put(13, "v13");
+        Assert.assertEquals(7, sub.size());
+        sub.clear();
+        Assert.assertTrue(sub.isEmpty());
+        Assert.assertEquals(14, map.size());
+        Assert.assertEquals(Integer.valueOf(8), map.lowerKey(10));
+        Assert.assertEquals(Integer.valueOf(22), map.higherKey(20));
+    }
+
+    @Test
+    public void pollFirst_pollLast() throws Exception {
+        Assert.assertEquals(new AbstractMap.SimpleEntry<>(0, "v0"), map.pollFirstEntry());
+        Assert.assertEquals(new AbstractMap.SimpleEntry<>(38, "v38"), map.pollLastEntry());
+        Assert.assertEquals(new AbstractMap.SimpleEntry<>(36, "v36"), map.descendingMap().pollFirstEntry());
+        Assert.assertEquals(Integer.valueOf(2), map.navigableKeySet().pollFirst());
+        Assert.assertEquals(16, map.size());
+        while (map.pollFirstEntry() != null) ;
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.pollLastEntry());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void firstKey_fail() throws Exception {
+        new AVLTreeMap<Integer, String>().firstKey();
+    }
+
+    @Test
+    public void entrySet_setValue() throws Exception {
+        for (Map.Entry<Integer, String> entry : map.entrySet()) {
+            entry.setValue(entry.getValue() + "!");
+        }
+        Assert.assertEquals("v8!", map.get(8));
+        Assert.assertEquals("v8!", map.tree().getValue(8));
+    }
+
+    @Test
+    public void iterator_remove() throws Exception {
+        Iterator<Map.Entry<Integer, String>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() % 4 == 0)
+                it.remove();
+        }
+        expected.keySet().removeIf(k -> k % 4 == 0);
+        assertNavigation(expected, map);
+        Iterator<Integer> keys = map.descendingKeySet().iterator();
+        keys.next();
+        keys.remove();
+        Assert.assertFalse(map.containsKey(38));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void iterator_remove_fail() throws Exception {
+        map.keySet().iterator().remove();
+    }
+
+    @Test
+    public void fuzz() throws Exception {
+        Random random = new Random(8);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(200);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.put(key, "r" + i), map.put(key, "r" + i));
+            } else {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+        assertNavigation(expected, map);
+        assertNavigation(expected.subMap(50, false, 150, true).descendingMap(), map.subMap(50, false, 150, true).descendingMap());
+    }
+
+    @Test
+    public void asNavigableMap() throws Exception {
+        AVLTree<Integer, String> tree = new AVLTree<>();
+        tree.add(1, "a");
+        tree.add(2, "b");
+        NavigableMap<Integer, String> view = tree.asNavigableMap();
+        Assert.assertEquals("b", view.get(2));
+        view.put(3, "c");
+        Assert.assertEquals(3, tree.size());
+        Assert.assertEquals("c", tree.getValue(3));
+    }
+}
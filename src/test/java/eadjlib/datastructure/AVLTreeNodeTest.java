@@ -16,15 +16,47 @@ public class AVLTreeNodeTest {
 
         Assert.assertTrue(a.height() == 1);
         a.left = b;
+        a.updateHeight();
         Assert.assertTrue(a.height() == 2);
         a.right = c;
+        a.updateHeight();
         Assert.assertTrue(a.height() == 2);
         b.left = d;
+        b.updateHeight();
+        a.updateHeight();
         Assert.assertTrue(a.height() == 3);
         d.right = e;
+        d.updateHeight();
+        b.updateHeight();
+        a.updateHeight();
         Assert.assertTrue(a.height() == 4);
     }
 
+    @Test
+    public void height_cached() throws Exception {
+        AVLTreeNode<Integer, String> a = new AVLTreeNode<>(null, 1, "");
+        AVLTreeNode<Integer, String> b = new AVLTreeNode<>(null, 2, "");
+
+        a.left = b;
+        Assert.assertTrue(a.height() == 1);
+        a.updateHeight();
+        Assert.assertTrue(a.height() == 2);
+    }
+
+    @Test
+    public void size() throws Exception {
+        AVLTreeNode<Integer, String> a = new AVLTreeNode<>(null, 1, "");
+        AVLTreeNode<Integer, String> b = new AVLTreeNode<>(null, 2, "");
+        AVLTreeNode<Integer, String> c = new AVLTreeNode<>(null, 3, "");
+
+        Assert.assertEquals(1, a.size());
+        a.left = b;
+        a.right = c;
+        Assert.assertEquals(1, a.size());
+        a.updateSize();
+        Assert.assertEquals(3, a.size());
+    }
+
     @Test
     public void isBalanced() throws Exception {
         AVLTreeNode<Integer, String> a = new AVLTreeNode<>(null, 1, "");
@@ -35,12 +67,19 @@ public class AVLTreeNodeTest {
 
         Assert.assertTrue(a.isBalanced());
         a.left = b;
+        a.updateHeight();
         Assert.assertTrue(a.isBalanced());
         b.right = c;
+        b.updateHeight();
+        a.updateHeight();
         Assert.assertFalse(a.isBalanced());
         a.right = d;
+        a.updateHeight();
         Assert.assertTrue(a.isBalanced());
         c.left = e;
+        c.updateHeight();
+        b.updateHeight();
+        a.updateHeight();
         Assert.assertFalse(a.isBalanced());
     }
 
@@ -58,8 +97,11 @@ public class AVLTreeNodeTest {
         a.right = c;
         Assert.assertTrue(a.getBalanceFactor() == 0);
         b.left = d;
+        b.updateHeight();
         Assert.assertTrue(a.getBalanceFactor() == 1);
         d.right = e;
+        d.updateHeight();
+        b.updateHeight();
         Assert.assertTrue(a.getBalanceFactor() == 2);
     }
 
@@ -1,11 +1,16 @@
 package eadjlib.datastructure;
 
+import javafx.util.Pair;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.BiFunction;
 
 public class AVLTreeTest {
     private AVLTree<Integer, String> tree;
@@ -280,6 +285,50 @@ public class AVLTreeTest {
         }
     }
 
+    @Test
+    public void add_remove_fuzz_cached_heights() throws Exception {
+        Random random = new Random(1234);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            Integer number = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(number), tree.add(number, ""));
+            } else {
+                Assert.assertEquals(expected.remove(number), tree.remove(number));
+            }
+        }
+        Assert.assertEquals(expected.size(), tree.size());
+        Iterator<Integer> iterator_exp = expected.iterator();
+        for (Object o : tree) {
+            AVLTreeNode<?, ?> node = (AVLTreeNode<?, ?>) o;
+            Assert.assertEquals(iterator_exp.next(), node.key());
+            Assert.assertEquals(computeHeight(node), node.height());
+            Assert.assertEquals(computeSize(node), node.size());
+            Assert.assertTrue(node.isBalanced());
+        }
+        Assert.assertFalse(iterator_exp.hasNext());
+    }
+
+    /**
+     * Recursively computes the height of a node (independent of the cached value)
+     *
+     * @param node Node
+     * @return Height
+     */
+    private static int computeHeight(AVLTreeNode<?, ?> node) {
+        return node == null ? 0 : Math.max(computeHeight(node.left), computeHeight(node.right)) + 1;
+    }
+
+    /**
+     * Recursively computes the size of a node's sub-tree (independent of the cached value)
+     *
+     * @param node Node
+     * @return Size
+     */
+    private static int computeSize(AVLTreeNode<?, ?> node) {
+        return node == null ? 0 : computeSize(node.left) + computeSize(node.right) + 1;
+    }
+
     /**
      *    5
      *     \
@@ -613,6 +662,41 @@ public class AVLTreeTest {
         }
     }
 
+    @Test
+    public void descendingIterator() throws Exception {
+        Assert.assertFalse(tree.descendingIterator().hasNext());
+        for (int i = 0; i < 100; i++) {
+            tree.add(i, "val_" + i);
+        }
+        Iterator<AVLTreeNode<Integer, String>> iterator = tree.descendingIterator();
+        for (int i = 99; i >= 0; i--) {
+            Assert.assertEquals(Integer.valueOf(i), iterator.next().key());
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void iterator_subTree() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            tree.add(i, "");
+        }
+        AVLTreeNode<Integer, String> node = tree.findNode(3); //root of the sub-tree 0..6
+        ArrayList<Integer> ascending = new ArrayList<>();
+        tree.new AVLTreeIterator(node).forEachRemaining(n -> ascending.add(n.key()));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), ascending);
+        ArrayList<Integer> descending = new ArrayList<>();
+        tree.new AVLTreeIterator(node, true).forEachRemaining(n -> descending.add(n.key()));
+        Assert.assertEquals(Arrays.asList(6, 5, 4, 3, 2, 1, 0), descending);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_fail() throws Exception {
+        tree.add(1, "");
+        Iterator<AVLTreeNode<Integer, String>> iterator = tree.descendingIterator();
+        iterator.next();
+        iterator.next();
+    }
+
     @Test
     public void size() throws Exception {
         Assert.assertTrue(tree.size() == 0);
@@ -755,4 +839,1170 @@ public class AVLTreeTest {
             Assert.assertTrue(r >= 500 && r < 1000);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void rank() throws Exception {
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "");
+        }
+        Assert.assertEquals(0, tree.rank(-1));
+        Assert.assertEquals(0, tree.rank(0));
+        Assert.assertEquals(1, tree.rank(1));
+        Assert.assertEquals(1, tree.rank(2));
+        Assert.assertEquals(25, tree.rank(50));
+        Assert.assertEquals(49, tree.rank(98));
+        Assert.assertEquals(50, tree.rank(99));
+        Assert.assertEquals(50, tree.rank(1000));
+    }
+
+    @Test
+    public void select() throws Exception {
+        for (int i = 99; i >= 0; i--) {
+            tree.add(i * 2, "");
+        }
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.valueOf(i * 2), tree.select(i));
+            Assert.assertEquals(i, tree.rank(tree.select(i)));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void select_fail() throws Exception {
+        tree.add(1, "");
+        tree.select(1);
+    }
+
+    @Test
+    public void rank_select_after_removals() throws Exception {
+        Random random = new Random(9876);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 5000; i++) {
+            Integer number = random.nextInt(1000);
+            if (random.nextInt(3) > 0) {
+                expected.add(number);
+                tree.add(number, "");
+            } else {
+                expected.remove(number);
+                tree.remove(number);
+            }
+        }
+        int index = 0;
+        for (Integer key : expected) {
+            Assert.assertEquals(key, tree.select(index));
+            Assert.assertEquals(index, tree.rank(key));
+            index++;
+        }
+        Assert.assertEquals(expected.headSet(500).size(), tree.rank(500));
+    }
+
+    @Test
+    public void countRange() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            tree.add(i, "");
+        }
+        Assert.assertEquals(10, tree.countRange(10, 20));
+        Assert.assertEquals(11, tree.countRange(10, true, 20, true));
+        Assert.assertEquals(9, tree.countRange(10, false, 20, false));
+        Assert.assertEquals(100, tree.countRange(-50, 500));
+        Assert.assertEquals(0, tree.countRange(20, 10));
+        Assert.assertEquals(0, tree.countRange(200, 300));
+    }
+
+    @Test
+    public void percentile() throws Exception {
+        for (int i = 1; i <= 100; i++) {
+            tree.add(i, "");
+        }
+        Assert.assertEquals(Integer.valueOf(1), tree.percentile(0));
+        Assert.assertEquals(Integer.valueOf(50), tree.percentile(50));
+        Assert.assertEquals(Integer.valueOf(90), tree.percentile(90));
+        Assert.assertEquals(Integer.valueOf(100), tree.percentile(100));
+        Assert.assertEquals(25.0, tree.percentileRank(26), 0.0001);
+        Assert.assertEquals(100.0, tree.percentileRank(101), 0.0001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentile_fail() throws Exception {
+        tree.add(1, "");
+        tree.percentile(101);
+    }
+
+    @Test
+    public void subTree() throws Exception {
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "val_" + i);
+        }
+        ArrayList<Integer> result = new ArrayList<>();
+        for (AVLTreeNode<Integer, String> node : tree.subTree(10, 20)) {
+            result.add(node.key());
+        }
+        Assert.assertEquals(Arrays.asList(10, 12, 14, 16, 18), result);
+        Assert.assertEquals(5, tree.subTree(10, 20).size());
+
+        result.clear();
+        for (AVLTreeNode<Integer, String> node : tree.subTree(9, false, 20, true)) {
+            result.add(node.key());
+        }
+        Assert.assertEquals(Arrays.asList(10, 12, 14, 16, 18, 20), result);
+
+        result.clear();
+        for (AVLTreeNode<Integer, String> node : tree.subTree(10, false, 19, false)) {
+            result.add(node.key());
+        }
+        Assert.assertEquals(Arrays.asList(12, 14, 16, 18), result);
+        Assert.assertEquals(4, tree.subTree(10, false, 19, false).size());
+    }
+
+    @Test
+    public void subTree_descending() throws Exception {
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "val_" + i);
+        }
+        ArrayList<Integer> result = new ArrayList<>();
+        Iterator<AVLTreeNode<Integer, String>> iterator = tree.subTree(10, true, 20, false).descendingIterator();
+        while (iterator.hasNext()) {
+            result.add(iterator.next().key());
+        }
+        Assert.assertEquals(Arrays.asList(18, 16, 14, 12, 10), result);
+    }
+
+    @Test
+    public void subTree_empty() throws Exception {
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "val_" + i);
+        }
+        Assert.assertTrue(tree.subTree(11, 12).isEmpty());
+        Assert.assertEquals(0, tree.subTree(11, 12).size());
+        Assert.assertTrue(tree.subTree(20, 10).isEmpty());
+        Assert.assertEquals(0, tree.subTree(20, 10).size());
+        Assert.assertFalse(tree.subTree(20, 10).descendingIterator().hasNext());
+        Assert.assertTrue(tree.subTree(200, 300).isEmpty());
+        Assert.assertTrue(new AVLTree<Integer, String>().subTree(0, 10).isEmpty());
+    }
+
+    @Test
+    public void headTree() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        ArrayList<Integer> result = new ArrayList<>();
+        for (AVLTreeNode<Integer, String> node : tree.headTree(3)) {
+            result.add(node.key());
+        }
+        Assert.assertEquals(Arrays.asList(0, 1, 2), result);
+        Assert.assertEquals(4, tree.headTree(3, true).size());
+        Iterator<AVLTreeNode<Integer, String>> iterator = tree.headTree(3, true).descendingIterator();
+        Assert.assertEquals(Integer.valueOf(3), iterator.next().key());
+        Assert.assertEquals(Integer.valueOf(2), iterator.next().key());
+    }
+
+    @Test
+    public void tailTree() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        ArrayList<Integer> result = new ArrayList<>();
+        for (AVLTreeNode<Integer, String> node : tree.tailTree(7)) {
+            result.add(node.key());
+        }
+        Assert.assertEquals(Arrays.asList(7, 8, 9), result);
+        Assert.assertEquals(2, tree.tailTree(7, false).size());
+        Iterator<AVLTreeNode<Integer, String>> iterator = tree.tailTree(7, false).descendingIterator();
+        Assert.assertEquals(Integer.valueOf(9), iterator.next().key());
+        Assert.assertEquals(Integer.valueOf(8), iterator.next().key());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void subTree_iterator_fail() throws Exception {
+        tree.add(1, "");
+        Iterator<AVLTreeNode<Integer, String>> iterator = tree.subTree(2, 3).iterator();
+        iterator.next();
+    }
+
+    @Test
+    public void contains() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "");
+        }
+        AVLTree<Integer, String> other = new AVLTree<>();
+        other.add(3, "");
+        ArrayList<Object> nodes = new ArrayList<>();
+        for (Object o : tree) {
+            nodes.add(o);
+            Assert.assertTrue(tree.contains(o));
+        }
+        for (Object o : other) {
+            Assert.assertFalse(tree.contains(o));
+        }
+        Assert.assertFalse(tree.contains(3));
+        tree.remove(5);
+        Assert.assertFalse(tree.contains(nodes.get(5)));
+        Assert.assertTrue(tree.contains(nodes.get(4)));
+        tree.clear();
+        Assert.assertFalse(tree.contains(nodes.get(4)));
+    }
+
+    private static void assertValid(AVLTree<Integer, String> tree, Collection<Integer> expected) {
+        Assert.assertEquals(expected.size(), tree.size());
+        Iterator<Integer> iterator_exp = expected.iterator();
+        for (Object o : tree) {
+            AVLTreeNode<?, ?> node = (AVLTreeNode<?, ?>) o;
+            Assert.assertEquals(iterator_exp.next(), node.key());
+            Assert.assertEquals(computeHeight(node), node.height());
+            Assert.assertEquals(computeSize(node), node.size());
+            Assert.assertTrue(node.isBalanced());
+        }
+        Assert.assertFalse(iterator_exp.hasNext());
+    }
+
+    @Test
+    public void constructor_sorted() throws Exception {
+        ArrayList<Pair<Integer, String>> list = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            list.add(new Pair<>(i, "v" + i));
+        }
+        tree = new AVLTree<>(list);
+        Assert.assertEquals(7, tree.size());
+        Assert.assertTrue(tree.isComplete());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(3, 1, 5, 0, 2, 4, 6), printer.getKeyStore());
+        Assert.assertEquals("v4", tree.getValue(4));
+        Assert.assertTrue(tree.add(7, "v7"));
+        Assert.assertTrue(tree.remove(3));
+        assertValid(tree, Arrays.asList(0, 1, 2, 4, 5, 6, 7));
+    }
+
+    @Test
+    public void constructor_unsorted() throws Exception {
+        ArrayList<Pair<Integer, String>> list = new ArrayList<>();
+        list.add(new Pair<>(3, "a"));
+        list.add(new Pair<>(1, "b"));
+        list.add(new Pair<>(3, "c"));
+        list.add(new Pair<>(2, "d"));
+        tree = new AVLTree<>(list);
+        assertValid(tree, Arrays.asList(1, 2, 3));
+        Assert.assertEquals("a", tree.getValue(3));
+    }
+
+    @Test
+    public void fromSorted() throws Exception {
+        TreeSet<Integer> expected = new TreeSet<>();
+        ArrayList<Pair<Integer, String>> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i * 3);
+            list.add(new Pair<>(i * 3, ""));
+        }
+        tree = AVLTree.fromSorted(list);
+        assertValid(tree, expected);
+        Assert.assertEquals(10, tree.height());
+        Assert.assertEquals(Integer.valueOf(300), tree.select(100));
+        Assert.assertEquals(0, AVLTree.fromSorted(new ArrayList<Pair<Integer, String>>()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromSorted_fail() throws Exception {
+        AVLTree.fromSorted(Arrays.asList(new Pair<>(1, ""), new Pair<>(1, "")));
+    }
+
+    @Test
+    public void fromUnsorted() throws Exception {
+        Random random = new Random(9);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        ArrayList<Pair<Integer, String>> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(5000);
+            expected.putIfAbsent(key, "v" + i);
+            list.add(new Pair<>(key, "v" + i));
+        }
+        tree = AVLTree.fromUnsorted(list);
+        assertValid(tree, expected.keySet());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), tree.getValue(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void valueIndex() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            tree.add(i, "v" + (i % 5));
+        }
+        tree.enableValueIndex();
+        Assert.assertTrue(tree.isValueIndexed());
+        Assert.assertEquals(Integer.valueOf(2), tree.search("v2"));
+        Assert.assertEquals(Arrays.asList(2, 7, 12, 17), tree.searchAll("v2"));
+        tree.remove(2);
+        Assert.assertEquals(Integer.valueOf(7), tree.search("v2"));
+        tree.apply(7, v -> "x");
+        tree.setValue(12, "x");
+        tree.add(30, "x");
+        Assert.assertEquals(Arrays.asList(7, 12, 30), tree.searchAll("x"));
+        Assert.assertEquals(Collections.singletonList(17), tree.searchAll("v2"));
+        tree.asNavigableMap().put(17, "y");
+        Assert.assertNull(tree.search("v2"));
+        Assert.assertTrue(tree.searchAll("v2").isEmpty());
+        Assert.assertEquals(Integer.valueOf(17), tree.search("y"));
+        tree.clear();
+        Assert.assertNull(tree.search("x"));
+        tree.disableValueIndex();
+        Assert.assertFalse(tree.isValueIndexed());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void setValue_fail() throws Exception {
+        tree.setValue(1, "");
+    }
+
+    @Test
+    public void valueIndex_fuzz() throws Exception {
+        AVLTree<Integer, String> indexed = new AVLTree<>();
+        indexed.enableValueIndex();
+        Random random = new Random(13);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(300);
+            String value = "v" + random.nextInt(20);
+            switch (random.nextInt(3)) {
+                case 0:
+                    Assert.assertEquals(tree.add(key, value), indexed.add(key, value));
+                    break;
+                case 1:
+                    Assert.assertEquals(tree.remove(key), indexed.remove(key));
+                    break;
+                default:
+                    if (tree.search(key)) {
+                        tree.setValue(key, value);
+                        indexed.setValue(key, value);
+                    }
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(tree.search("v" + i), indexed.search("v" + i));
+            Assert.assertEquals(tree.searchAll("v" + i), indexed.searchAll("v" + i));
+        }
+    }
+
+    @Test
+    public void stream() throws Exception {
+        Assert.assertEquals(0, tree.stream().count());
+        for (int i = 0; i < 1000; i++) {
+            tree.add(i, "v" + i);
+        }
+        Assert.assertEquals(499500, tree.stream().mapToInt(AVLTreeNode::key).sum());
+        Assert.assertEquals("v10", tree.stream().skip(10).findFirst().get().value());
+    }
+
+    @Test
+    public void parallelStream() throws Exception {
+        ArrayList<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            tree.add(i, "v" + i);
+            expected.add(i);
+        }
+        Assert.assertEquals(49995000L, tree.parallelStream().mapToLong(AVLTreeNode::key).sum());
+        List<Integer> keys = tree.parallelStream().map(AVLTreeNode::key).collect(java.util.stream.Collectors.toList());
+        Assert.assertEquals(expected, keys);
+        Assert.assertEquals(5000, tree.parallelStream().filter(n -> n.key() % 2 == 0).count());
+    }
+
+    @Test
+    public void spliterator() throws Exception {
+        for (int i = 0; i < 11; i++) {
+            tree.add(i, "");
+        }
+        Spliterator<AVLTreeNode<Integer, String>> suffix = tree.spliterator();
+        Assert.assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED | Spliterator.DISTINCT));
+        Assert.assertEquals(11, suffix.getExactSizeIfKnown());
+        ArrayList<Integer> keys = new ArrayList<>();
+        Assert.assertTrue(suffix.tryAdvance(n -> keys.add(n.key())));
+        Spliterator<AVLTreeNode<Integer, String>> prefix = suffix.trySplit();
+        Assert.assertEquals(5, prefix.estimateSize());
+        Assert.assertEquals(5, suffix.estimateSize());
+        prefix.forEachRemaining(n -> keys.add(n.key()));
+        suffix.forEachRemaining(n -> keys.add(n.key()));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10), keys);
+        Assert.assertFalse(suffix.tryAdvance(n -> keys.add(n.key())));
+        Assert.assertNull(suffix.trySplit());
+    }
+
+    @Test
+    public void parallelForEach() throws Exception {
+        tree.setParallelThreshold(16);
+        for (int i = 0; i < 5000; i++) {
+            tree.add(i, "v" + i);
+        }
+        java.util.concurrent.atomic.LongAdder sum = new java.util.concurrent.atomic.LongAdder();
+        tree.parallelForEach(node -> sum.add(node.key()));
+        Assert.assertEquals(12497500L, sum.sum());
+        tree.clear();
+        tree.parallelForEach(node -> sum.add(node.key()));
+        Assert.assertEquals(12497500L, sum.sum());
+    }
+
+    @Test
+    public void parallelReduce() throws Exception {
+        tree.setParallelThreshold(8);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            tree.add(i, "v" + i);
+            expected.append(i).append(',');
+        }
+        //String concatenation is associative but not commutative so the key order must be kept
+        Assert.assertEquals(expected.toString(), tree.parallelReduce("", (s, node) -> s + node.key() + ",", String::concat));
+        Assert.assertEquals(Integer.valueOf(124750), tree.parallelReduce(0, (s, node) -> s + node.key(), Integer::sum));
+    }
+
+    @Test
+    public void parallelSearchValues() throws Exception {
+        tree.setParallelThreshold(4);
+        for (int i = 0; i < 1000; i++) {
+            tree.add(i, "v" + (i % 10));
+        }
+        Assert.assertEquals(new ArrayList<>(tree.searchValues(v -> v.equals("v3"))), tree.parallelSearchValues(v -> v.equals("v3")));
+        Assert.assertEquals(100, tree.parallelSearchValues(v -> v.equals("v3")).size());
+    }
+
+    @Test
+    public void parallelApplyAll() throws Exception {
+        tree.setParallelThreshold(4);
+        for (int i = 0; i < 1000; i++) {
+            tree.add(i, "v" + i);
+        }
+        tree.enableValueIndex();
+        tree.parallelApplyAll(v -> v + "!");
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals("v" + i + "!", tree.getValue(i));
+        }
+        Assert.assertEquals(Integer.valueOf(42), tree.search("v42!"));
+        Assert.assertNull(tree.search("v42"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setParallelThreshold_fail() throws Exception {
+        tree.setParallelThreshold(0);
+    }
+
+    @Test
+    public void split() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            tree.add(i * 2, "v" + i * 2);
+        }
+        tree.enableValueIndex();
+        Pair<AVLTree<Integer, String>, AVLTree<Integer, String>> halves = tree.split(61);
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertNull(tree.search("v60"));
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i * 2);
+        }
+        assertValid(halves.getKey(), expected.headSet(61));
+        assertValid(halves.getValue(), expected.tailSet(61));
+        halves = halves.getValue().split(62);
+        assertValid(halves.getKey(), Collections.emptySet());
+        assertValid(halves.getValue(), expected.tailSet(62));
+        halves = halves.getValue().split(1000);
+        assertValid(halves.getKey(), expected.tailSet(62));
+        assertValid(halves.getValue(), Collections.emptySet());
+    }
+
+    @Test
+    public void join() throws Exception {
+        AVLTree<Integer, String> right = new AVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 3; i++) {
+            tree.add(i, "v" + i);
+            expected.add(i);
+        }
+        for (int i = 10; i < 1000; i++) {
+            right.add(i, "v" + i);
+            expected.add(i);
+        }
+        expected.add(5);
+        AVLTree<Integer, String> joined = AVLTree.join(tree, 5, "v5", right);
+        assertValid(joined, expected);
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertTrue(right.isEmpty());
+        Assert.assertEquals("v5", joined.getValue(5));
+        joined = AVLTree.join(joined, 2000, "v2000", new AVLTree<>());
+        expected.add(2000);
+        assertValid(joined, expected);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void join_fail() throws Exception {
+        AVLTree<Integer, String> right = new AVLTree<>();
+        tree.add(1, "v1");
+        right.add(3, "v3");
+        AVLTree.join(tree, 3, "", right);
+    }
+
+    @Test
+    public void concat() throws Exception {
+        AVLTree<Integer, String> right = new AVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 500; i++) {
+            tree.add(i, "v" + i);
+            expected.add(i);
+        }
+        for (int i = 500; i < 510; i++) {
+            right.add(i, "v" + i);
+            expected.add(i);
+        }
+        AVLTree<Integer, String> joined = AVLTree.concat(tree, right);
+        assertValid(joined, expected);
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertTrue(right.isEmpty());
+        Assert.assertEquals("v499", joined.getValue(499));
+        assertValid(AVLTree.concat(new AVLTree<>(), joined), expected);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void concat_fail() throws Exception {
+        AVLTree<Integer, String> right = new AVLTree<>();
+        tree.add(1, "v1");
+        tree.add(5, "v5");
+        right.add(3, "v3");
+        AVLTree.concat(tree, right);
+    }
+
+    @Test
+    public void split_concat_fuzz() throws Exception {
+        Random random = new Random(17);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(5000);
+            if (expected.add(key))
+                tree.add(key, "v" + key);
+        }
+        for (int i = 0; i < 50; i++) {
+            int key = random.nextInt(5200) - 100;
+            Pair<AVLTree<Integer, String>, AVLTree<Integer, String>> halves = tree.split(key);
+            assertValid(halves.getKey(), expected.headSet(key));
+            assertValid(halves.getValue(), expected.tailSet(key));
+            tree = AVLTree.concat(halves.getKey(), halves.getValue());
+            assertValid(tree, expected);
+        }
+    }
+
+    @Test
+    public void copy() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            tree.add(i, "v" + i);
+        }
+        AVLTree<Integer, String> copy = tree.copy();
+        tree.remove(50);
+        Assert.assertEquals("v50", copy.getValue(50));
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertValid(copy, expected);
+    }
+
+    @Test
+    public void union() throws Exception {
+        AVLTree<Integer, String> other = new AVLTree<>();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "a" + i);
+            expected.put(i, "a" + i);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            other.add(i, "b" + i);
+            expected.merge(i, "b" + i, String::concat);
+        }
+        AVLTree<Integer, String> result = AVLTree.union(tree, other, String::concat);
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertTrue(other.isEmpty());
+        assertValid(result, expected.keySet());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), result.getValue(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void intersection() throws Exception {
+        AVLTree<Integer, String> other = new AVLTree<>();
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "a" + i);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            other.add(i, "b" + i);
+        }
+        AVLTree<Integer, String> result = AVLTree.intersection(tree, other, String::concat);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100; i += 6) {
+            expected.add(i);
+        }
+        assertValid(result, expected);
+        Assert.assertEquals("a6b6", result.getValue(6));
+        Assert.assertTrue(AVLTree.intersection(result, new AVLTree<>(), String::concat).isEmpty());
+    }
+
+    @Test
+    public void difference() throws Exception {
+        AVLTree<Integer, String> other = new AVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "a" + i);
+            if (i % 3 != 0)
+                expected.add(i);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            other.add(i, "b" + i);
+        }
+        AVLTree<Integer, String> result = AVLTree.difference(tree, other);
+        assertValid(result, expected);
+        Assert.assertEquals("a4", result.getValue(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void union_fail() throws Exception {
+        AVLTree.union(tree, tree, String::concat);
+    }
+
+    @Test
+    public void setOperations_parallel_fuzz() throws Exception {
+        Random random = new Random(18);
+        TreeMap<Integer, String> map_a = new TreeMap<>();
+        TreeMap<Integer, String> map_b = new TreeMap<>();
+        AVLTree<Integer, String> a = new AVLTree<>();
+        AVLTree<Integer, String> b = new AVLTree<>();
+        a.setParallelThreshold(16);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(20000);
+            if (map_a.putIfAbsent(key, "a" + key) == null)
+                a.add(key, "a" + key);
+        }
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(20000);
+            if (map_b.putIfAbsent(key, "b" + key) == null)
+                b.add(key, "b" + key);
+        }
+        TreeMap<Integer, String> union = new TreeMap<>(map_a);
+        map_b.forEach((k, v) -> union.merge(k, v, String::concat));
+        TreeSet<Integer> intersection = new TreeSet<>(map_a.keySet());
+        intersection.retainAll(map_b.keySet());
+        TreeSet<Integer> difference = new TreeSet<>(map_a.keySet());
+        difference.removeAll(map_b.keySet());
+        AVLTree<Integer, String> result = AVLTree.union(a.copy(), b.copy(), String::concat);
+        assertValid(result, union.keySet());
+        for (Map.Entry<Integer, String> entry : union.entrySet()) {
+            Assert.assertEquals(entry.getValue(), result.getValue(entry.getKey()));
+        }
+        assertValid(AVLTree.intersection(a.copy(), b.copy(), String::concat), intersection);
+        assertValid(AVLTree.difference(a.copy(), b.copy()), difference);
+        difference = new TreeSet<>(map_b.keySet());
+        difference.removeAll(map_a.keySet());
+        assertValid(AVLTree.difference(b, a), difference);
+    }
+
+    @Test
+    public void snapshot() throws Exception {
+        Path path = Files.createTempFile("avltree", ".snapshot");
+        try {
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 1000; i++) {
+                tree.add(i * 3, i % 10 == 0 ? null : "v\u00e9\u20ac" + i);
+                expected.add(i * 3);
+            }
+            tree.writeSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+            AVLTree<Integer, String> loaded = AVLTree.readSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+            assertValid(loaded, expected);
+            ArrayList<Pair<Integer, String>> sorted = new ArrayList<>();
+            for (Integer key : expected) {
+                sorted.add(new Pair<>(key, ""));
+            }
+            PrintToCollection shape_expected = new PrintToCollection();
+            PrintToCollection shape_loaded = new PrintToCollection();
+            AVLTree.fromSorted(sorted).levelOrder(shape_expected);
+            loaded.levelOrder(shape_loaded);
+            Assert.assertEquals(shape_expected.getKeyStore(), shape_loaded.getKeyStore());
+            for (int i = 0; i < 1000; i++) {
+                Assert.assertEquals(i % 10 == 0 ? null : "v\u00e9\u20ac" + i, loaded.getValue(i * 3));
+            }
+            new AVLTree<Integer, String>().writeSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+            Assert.assertTrue(AVLTree.readSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING).isEmpty());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void snapshot_oversized_entry() throws Exception {
+        Path path = Files.createTempFile("avltree", ".snapshot");
+        try {
+            char[] chars = new char[3 << 20];
+            Arrays.fill(chars, 'x');
+            String big = new String(chars);
+            tree.add(1, "a");
+            tree.add(2, big);
+            tree.add(3, "c");
+            tree.writeSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+            AVLTree<Integer, String> loaded = AVLTree.readSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+            Assert.assertEquals(big, loaded.getValue(2));
+            Assert.assertEquals("c", loaded.getValue(3));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void snapshot_regions() throws Exception {
+        Path path = Files.createTempFile("avltree", ".snapshot");
+        try {
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 1000; i++) {
+                char[] chars = new char[i % 7 == 0 ? 150 : i % 13];
+                Arrays.fill(chars, 'x');
+                tree.add(i, new String(chars) + i);
+                expected.add(i);
+            }
+            tree.writeSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+            for (int region : new int[]{12, 64, 1000}) { //entries straddling and larger than the mapped regions
+                AVLTree<Integer, String> loaded = AVLTree.readSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING, region);
+                assertValid(loaded, expected);
+                for (int i = 0; i < 1000; i++) {
+                    Assert.assertEquals(tree.getValue(i), loaded.getValue(i));
+                }
+            }
+            byte[] bytes = Files.readAllBytes(path);
+            Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+            try {
+                AVLTree.readSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING, 64);
+                Assert.fail("Truncated snapshot should not be readable.");
+            } catch (IOException e) {
+                //expected
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readSnapshot_truncated() throws Exception {
+        Path path = Files.createTempFile("avltree", ".snapshot");
+        try {
+            for (int i = 0; i < 100; i++) {
+                tree.add(i, "v" + i);
+            }
+            tree.writeSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+            byte[] bytes = Files.readAllBytes(path);
+            Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+            AVLTree.readSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readSnapshot_fail() throws Exception {
+        Path path = Files.createTempFile("avltree", ".snapshot");
+        try {
+            Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+            AVLTree.readSnapshot(path, IBinaryCodec.INTEGER, IBinaryCodec.STRING);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void putIfAbsent_replace_getOrDefault() throws Exception {
+        Assert.assertNull(tree.putIfAbsent(1, "a"));
+        Assert.assertEquals("a", tree.putIfAbsent(1, "b"));
+        Assert.assertEquals("a", tree.getOrDefault(1, "x"));
+        Assert.assertEquals("x", tree.getOrDefault(2, "x"));
+        Assert.assertNull(tree.replace(2, "c"));
+        Assert.assertFalse(tree.search(2));
+        Assert.assertEquals("a", tree.replace(1, "c"));
+        Assert.assertFalse(tree.replace(1, "a", "d"));
+        Assert.assertTrue(tree.replace(1, "c", "d"));
+        Assert.assertEquals("d", tree.getValue(1));
+        Assert.assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void compute() throws Exception {
+        tree.enableValueIndex();
+        Assert.assertEquals("1", tree.compute(1, (k, v) -> v == null ? "1" : v + "1"));
+        Assert.assertEquals("11", tree.compute(1, (k, v) -> v == null ? "1" : v + "1"));
+        Assert.assertEquals(Integer.valueOf(1), tree.search("11"));
+        Assert.assertNull(tree.compute(1, (k, v) -> null));
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertNull(tree.search("11"));
+        Assert.assertNull(tree.compute(2, (k, v) -> null));
+        Assert.assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void computeIfAbsent_computeIfPresent() throws Exception {
+        Assert.assertNull(tree.computeIfPresent(1, (k, v) -> "x"));
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertEquals("v1", tree.computeIfAbsent(1, k -> "v" + k));
+        Assert.assertEquals("v1", tree.computeIfAbsent(1, k -> "other"));
+        Assert.assertNull(tree.computeIfAbsent(2, k -> null));
+        Assert.assertFalse(tree.search(2));
+        Assert.assertEquals("v1!", tree.computeIfPresent(1, (k, v) -> v + "!"));
+        Assert.assertNull(tree.computeIfPresent(1, (k, v) -> null));
+        Assert.assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void merge() throws Exception {
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(21);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(300);
+            String value = random.nextInt(10) == 0 ? "" : "x";
+            BiFunction<String, String, String> function = (a, b) -> b.isEmpty() ? null : a + b;
+            Assert.assertEquals(expected.merge(key, value, function), tree.merge(key, value, function));
+        }
+        assertValid(tree, expected.keySet());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), tree.getValue(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void merge_null_value() throws Exception {
+        tree.add(1, "v1");
+        for (int key : new int[]{1, 2}) {
+            try {
+                tree.merge(key, null, (a, b) -> a);
+                Assert.fail("Null value should have been rejected.");
+            } catch (NullPointerException e) {
+                //expected
+            }
+        }
+        Assert.assertEquals("v1", tree.getValue(1));
+        Assert.assertFalse(tree.search(2));
+        Assert.assertEquals(1, tree.size());
+    }
+
+    private static class CountingKey implements Comparable<CountingKey> {
+        static int comparisons = 0;
+        final int key;
+
+        CountingKey(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(CountingKey o) {
+            comparisons++;
+            return Integer.compare(this.key, o.key);
+        }
+    }
+
+    @Test
+    public void single_descent() throws Exception {
+        AVLTree<CountingKey, Integer> counters = new AVLTree<>();
+        for (int i = 0; i < 1023; i++) {
+            counters.add(new CountingKey(i), 0);
+        }
+        int height = counters.height();
+        CountingKey key = new CountingKey(500);
+        CountingKey.comparisons = 0;
+        counters.merge(key, 1, Integer::sum);
+        Assert.assertTrue(CountingKey.comparisons <= height + 1);
+        CountingKey.comparisons = 0;
+        counters.getValue(key);
+        Assert.assertTrue(CountingKey.comparisons <= height);
+        CountingKey.comparisons = 0;
+        counters.apply(key, v -> v + 1);
+        Assert.assertTrue(CountingKey.comparisons <= height);
+        CountingKey.comparisons = 0;
+        counters.computeIfAbsent(new CountingKey(5000), k -> 1);
+        Assert.assertTrue(CountingKey.comparisons <= height + 2);
+        Assert.assertEquals(Integer.valueOf(2), counters.getValue(key));
+    }
+
+    @Test
+    public void cache() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            tree.add(i, "v" + i);
+        }
+        tree.enableCache(8);
+        Assert.assertTrue(tree.isCached());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("v7", tree.getValue(7));
+        }
+        Assert.assertEquals(9, tree.getCacheHitCount());
+        Assert.assertEquals(1, tree.getCacheMissCount());
+        tree.apply(7, v -> v + "!");
+        Assert.assertEquals("v7!", tree.getValue(7));
+        tree.remove(7);
+        Assert.assertFalse(tree.search(7));
+        Assert.assertEquals("x", tree.getOrDefault(7, "x"));
+        tree.add(7, "new");
+        Assert.assertEquals("new", tree.getValue(7));
+        tree.clear();
+        Assert.assertFalse(tree.search(7));
+        tree.disableCache();
+        Assert.assertEquals(0, tree.getCacheHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void enableCache_fail() throws Exception {
+        tree.enableCache(0);
+    }
+
+    @Test
+    public void cache_fuzz() throws Exception {
+        tree.enableCache(16);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(22);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(10) < 8 ? random.nextInt(20) : random.nextInt(500);
+            switch (random.nextInt(5)) {
+                case 0:
+                    Assert.assertEquals(expected.putIfAbsent(key, "v" + i) == null, tree.add(key, "v" + i));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.remove(key) != null, tree.remove(key));
+                    break;
+                case 2:
+                    Assert.assertEquals(expected.merge(key, "m", String::concat), tree.merge(key, "m", String::concat));
+                    break;
+                default:
+                    Assert.assertEquals(expected.get(key), tree.getOrDefault(key, null));
+                    Assert.assertEquals(expected.containsKey(key), tree.search(key));
+            }
+        }
+        assertValid(tree, expected.keySet());
+        Assert.assertTrue(tree.getCacheHitCount() > 0);
+    }
+
+    @Test
+    public void finger() throws Exception {
+        AVLTree<Integer, String>.AVLTreeFinger finger = tree.finger();
+        Assert.assertFalse(finger.search(1));
+        Assert.assertNull(finger.node());
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(23);
+        int key = 0;
+        for (int i = 0; i < 5000; i++) {
+            key += random.nextInt(7) - 2; //nearly sorted walk
+            Assert.assertEquals(expected.add(key), finger.add(key, "v" + key));
+            Assert.assertEquals(Integer.valueOf(key), finger.node().key());
+        }
+        assertValid(tree, expected);
+        for (int i = 0; i < 2000; i++) {
+            int k = random.nextInt(12000) - 1000;
+            Assert.assertEquals(expected.contains(k), finger.search(k));
+        }
+        int first = expected.first();
+        Assert.assertEquals("v" + first, finger.getValue(first));
+        tree.remove(first);
+        Assert.assertFalse(finger.search(first));
+        Assert.assertTrue(finger.search(expected.last()));
+        tree.clear();
+        Assert.assertFalse(finger.search(expected.last()));
+        Assert.assertTrue(finger.add(1, "a"));
+        finger.reset();
+        Assert.assertEquals("a", finger.getValue(1));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void finger_getValue_fail() throws Exception {
+        tree.add(1, "a");
+        tree.finger().getValue(2);
+    }
+
+    @Test
+    public void finger_sequential_cost() throws Exception {
+        AVLTree<CountingKey, Integer> counters = new AVLTree<>();
+        AVLTree<CountingKey, Integer>.AVLTreeFinger finger = counters.finger();
+        CountingKey.comparisons = 0;
+        for (int i = 0; i < 10000; i++) {
+            finger.add(new CountingKey(i), i);
+        }
+        int finger_comparisons = CountingKey.comparisons;
+        AVLTree<CountingKey, Integer> plain = new AVLTree<>();
+        CountingKey.comparisons = 0;
+        for (int i = 0; i < 10000; i++) {
+            plain.add(new CountingKey(i), i);
+        }
+        Assert.assertTrue(finger_comparisons * 2 < CountingKey.comparisons);
+        Assert.assertEquals(plain.height(), counters.height());
+    }
+
+    @Test
+    public void addAllSorted() throws Exception {
+        ArrayList<Pair<Integer, String>> list = new ArrayList<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 100; i += 2) {
+            list.add(new Pair<>(i, "v" + i));
+            expected.add(i);
+        }
+        Assert.assertEquals(50, tree.addAllSorted(list));
+        assertValid(tree, expected);
+        Assert.assertTrue(tree.isComplete() || tree.height() == 6);
+        list.clear();
+        for (int i = 0; i < 200; i += 3) {
+            list.add(new Pair<>(i, "w" + i));
+            expected.add(i);
+        }
+        Assert.assertEquals(50, tree.addAllSorted(list));
+        assertValid(tree, expected);
+        Assert.assertEquals("v6", tree.getValue(6));
+        Assert.assertEquals("w9", tree.getValue(9));
+    }
+
+    @Test
+    public void getAll_array() throws Exception {
+        for (int i = 0; i < 1000; i += 2) {
+            tree.add(i, "v" + i);
+        }
+        Random random = new Random(24);
+        ArrayList<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            keys.add(random.nextInt(1100) - 50);
+        }
+        keys.add(keys.get(0));
+        String[] values = new String[keys.size()];
+        int found = tree.getAll(keys, values, "missing");
+        int expected_found = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            int key = keys.get(i);
+            boolean present = key >= 0 && key < 1000 && key % 2 == 0;
+            Assert.assertEquals(present ? "v" + key : "missing", values[i]);
+            if (present)
+                expected_found++;
+        }
+        Assert.assertEquals(expected_found, found);
+        Assert.assertEquals(0, new AVLTree<Integer, String>().getAll(keys, values, null));
+        Assert.assertNull(values[0]);
+        keys.sort(null); //already ascending: resolved in place
+        Assert.assertEquals(expected_found, tree.getAll(keys, values, "missing"));
+        for (int i = 0; i < keys.size(); i++) {
+            int key = keys.get(i);
+            boolean present = key >= 0 && key < 1000 && key % 2 == 0;
+            Assert.assertEquals(present ? "v" + key : "missing", values[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getAll_fail() throws Exception {
+        tree.getAll(Arrays.asList(1, 2), new String[1], null);
+    }
+
+    @Test
+    public void getAll_map() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "v" + i);
+        }
+        HashMap<Integer, String> values = new HashMap<>();
+        Assert.assertEquals(2, tree.getAll(Arrays.asList(9, 42, 3, 9, -1), values, "?"));
+        Assert.assertEquals(4, values.size());
+        Assert.assertEquals("v9", values.get(9));
+        Assert.assertEquals("v3", values.get(3));
+        Assert.assertEquals("?", values.get(42));
+        Assert.assertEquals("?", values.get(-1));
+    }
+
+    @Test
+    public void getAll_merged_cost() throws Exception {
+        ArrayList<Pair<CountingKey, Integer>> pairs = new ArrayList<>();
+        for (int i = 0; i < 1 << 14; i++) {
+            pairs.add(new Pair<>(new CountingKey(i), i));
+        }
+        AVLTree<CountingKey, Integer> counters = AVLTree.fromSorted(pairs);
+        ArrayList<CountingKey> keys = new ArrayList<>();
+        for (int i = 0; i < 1 << 14; i += 2) {
+            keys.add(new CountingKey(i));
+        }
+        CountingKey.comparisons = 0;
+        HashMap<CountingKey, Integer> values = new HashMap<>();
+        Assert.assertEquals(keys.size(), counters.getAll(keys, values, null));
+        int merged = CountingKey.comparisons;
+        CountingKey.comparisons = 0;
+        for (CountingKey key : keys) {
+            counters.getValue(key);
+        }
+        Assert.assertTrue(merged < CountingKey.comparisons);
+    }
+
+    @Test
+    public void relaxed() throws Exception {
+        tree.enableRelaxedBalance();
+        Assert.assertTrue(tree.isRelaxed());
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 1 << 12; i++) {
+            Assert.assertTrue(tree.add(i, "v" + i));
+            expected.add(i);
+        }
+        Assert.assertTrue(tree.height() > 13);
+        Assert.assertTrue(tree.height() <= 2.5 * 12 + 2);
+        Assert.assertEquals("v100", tree.getValue(100));
+        Assert.assertEquals(100, tree.rank(100));
+        tree.rebalance();
+        assertValid(tree, expected);
+        Assert.assertEquals(13, tree.height());
+        Assert.assertTrue(tree.isRelaxed());
+        tree.disableRelaxedBalance();
+        Assert.assertFalse(tree.isRelaxed());
+        Assert.assertTrue(tree.remove(0));
+        expected.remove(0);
+        assertValid(tree, expected);
+    }
+
+    @Test
+    public void relaxed_fuzz() throws Exception {
+        tree.enableRelaxedBalance();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(25);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(4) == 0 ? random.nextInt(5000) : i; //mostly ascending bursts
+            if (random.nextInt(3) > 0) {
+                Assert.assertEquals(expected.add(key), tree.add(key, "v" + key));
+            } else {
+                Assert.assertEquals(expected.remove(key), tree.remove(key));
+            }
+        }
+        Assert.assertEquals(expected.size(), tree.size());
+        Iterator<Integer> iterator_exp = expected.iterator();
+        for (Object o : tree) {
+            AVLTreeNode<?, ?> node = (AVLTreeNode<?, ?>) o;
+            Assert.assertEquals(iterator_exp.next(), node.key());
+            Assert.assertEquals(computeHeight(node), node.height());
+            Assert.assertEquals(computeSize(node), node.size());
+            Assert.assertTrue(Math.abs(node.getBalanceFactor()) <= 5);
+        }
+        Assert.assertTrue(tree.height() <= 2.5 * Math.log(tree.size()) / Math.log(2) + 2);
+        tree.disableRelaxedBalance();
+        assertValid(tree, expected);
+    }
+
+    @Test
+    public void relaxed_concat_empty() throws Exception {
+        tree.enableRelaxedBalance();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 10000; i++) {
+            tree.add(i, "v" + i);
+            expected.add(i);
+        }
+        assertValid(AVLTree.concat(tree, new AVLTree<>()), expected);
+        for (int i = 0; i < 10000; i++) {
+            tree.add(i, "v" + i);
+        }
+        assertValid(AVLTree.concat(new AVLTree<>(), tree), expected);
+    }
+
+    @Test
+    public void relaxed_split_copy() throws Exception {
+        tree.enableRelaxedBalance();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 1000; i++) {
+            tree.add(i, "v" + i);
+            expected.add(i);
+        }
+        AVLTree<Integer, String> copy = tree.copy();
+        Assert.assertTrue(copy.isRelaxed());
+        copy.rebalance();
+        assertValid(copy, expected);
+        Pair<AVLTree<Integer, String>, AVLTree<Integer, String>> halves = tree.split(500);
+        assertValid(halves.getKey(), expected.headSet(500));
+        assertValid(halves.getValue(), expected.tailSet(500));
+    }
+}
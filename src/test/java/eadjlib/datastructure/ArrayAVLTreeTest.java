@@ -0,0 +1,256 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class ArrayAVLTreeTest {
+    private ArrayAVLTree<Integer, String> tree;
+
+    class PrintToCollection implements IPrintFunction {
+        ArrayList<Integer> key_store = new ArrayList<>();
+
+        @Override
+        public void call(Object... objects) {
+            //void
+        }
+
+        @Override
+        public void call(Object key, Object value) {
+            this.key_store.add((Integer) key);
+        }
+
+        public ArrayList<Integer> getKeyStore() {
+            return this.key_store;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        tree = new ArrayAVLTree<>();
+    }
+
+    @Test
+    public void preOrder() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            tree.add(i, "");
+        }
+        PrintToCollection printer = new PrintToCollection();
+        tree.preOrder(printer);
+        Assert.assertEquals(Arrays.asList(7, 3, 1, 0, 2, 5, 4, 6, 11, 9, 8, 10, 13, 12, 14), printer.getKeyStore());
+    }
+
+    @Test
+    public void postOrder() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            tree.add(i, "");
+        }
+        PrintToCollection printer = new PrintToCollection();
+        tree.postOrder(printer);
+        Assert.assertEquals(Arrays.asList(0, 2, 1, 4, 6, 5, 3, 8, 10, 9, 12, 14, 13, 11, 7), printer.getKeyStore());
+    }
+
+    @Test
+    public void add() throws Exception {
+        int[] keys = { 408, 68, 453, 418, 64, 485, 457, 111, 317, 155, 49, 274, 140, 95, 497, 479, 499, 483, 484 };
+        for (int key : keys) {
+            Assert.assertTrue(tree.add(key, ""));
+        }
+        Assert.assertEquals(19, tree.size());
+        Assert.assertEquals(5, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(408, 68, 457, 64, 155, 453, 485, 49, 111, 317, 418, 483, 497, 95, 140, 274, 479, 484, 499), printer.getKeyStore());
+        PrintToCollection in_order = new PrintToCollection();
+        tree.inOrder(in_order);
+        Assert.assertEquals(Arrays.asList(49, 64, 68, 95, 111, 140, 155, 274, 317, 408, 418, 453, 457, 479, 483, 484, 485, 497, 499), in_order.getKeyStore());
+    }
+
+    @Test
+    public void add_duplicate_fail() throws Exception {
+        Assert.assertTrue(tree.add(1, ""));
+        Assert.assertFalse(tree.add(1, ""));
+    }
+
+    @Test
+    public void remove1() throws Exception {
+        for (int i = 0; i <= 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        tree.remove(7);
+        tree.remove(4);
+        tree.remove(1);
+        tree.remove(2);
+        Assert.assertEquals(7, tree.size());
+        Assert.assertEquals(3, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(6, 3, 9, 0, 5, 8, 10), printer.getKeyStore());
+    }
+
+    @Test
+    public void remove2() throws Exception {
+        int[] keys = { 6, 4, 7, 1, 5, 8, 0, 2, 3 };
+        for (int key : keys) {
+            tree.add(key, "val_" + key);
+        }
+        tree.remove(7);
+        tree.remove(5);
+        tree.remove(2);
+        Assert.assertEquals(6, tree.size());
+        Assert.assertEquals(3, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(4, 1, 6, 0, 3, 8), printer.getKeyStore());
+    }
+
+    @Test
+    public void add_remove_fuzz() throws Exception {
+        Random random = new Random(1357);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            Integer number = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.putIfAbsent(number, "val_" + number) == null, tree.add(number, "val_" + number));
+            } else {
+                Assert.assertEquals(expected.remove(number) != null, tree.remove(number));
+            }
+        }
+        Assert.assertEquals(expected.size(), tree.size());
+        Iterator<Map.Entry<Integer, String>> iterator_exp = expected.entrySet().iterator();
+        for (Map.Entry<Integer, String> entry : tree) {
+            Map.Entry<Integer, String> expected_entry = iterator_exp.next();
+            Assert.assertEquals(expected_entry.getKey(), entry.getKey());
+            Assert.assertEquals(expected_entry.getValue(), entry.getValue());
+        }
+        Assert.assertFalse(iterator_exp.hasNext());
+        Assert.assertTrue(tree.height() <= 1.45 * (Math.log(tree.size() + 2) / Math.log(2)));
+    }
+
+    @Test
+    public void free_slots_reused() throws Exception {
+        ArrayAVLTree<Integer, String> avlTree = new ArrayAVLTree<>(10);
+        for (int i = 0; i < 10; i++) {
+            avlTree.add(i, "val_" + i);
+        }
+        Assert.assertEquals(10, avlTree.capacity());
+        for (int i = 0; i < 5; i++) {
+            avlTree.remove(i);
+        }
+        for (int i = 10; i < 15; i++) {
+            avlTree.add(i, "val_" + i);
+        }
+        Assert.assertEquals(10, avlTree.capacity());
+        avlTree.add(15, "val_15");
+        Assert.assertEquals(11, avlTree.size());
+        Assert.assertTrue(avlTree.capacity() > 10);
+        for (int i = 5; i < 16; i++) {
+            Assert.assertEquals("val_" + i, avlTree.getValue(i));
+        }
+    }
+
+    @Test
+    public void iterator() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        Iterator<Map.Entry<Integer, String>> iterator = tree.iterator();
+        int i = 0;
+        while (iterator.hasNext()) {
+            Assert.assertEquals("[" + i + "]=val_" + i, iterator.next().toString());
+            i++;
+        }
+        Assert.assertEquals(10, i);
+    }
+
+    @Test
+    public void iterator_setValue() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (Map.Entry<Integer, String> entry : tree) {
+            entry.setValue(entry.getValue() + "_set");
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("val_" + i + "_set", tree.getValue(i));
+        }
+    }
+
+    @Test
+    public void height() throws Exception {
+        for (int i = 0; i < 33; i++) {
+            if (i == 0) Assert.assertEquals(0, tree.height());
+            if (i == 1) Assert.assertEquals(1, tree.height());
+            if (i >= 2 && i < 4) Assert.assertEquals(2, tree.height());
+            if (i >= 4 && i < 8) Assert.assertEquals(3, tree.height());
+            if (i >= 8 && i < 16) Assert.assertEquals(4, tree.height());
+            if (i >= 16 && i < 32) Assert.assertEquals(5, tree.height());
+            if (i >= 32) Assert.assertEquals(6, tree.height());
+            tree.add(i, "");
+        }
+    }
+
+    @Test
+    public void clear() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        tree.clear();
+        Assert.assertTrue(tree.isEmpty() && tree.size() == 0);
+        Assert.assertFalse(tree.search(1));
+        tree.add(1, "one");
+        Assert.assertEquals("one", tree.getValue(1));
+    }
+
+    @Test
+    public void apply() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("val_" + i + "_appended", tree.apply(i, (String s) -> (s + "_appended")));
+            Assert.assertEquals("val_" + i + "_appended", tree.getValue(i));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getValue_fail() throws Exception {
+        tree.getValue(1);
+    }
+
+    @Test
+    public void searchValue() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(Integer.valueOf(i), tree.search("val_" + i));
+        }
+        Assert.assertNull(tree.search("error"));
+    }
+
+    @Test
+    public void searchKeys() throws Exception {
+        ArrayAVLTree<Integer, Integer> avlTree = new ArrayAVLTree<>();
+        for (int i = 0; i < 100; i++) {
+            avlTree.add(i, i * 10);
+        }
+        Collection<Integer> result = avlTree.searchKeys((i) -> (i >= 50 && i < 100));
+        Assert.assertEquals(50, result.size());
+        for (Integer r : result) {
+            Assert.assertTrue(r >= 500 && r < 1000);
+        }
+    }
+
+    @Test
+    public void searchValues() throws Exception {
+        ArrayAVLTree<Integer, Integer> avlTree = new ArrayAVLTree<>();
+        for (int i = 0; i < 100; i++) {
+            avlTree.add(i, i * 10);
+        }
+        Collection<Integer> result = avlTree.searchValues((i) -> (i >= 500 && i < 1000));
+        Assert.assertEquals(50, result.size());
+    }
+}
@@ -0,0 +1,228 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentAVLTreeTest {
+    private ConcurrentAVLTree<Integer, String> tree;
+
+    @Before
+    public void setUp() throws Exception {
+        tree = new ConcurrentAVLTree<>();
+    }
+
+    private static int checkNode(ConcurrentAVLTreeNode<Integer, String> node, ConcurrentAVLTreeNode<Integer, String> parent, Integer lo, Integer hi) {
+        if (node == null)
+            return 0;
+        Assert.assertSame(parent, node.parent);
+        Assert.assertTrue(lo == null || node.key > lo);
+        Assert.assertTrue(hi == null || node.key < hi);
+        Assert.assertFalse(ConcurrentAVLTreeNode.isChanging(node.version));
+        if (node.value == null)
+            Assert.assertTrue(node.left != null && node.right != null);
+        int l_height = checkNode(node.left, node, lo, node.key);
+        int r_height = checkNode(node.right, node, node.key, hi);
+        Assert.assertTrue(Math.abs(l_height - r_height) < 2);
+        Assert.assertEquals(Math.max(l_height, r_height) + 1, node.height);
+        return node.height;
+    }
+
+    private void checkTree() {
+        ConcurrentAVLTreeNode<Integer, String> root = tree.root();
+        if (root != null)
+            checkNode(root, root.parent, null, null);
+    }
+
+    @Test
+    public void add() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            Assert.assertTrue(tree.add(i, "v" + i));
+        }
+        Assert.assertFalse(tree.add(4, "x"));
+        Assert.assertEquals(15, tree.size());
+        Assert.assertEquals(4, tree.height());
+        Assert.assertEquals("v4", tree.getValue(4));
+        checkTree();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void add_fail() throws Exception {
+        tree.add(1, null);
+    }
+
+    @Test
+    public void getValue() throws Exception {
+        tree.add(1, "a");
+        Assert.assertEquals("a", tree.getValue(1));
+        Assert.assertEquals("a", tree.getValue(1, "b"));
+        Assert.assertEquals("b", tree.getValue(2, "b"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getValue_fail() throws Exception {
+        tree.add(1, "a");
+        tree.remove(1);
+        tree.getValue(1);
+    }
+
+    @Test
+    public void apply() throws Exception {
+        tree.add(1, "a");
+        Assert.assertEquals("ab", tree.apply(1, v -> v + "b"));
+        Assert.assertEquals("ab", tree.getValue(1));
+    }
+
+    @Test
+    public void remove_routing_nodes() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            tree.add(i, "v" + i);
+        }
+        Assert.assertTrue(tree.remove(7));
+        Assert.assertFalse(tree.remove(7));
+        Assert.assertFalse(tree.search(7));
+        Assert.assertEquals(14, tree.size());
+        checkTree();
+        Assert.assertTrue(tree.add(7, "again"));
+        Assert.assertEquals("again", tree.getValue(7));
+        for (int i = 0; i < 15; i++) {
+            Assert.assertTrue(tree.remove(i));
+            checkTree();
+        }
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertNull(tree.root());
+    }
+
+    @Test
+    public void add_remove_fuzz() throws Exception {
+        Random random = new Random(10);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.putIfAbsent(key, "v" + i) == null, tree.add(key, "v" + i));
+            } else {
+                Assert.assertEquals(expected.remove(key) != null, tree.remove(key));
+            }
+        }
+        checkTree();
+        Assert.assertEquals(expected.size(), tree.size());
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(tree));
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(expected.get(i), tree.getValue(i, null));
+        }
+    }
+
+    @Test
+    public void iterator() throws Exception {
+        Assert.assertFalse(tree.iterator().hasNext());
+        for (int i = 9; i >= 0; i--) {
+            tree.add(i, "v" + i);
+        }
+        Iterator<Map.Entry<Integer, String>> iterator = tree.iterator();
+        for (int i = 0; i < 10; i++) {
+            Map.Entry<Integer, String> entry = iterator.next();
+            Assert.assertEquals(Integer.valueOf(i), entry.getKey());
+            Assert.assertEquals("v" + i, entry.getValue());
+            if (i % 2 == 0)
+                iterator.remove();
+            tree.add(i + 100, "");
+        }
+        Assert.assertEquals(Integer.valueOf(100), iterator.next().getKey());
+        Assert.assertEquals(15, tree.size());
+        checkTree();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_fail() throws Exception {
+        tree.iterator().next();
+    }
+
+    @Test
+    public void clear() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            tree.add(i, "");
+        }
+        tree.clear();
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertEquals(0, tree.height());
+        Assert.assertFalse(tree.search(50));
+        Assert.assertFalse(tree.iterator().hasNext());
+    }
+
+    @Test
+    public void concurrent_readers_writers() throws Exception {
+        //Even keys are never removed so readers must always find them, odd keys are churned by the writers.
+        for (int i = 0; i < 2000; i += 2) {
+            tree.add(i, "v" + i);
+        }
+        AtomicBoolean stop = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            final int seed = w;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        int key = random.nextInt(1000) * 2 + 1;
+                        if (random.nextBoolean()) {
+                            tree.add(key, "v" + key);
+                        } else {
+                            tree.remove(key);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            final int seed = 100 + r;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    while (!stop.get()) {
+                        int key = random.nextInt(1000) * 2;
+                        if (!("v" + key).equals(tree.getValue(key, null)))
+                            throw new AssertionError("Key " + key + " not found.");
+                        int previous = -1;
+                        int evens = 0;
+                        for (Map.Entry<Integer, String> entry : tree) {
+                            if (entry.getKey() <= previous)
+                                throw new AssertionError("Iterator out of order at " + entry.getKey());
+                            if (entry.getKey() % 2 == 0)
+                                evens++;
+                            previous = entry.getKey();
+                        }
+                        if (evens != 1000)
+                            throw new AssertionError("Iterator returned " + evens + " stable keys.");
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        threads.get(0).join();
+        threads.get(1).join();
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+        checkTree();
+        int count = 0;
+        for (Map.Entry<Integer, String> ignored : tree) {
+            count++;
+        }
+        Assert.assertEquals(count, tree.size());
+    }
+}
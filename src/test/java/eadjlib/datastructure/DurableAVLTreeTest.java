@@ -0,0 +1,311 @@
+package eadjlib.datastructure;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DurableAVLTreeTest {
+    private Path directory;
+    private DurableAVLTree<Integer, String> tree;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("durable");
+        tree = open(DurableAVLTree.Durability.FLUSH);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        tree.close();
+        Files.deleteIfExists(directory.resolve("tree.wal"));
+        Files.deleteIfExists(directory.resolve("tree.snapshot"));
+        Files.deleteIfExists(directory);
+    }
+
+    private DurableAVLTree<Integer, String> open(DurableAVLTree.Durability durability) throws Exception {
+        return new DurableAVLTree<>(directory.toString(), "tree", IBinaryCodec.INTEGER, IBinaryCodec.STRING, durability);
+    }
+
+    private DurableAVLTree<Integer, String> reopen(DurableAVLTree.Durability durability) throws Exception {
+        tree.close();
+        tree = open(durability);
+        return tree;
+    }
+
+    private void assertContent(TreeMap<Integer, String> expected) {
+        Assert.assertEquals(expected.size(), tree.size());
+        expected.forEach((key, value) -> Assert.assertEquals(value, tree.getValue(key)));
+    }
+
+    @Test
+    public void recovery() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(tree.add(i, "v" + i));
+        }
+        Assert.assertFalse(tree.add(5, "x"));
+        Assert.assertTrue(tree.remove(10));
+        Assert.assertFalse(tree.remove(10));
+        Assert.assertEquals("v20!", tree.apply(20, v -> v + "!"));
+        reopen(DurableAVLTree.Durability.FLUSH);
+        Assert.assertEquals(99, tree.size());
+        Assert.assertFalse(tree.search(10));
+        Assert.assertEquals("v5", tree.getValue(5));
+        Assert.assertEquals("v20!", tree.getValue(20));
+    }
+
+    @Test
+    public void checkpoint() throws Exception {
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            tree.add(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        tree.checkpoint();
+        Assert.assertEquals(0, Files.size(directory.resolve("tree.wal")));
+        Assert.assertTrue(Files.exists(directory.resolve("tree.snapshot")));
+        tree.remove(0);
+        expected.remove(0);
+        tree.apply(1, v -> "x");
+        expected.put(1, "x");
+        reopen(DurableAVLTree.Durability.SYNC);
+        assertContent(expected);
+    }
+
+    @Test
+    public void checkpoint_interval() throws Exception {
+        tree.setCheckpointInterval(10);
+        for (int i = 0; i < 25; i++) {
+            tree.add(i, "v" + i);
+        }
+        Assert.assertTrue(Files.exists(directory.resolve("tree.snapshot")));
+        Assert.assertTrue(Files.size(directory.resolve("tree.wal")) > 0);
+        reopen(DurableAVLTree.Durability.FLUSH);
+        Assert.assertEquals(25, tree.size());
+    }
+
+    @Test
+    public void checkpoint_size() throws Exception {
+        tree.setCheckpointSize(1024);
+        Assert.assertEquals(1024, tree.getCheckpointSize());
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            tree.add(i, "value" + i);
+            expected.put(i, "value" + i);
+        }
+        Assert.assertTrue(Files.exists(directory.resolve("tree.snapshot")));
+        Assert.assertTrue(Files.size(directory.resolve("tree.wal")) < 1024);
+        reopen(DurableAVLTree.Durability.FLUSH);
+        assertContent(expected);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setCheckpointSize_fail() throws Exception {
+        tree.setCheckpointSize(0);
+    }
+
+    @Test
+    public void replay_regions() throws Exception {
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(26);
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                if (tree.remove(key))
+                    expected.remove(key);
+            } else {
+                char[] chars = new char[random.nextInt(10) == 0 ? 100 : random.nextInt(8)];
+                Arrays.fill(chars, 'x');
+                String value = new String(chars);
+                if (tree.add(key, value))
+                    expected.put(key, value);
+            }
+        }
+        tree.close();
+        Path wal = directory.resolve("tree.wal");
+        long size = Files.size(wal);
+        Files.write(wal, new byte[]{0, 0, 0, 9, 1, 2, 3}, StandardOpenOption.APPEND);
+        for (int region : new int[]{9, 64, 4096}) { //records straddling and larger than the mapped regions
+            tree = new DurableAVLTree<>(directory.toString(), "tree", IBinaryCodec.INTEGER, IBinaryCodec.STRING, DurableAVLTree.Durability.FLUSH, region);
+            assertContent(expected);
+            Assert.assertEquals(size, Files.size(wal));
+            tree.close();
+        }
+        tree = open(DurableAVLTree.Durability.FLUSH);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setCheckpointInterval_fail() throws Exception {
+        tree.setCheckpointInterval(0);
+    }
+
+    @Test
+    public void replay_over_newer_snapshot() throws Exception {
+        //Crash between the snapshot being written and the log being truncated
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 50; i++) {
+            tree.add(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        for (int i = 0; i < 50; i += 3) {
+            tree.remove(i);
+            expected.remove(i);
+        }
+        tree.add(0, "again");
+        expected.put(0, "again");
+        tree.apply(1, v -> v + "!");
+        expected.put(1, "v1!");
+        Path backup = directory.resolve("tree.wal.bak");
+        Files.copy(directory.resolve("tree.wal"), backup);
+        tree.checkpoint();
+        tree.close();
+        Files.move(backup, directory.resolve("tree.wal"), StandardCopyOption.REPLACE_EXISTING);
+        tree = open(DurableAVLTree.Durability.FLUSH);
+        assertContent(expected);
+    }
+
+    @Test
+    public void torn_record() throws Exception {
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 20; i++) {
+            tree.add(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        tree.close();
+        Path wal = directory.resolve("tree.wal");
+        long size = Files.size(wal);
+        Files.write(wal, new byte[]{0, 0, 0, 9, 1, 2, 3, 4, 1, 0}, StandardOpenOption.APPEND);
+        tree = open(DurableAVLTree.Durability.FLUSH);
+        assertContent(expected);
+        Assert.assertEquals(size, Files.size(wal));
+        tree.add(100, "v100");
+        expected.put(100, "v100");
+        reopen(DurableAVLTree.Durability.FLUSH);
+        assertContent(expected);
+    }
+
+    @Test
+    public void async() throws Exception {
+        tree = reopen(DurableAVLTree.Durability.ASYNC);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(20);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextBoolean()) {
+                if (tree.add(key, "v" + i))
+                    expected.put(key, "v" + i);
+            } else if (tree.remove(key)) {
+                expected.remove(key);
+            }
+        }
+        reopen(DurableAVLTree.Durability.ASYNC);
+        assertContent(expected);
+    }
+
+    @Test
+    public void concurrent_group_commit() throws Exception {
+        tree = reopen(DurableAVLTree.Durability.SYNC);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            final int id = w;
+            writers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        tree.add(id * 1000 + i, "v" + i);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+        reopen(DurableAVLTree.Durability.SYNC);
+        Assert.assertEquals(800, tree.size());
+        Assert.assertEquals("v199", tree.getValue(3199));
+    }
+
+    @Test
+    public void codec_failure() throws Exception {
+        DurableAVLTree<Integer, Integer> numbers = new DurableAVLTree<>(directory.toString(), "numbers", IBinaryCodec.INTEGER, IBinaryCodec.INTEGER, DurableAVLTree.Durability.SYNC);
+        try {
+            Assert.assertTrue(numbers.add(1, 10));
+            try {
+                numbers.add(2, null);
+                Assert.fail("Null value should not be encodable.");
+            } catch (NullPointerException e) {
+                Assert.assertFalse(numbers.search(2));
+            }
+            try {
+                numbers.apply(1, v -> null);
+                Assert.fail("Null value should not be encodable.");
+            } catch (NullPointerException e) {
+                Assert.assertEquals(10, (int) numbers.getValue(1));
+            }
+            Assert.assertTrue(numbers.add(3, 30));
+            Assert.assertTrue(numbers.add(4, 40));
+            numbers.close();
+            numbers = new DurableAVLTree<>(directory.toString(), "numbers", IBinaryCodec.INTEGER, IBinaryCodec.INTEGER, DurableAVLTree.Durability.SYNC);
+            Assert.assertEquals(3, numbers.size());
+            Assert.assertEquals(30, (int) numbers.getValue(3));
+            Assert.assertEquals(40, (int) numbers.getValue(4));
+        } finally {
+            numbers.close();
+            Files.deleteIfExists(directory.resolve("numbers.wal"));
+        }
+    }
+
+    @Test
+    public void write_failure() throws Exception {
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        Field wal_field = DurableAVLTree.class.getDeclaredField("wal");
+        wal_field.setAccessible(true);
+        Field channel_field = wal_field.getType().getDeclaredField("channel");
+        channel_field.setAccessible(true);
+        ((FileChannel) channel_field.get(wal_field.get(tree))).close(); //log writes and truncations now fail
+        try {
+            tree.add(10, "v10");
+            Assert.fail("Log write should have failed.");
+        } catch (IOException e) {
+            Assert.assertTrue(tree.search(10)); //applied, record kept for the next write
+        }
+        try {
+            tree.add(11, "v11");
+            Assert.fail("Log should be in a failed state.");
+        } catch (IOException e) {
+            Assert.assertFalse(tree.search(11));
+        }
+        try {
+            tree.close();
+        } catch (IOException e) {
+            //expected
+        }
+        tree = open(DurableAVLTree.Durability.FLUSH);
+        assertContent(expected);
+    }
+}
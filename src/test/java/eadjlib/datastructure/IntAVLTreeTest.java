@@ -0,0 +1,196 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class IntAVLTreeTest {
+    private IntAVLTree<String> tree;
+
+    class PrintToCollection implements IPrintFunction {
+        ArrayList<Integer> key_store = new ArrayList<>();
+
+        @Override
+        public void call(Object... objects) {
+            //void
+        }
+
+        @Override
+        public void call(Object key, Object value) {
+            this.key_store.add((Integer) key);
+        }
+
+        public ArrayList<Integer> getKeyStore() {
+            return this.key_store;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        tree = new IntAVLTree<>();
+    }
+
+    @Test
+    public void levelOrder() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            tree.add(i, "");
+        }
+        Assert.assertEquals(15, tree.size());
+        Assert.assertEquals(4, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(7, 3, 11, 1, 5, 9, 13, 0, 2, 4, 6, 8, 10, 12, 14), printer.getKeyStore());
+    }
+
+    @Test
+    public void add() throws Exception {
+        int[] keys = { 408, 68, 453, 418, 64, 485, 457, 111, 317, 155, 49, 274, 140, 95, 497, 479, 499, 483, 484 };
+        for (int key : keys) {
+            Assert.assertTrue(tree.add(key, ""));
+        }
+        Assert.assertEquals(19, tree.size());
+        Assert.assertEquals(5, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(408, 68, 457, 64, 155, 453, 485, 49, 111, 317, 418, 483, 497, 95, 140, 274, 479, 484, 499), printer.getKeyStore());
+    }
+
+    @Test
+    public void add_duplicate_fail() throws Exception {
+        Assert.assertTrue(tree.add(1, ""));
+        Assert.assertFalse(tree.add(1, ""));
+        Assert.assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void add_extremes() throws Exception {
+        Assert.assertTrue(tree.add(Integer.MAX_VALUE, "max"));
+        Assert.assertTrue(tree.add(Integer.MIN_VALUE, "min"));
+        Assert.assertTrue(tree.add(0, "zero"));
+        Iterator<IntAVLTreeNode<String>> iterator = tree.iterator();
+        Assert.assertEquals(Integer.MIN_VALUE, iterator.next().key());
+        Assert.assertEquals(0, iterator.next().key());
+        Assert.assertEquals(Integer.MAX_VALUE, iterator.next().key());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void remove() throws Exception {
+        for (int i = 0; i <= 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        Assert.assertTrue(tree.remove(7));
+        Assert.assertTrue(tree.remove(4));
+        Assert.assertTrue(tree.remove(1));
+        Assert.assertTrue(tree.remove(2));
+        Assert.assertFalse(tree.remove(2));
+        Assert.assertEquals(7, tree.size());
+        Assert.assertEquals(3, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(6, 3, 9, 0, 5, 8, 10), printer.getKeyStore());
+    }
+
+    @Test
+    public void add_remove_fuzz() throws Exception {
+        Random random = new Random(4321);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int number = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(number), tree.add(number, "val_" + number));
+            } else {
+                Assert.assertEquals(expected.remove(number), tree.remove(number));
+            }
+        }
+        Assert.assertEquals(expected.size(), tree.size());
+        Iterator<Integer> iterator_exp = expected.iterator();
+        for (IntAVLTreeNode<String> node : tree) {
+            Assert.assertEquals((int) iterator_exp.next(), node.key());
+            Assert.assertEquals("val_" + node.key(), node.value());
+            Assert.assertTrue(node.isBalanced());
+        }
+        Assert.assertFalse(iterator_exp.hasNext());
+    }
+
+    @Test
+    public void getValue() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("val_" + i, tree.getValue(i));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getValue_fail() throws Exception {
+        tree.getValue(1);
+    }
+
+    @Test
+    public void apply() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("val_" + i + "_appended", tree.apply(i, (String s) -> (s + "_appended")));
+            Assert.assertEquals("val_" + i + "_appended", tree.getValue(i));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void apply_fail() throws Exception {
+        tree.add(1, "val_1");
+        tree.apply(2, (String s) -> (s + "_appended"));
+    }
+
+    @Test
+    public void search() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(tree.search(i));
+            Assert.assertEquals(Integer.valueOf(i), tree.search("val_" + i));
+        }
+        Assert.assertFalse(tree.search(-1));
+        Assert.assertNull(tree.search("error"));
+    }
+
+    @Test
+    public void searchKeys() throws Exception {
+        IntAVLTree<Integer> avlTree = new IntAVLTree<>();
+        for (int i = 0; i < 100; i++) {
+            avlTree.add(i, i * 10);
+        }
+        Collection<Integer> result = avlTree.searchKeys((k) -> (k >= 50 && k < 100));
+        Assert.assertEquals(50, result.size());
+        for (Integer r : result) {
+            Assert.assertTrue(r >= 500 && r < 1000);
+        }
+    }
+
+    @Test
+    public void searchValues() throws Exception {
+        IntAVLTree<Integer> avlTree = new IntAVLTree<>();
+        for (int i = 0; i < 100; i++) {
+            avlTree.add(i, i * 10);
+        }
+        Collection<Integer> result = avlTree.searchValues((v) -> (v >= 500 && v < 1000));
+        Assert.assertEquals(50, result.size());
+    }
+
+    @Test
+    public void clear() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        tree.clear();
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertEquals(0, tree.height());
+        Assert.assertFalse(tree.iterator().hasNext());
+    }
+}
@@ -0,0 +1,196 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class LongAVLTreeTest {
+    private LongAVLTree<String> tree;
+
+    class PrintToCollection implements IPrintFunction {
+        ArrayList<Long> key_store = new ArrayList<>();
+
+        @Override
+        public void call(Object... objects) {
+            //void
+        }
+
+        @Override
+        public void call(Object key, Object value) {
+            this.key_store.add((Long) key);
+        }
+
+        public ArrayList<Long> getKeyStore() {
+            return this.key_store;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        tree = new LongAVLTree<>();
+    }
+
+    @Test
+    public void levelOrder() throws Exception {
+        for (long i = 0; i < 15; i++) {
+            tree.add(i, "");
+        }
+        Assert.assertEquals(15, tree.size());
+        Assert.assertEquals(4, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(7L, 3L, 11L, 1L, 5L, 9L, 13L, 0L, 2L, 4L, 6L, 8L, 10L, 12L, 14L), printer.getKeyStore());
+    }
+
+    @Test
+    public void add() throws Exception {
+        long[] keys = { 408, 68, 453, 418, 64, 485, 457, 111, 317, 155, 49, 274, 140, 95, 497, 479, 499, 483, 484 };
+        for (long key : keys) {
+            Assert.assertTrue(tree.add(key, ""));
+        }
+        Assert.assertEquals(19, tree.size());
+        Assert.assertEquals(5, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(408L, 68L, 457L, 64L, 155L, 453L, 485L, 49L, 111L, 317L, 418L, 483L, 497L, 95L, 140L, 274L, 479L, 484L, 499L), printer.getKeyStore());
+    }
+
+    @Test
+    public void add_duplicate_fail() throws Exception {
+        Assert.assertTrue(tree.add(1, ""));
+        Assert.assertFalse(tree.add(1, ""));
+        Assert.assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void add_extremes() throws Exception {
+        Assert.assertTrue(tree.add(Long.MAX_VALUE, "max"));
+        Assert.assertTrue(tree.add(Long.MIN_VALUE, "min"));
+        Assert.assertTrue(tree.add(0, "zero"));
+        Iterator<LongAVLTreeNode<String>> iterator = tree.iterator();
+        Assert.assertEquals(Long.MIN_VALUE, iterator.next().key());
+        Assert.assertEquals(0, iterator.next().key());
+        Assert.assertEquals(Long.MAX_VALUE, iterator.next().key());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void remove() throws Exception {
+        for (long i = 0; i <= 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        Assert.assertTrue(tree.remove(7));
+        Assert.assertTrue(tree.remove(4));
+        Assert.assertTrue(tree.remove(1));
+        Assert.assertTrue(tree.remove(2));
+        Assert.assertFalse(tree.remove(2));
+        Assert.assertEquals(7, tree.size());
+        Assert.assertEquals(3, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(6L, 3L, 9L, 0L, 5L, 8L, 10L), printer.getKeyStore());
+    }
+
+    @Test
+    public void add_remove_fuzz() throws Exception {
+        Random random = new Random(4321);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            long number = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(number), tree.add(number, "val_" + number));
+            } else {
+                Assert.assertEquals(expected.remove(number), tree.remove(number));
+            }
+        }
+        Assert.assertEquals(expected.size(), tree.size());
+        Iterator<Long> iterator_exp = expected.iterator();
+        for (LongAVLTreeNode<String> node : tree) {
+            Assert.assertEquals((long) iterator_exp.next(), node.key());
+            Assert.assertEquals("val_" + node.key(), node.value());
+            Assert.assertTrue(node.isBalanced());
+        }
+        Assert.assertFalse(iterator_exp.hasNext());
+    }
+
+    @Test
+    public void getValue() throws Exception {
+        for (long i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (long i = 0; i < 10; i++) {
+            Assert.assertEquals("val_" + i, tree.getValue(i));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getValue_fail() throws Exception {
+        tree.getValue(1);
+    }
+
+    @Test
+    public void apply() throws Exception {
+        for (long i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (long i = 0; i < 10; i++) {
+            Assert.assertEquals("val_" + i + "_appended", tree.apply(i, (String s) -> (s + "_appended")));
+            Assert.assertEquals("val_" + i + "_appended", tree.getValue(i));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void apply_fail() throws Exception {
+        tree.add(1, "val_1");
+        tree.apply(2, (String s) -> (s + "_appended"));
+    }
+
+    @Test
+    public void search() throws Exception {
+        for (long i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        for (long i = 0; i < 10; i++) {
+            Assert.assertTrue(tree.search(i));
+            Assert.assertEquals(Long.valueOf(i), tree.search("val_" + i));
+        }
+        Assert.assertFalse(tree.search(-1));
+        Assert.assertNull(tree.search("error"));
+    }
+
+    @Test
+    public void searchKeys() throws Exception {
+        LongAVLTree<Integer> avlTree = new LongAVLTree<>();
+        for (int i = 0; i < 100; i++) {
+            avlTree.add(i, i * 10);
+        }
+        Collection<Integer> result = avlTree.searchKeys((k) -> (k >= 50 && k < 100));
+        Assert.assertEquals(50, result.size());
+        for (Integer r : result) {
+            Assert.assertTrue(r >= 500 && r < 1000);
+        }
+    }
+
+    @Test
+    public void searchValues() throws Exception {
+        LongAVLTree<Integer> avlTree = new LongAVLTree<>();
+        for (int i = 0; i < 100; i++) {
+            avlTree.add(i, i * 10);
+        }
+        Collection<Integer> result = avlTree.searchValues((v) -> (v >= 500 && v < 1000));
+        Assert.assertEquals(50, result.size());
+    }
+
+    @Test
+    public void clear() throws Exception {
+        for (long i = 0; i < 10; i++) {
+            tree.add(i, "val_" + i);
+        }
+        tree.clear();
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertEquals(0, tree.height());
+        Assert.assertFalse(tree.iterator().hasNext());
+    }
+}
@@ -0,0 +1,136 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class LongLongAVLTreeTest {
+    private LongLongAVLTree tree;
+
+    class PrintToCollection implements IPrintFunction {
+        ArrayList<Long> key_store = new ArrayList<>();
+
+        @Override
+        public void call(Object... objects) {
+            //void
+        }
+
+        @Override
+        public void call(Object key, Object value) {
+            this.key_store.add((Long) key);
+        }
+
+        public ArrayList<Long> getKeyStore() {
+            return this.key_store;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        tree = new LongLongAVLTree();
+    }
+
+    @Test
+    public void levelOrder() throws Exception {
+        for (long i = 0; i < 15; i++) {
+            tree.add(i, i);
+        }
+        Assert.assertEquals(15, tree.size());
+        Assert.assertEquals(4, tree.height());
+        PrintToCollection printer = new PrintToCollection();
+        tree.levelOrder(printer);
+        Assert.assertEquals(Arrays.asList(7L, 3L, 11L, 1L, 5L, 9L, 13L, 0L, 2L, 4L, 6L, 8L, 10L, 12L, 14L), printer.getKeyStore());
+    }
+
+    @Test
+    public void add_duplicate_fail() throws Exception {
+        Assert.assertTrue(tree.add(1, 10));
+        Assert.assertFalse(tree.add(1, 20));
+        Assert.assertEquals(10, tree.getValue(1));
+    }
+
+    @Test
+    public void add_remove_fuzz() throws Exception {
+        Random random = new Random(2468);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long number = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.putIfAbsent(number, number * 3) == null, tree.add(number, number * 3));
+            } else {
+                Assert.assertEquals(expected.remove(number) != null, tree.remove(number));
+            }
+        }
+        Assert.assertEquals(expected.size(), tree.size());
+        Iterator<Map.Entry<Long, Long>> iterator_exp = expected.entrySet().iterator();
+        for (LongLongAVLTreeNode node : tree) {
+            Map.Entry<Long, Long> entry = iterator_exp.next();
+            Assert.assertEquals((long) entry.getKey(), node.key());
+            Assert.assertEquals((long) entry.getValue(), node.value());
+            Assert.assertTrue(node.isBalanced());
+        }
+        Assert.assertFalse(iterator_exp.hasNext());
+    }
+
+    @Test
+    public void getValue() throws Exception {
+        for (long i = 0; i < 10; i++) {
+            tree.add(i, i * 100);
+        }
+        for (long i = 0; i < 10; i++) {
+            Assert.assertEquals(i * 100, tree.getValue(i));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getValue_fail() throws Exception {
+        tree.getValue(1);
+    }
+
+    @Test
+    public void apply() throws Exception {
+        for (long i = 0; i < 10; i++) {
+            tree.add(i, i);
+        }
+        for (long i = 0; i < 10; i++) {
+            Assert.assertEquals(i + 1, tree.apply(i, (v) -> (v + 1)));
+            Assert.assertEquals(i + 1, tree.getValue(i));
+        }
+    }
+
+    @Test
+    public void search() throws Exception {
+        for (long i = 0; i < 10; i++) {
+            tree.add(i, i * 100);
+        }
+        Assert.assertTrue(tree.search(5));
+        Assert.assertFalse(tree.search(10));
+        Assert.assertEquals(Long.valueOf(5), tree.searchValue(500));
+        Assert.assertNull(tree.searchValue(501));
+    }
+
+    @Test
+    public void searchKeys() throws Exception {
+        for (long i = 0; i < 100; i++) {
+            tree.add(i, i * 10);
+        }
+        long[] result = tree.searchKeys((k) -> (k >= 50 && k < 100));
+        Assert.assertEquals(50, result.length);
+        for (long r : result) {
+            Assert.assertTrue(r >= 500 && r < 1000);
+        }
+    }
+
+    @Test
+    public void searchValues() throws Exception {
+        for (long i = 0; i < 100; i++) {
+            tree.add(i, i * 10);
+        }
+        long[] result = tree.searchValues((v) -> (v >= 500 && v < 700));
+        Assert.assertEquals(20, result.length);
+        Assert.assertEquals(500, result[0]);
+        Assert.assertEquals(690, result[19]);
+    }
+}
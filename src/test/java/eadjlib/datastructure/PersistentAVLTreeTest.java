@@ -0,0 +1,172 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PersistentAVLTreeTest {
+    private PersistentAVLTree<Integer, String> tree;
+
+    @Before
+    public void setUp() throws Exception {
+        tree = new PersistentAVLTree<>();
+    }
+
+    private static int checkNode(PersistentAVLTreeNode<Integer, String> node, Integer lo, Integer hi) {
+        if (node == null)
+            return 0;
+        Assert.assertTrue(lo == null || node.key > lo);
+        Assert.assertTrue(hi == null || node.key < hi);
+        int l_height = checkNode(node.left, lo, node.key);
+        int r_height = checkNode(node.right, node.key, hi);
+        Assert.assertTrue(Math.abs(l_height - r_height) < 2);
+        Assert.assertEquals(Math.max(l_height, r_height) + 1, node.height());
+        Assert.assertEquals(PersistentAVLTreeNode.size(node.left) + PersistentAVLTreeNode.size(node.right) + 1, node.size());
+        return node.height();
+    }
+
+    @Test
+    public void add() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            Assert.assertTrue(tree.add(i, "v" + i));
+        }
+        Assert.assertFalse(tree.add(3, "x"));
+        Assert.assertEquals(15, tree.size());
+        Assert.assertEquals(4, tree.height());
+        Assert.assertEquals("v3", tree.getValue(3));
+        checkNode(tree.root(), null, null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getValue_fail() throws Exception {
+        tree.getValue(1);
+    }
+
+    @Test
+    public void apply() throws Exception {
+        tree.add(1, "a");
+        PersistentAVLTree<Integer, String> snapshot = tree.snapshot();
+        Assert.assertEquals("ab", tree.apply(1, v -> v + "b"));
+        Assert.assertEquals("ab", tree.getValue(1));
+        Assert.assertEquals("a", snapshot.getValue(1));
+    }
+
+    @Test
+    public void add_remove_fuzz() throws Exception {
+        Random random = new Random(12);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.putIfAbsent(key, "v" + i) == null, tree.add(key, "v" + i));
+            } else {
+                Assert.assertEquals(expected.remove(key) != null, tree.remove(key));
+            }
+        }
+        checkNode(tree.root(), null, null);
+        Assert.assertEquals(expected.size(), tree.size());
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(tree));
+        Assert.assertEquals(expected.headMap(500).size(), tree.rank(500));
+    }
+
+    @Test
+    public void snapshot() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            tree.add(i, "v" + i);
+        }
+        PersistentAVLTree<Integer, String> snapshot = tree.snapshot();
+        Assert.assertSame(tree.root(), snapshot.root());
+        for (int i = 0; i < 100; i += 2) {
+            tree.remove(i);
+        }
+        tree.add(1000, "");
+        Assert.assertEquals(51, tree.size());
+        Assert.assertEquals(100, snapshot.size());
+        checkNode(snapshot.root(), null, null);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("v" + i, snapshot.getValue(i));
+        }
+        Assert.assertFalse(snapshot.search(1000));
+        snapshot.clear();
+        Assert.assertTrue(snapshot.isEmpty());
+        Assert.assertEquals(51, tree.size());
+    }
+
+    @Test
+    public void path_copying() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            tree.add(i, "");
+        }
+        PersistentAVLTreeNode<Integer, String> before = tree.root();
+        tree.apply(0, v -> "x");
+        PersistentAVLTreeNode<Integer, String> after = tree.root();
+        Assert.assertNotSame(before, after);
+        Assert.assertSame(before.right, after.right);
+        Assert.assertNotSame(before.left, after.left);
+        Assert.assertSame(before.left.right, after.left.right);
+    }
+
+    @Test
+    public void iterator() throws Exception {
+        for (int i = 9; i >= 0; i--) {
+            tree.add(i, "v" + i);
+        }
+        Iterator<Map.Entry<Integer, String>> iterator = tree.iterator();
+        tree.clear();
+        for (int i = 0; i < 10; i++) {
+            Map.Entry<Integer, String> entry = iterator.next();
+            Assert.assertEquals(Integer.valueOf(i), entry.getKey());
+            Assert.assertEquals("v" + i, entry.getValue());
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void entry_setValue_fail() throws Exception {
+        tree.add(1, "");
+        tree.iterator().next().setValue("x");
+    }
+
+    @Test
+    public void concurrent_snapshot_readers() throws Exception {
+        AtomicBoolean stop = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (!stop.get()) {
+                        //The writer only ever adds key i with i - 1 already in the tree so any version holds 0..n-1
+                        PersistentAVLTree<Integer, String> snapshot = tree.snapshot();
+                        int size = snapshot.size();
+                        int expected = 0;
+                        for (Map.Entry<Integer, String> entry : snapshot) {
+                            if (entry.getKey() != expected++)
+                                throw new AssertionError("Unexpected key " + entry.getKey());
+                        }
+                        if (expected != size)
+                            throw new AssertionError("Snapshot changed size.");
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        for (int i = 0; i < 20000; i++) {
+            tree.add(i, "");
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+    }
+}
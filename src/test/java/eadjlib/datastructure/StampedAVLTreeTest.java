@@ -0,0 +1,157 @@
+package eadjlib.datastructure;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class StampedAVLTreeTest {
+    private StampedAVLTree<Integer, String> tree;
+
+    @Before
+    public void setUp() throws Exception {
+        tree = new StampedAVLTree<>();
+    }
+
+    @Test
+    public void add_remove_getValue() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(tree.add(i, "v" + i));
+        }
+        Assert.assertFalse(tree.add(3, "x"));
+        Assert.assertEquals(20, tree.size());
+        Assert.assertEquals("v3", tree.getValue(3));
+        Assert.assertTrue(tree.search(19));
+        Assert.assertTrue(tree.remove(19));
+        Assert.assertFalse(tree.remove(19));
+        Assert.assertFalse(tree.search(19));
+        Assert.assertEquals("v3!", tree.apply(3, v -> v + "!"));
+        Assert.assertEquals("v3!", tree.getValue(3));
+        tree.clear();
+        Assert.assertTrue(tree.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getValue_fail() throws Exception {
+        tree.getValue(1);
+    }
+
+    @Test
+    public void range_reads() throws Exception {
+        for (int i = 0; i < 100; i += 2) {
+            tree.add(i, "v" + i);
+        }
+        Assert.assertEquals(5, tree.rank(10));
+        Assert.assertEquals(5, tree.countRange(10, 20));
+        Assert.assertEquals(0, tree.countRange(20, 10));
+        Assert.assertEquals(Arrays.asList("v10", "v12", "v14", "v16", "v18"), tree.searchRange(9, 20));
+        Assert.assertTrue(tree.searchRange(200, 300).isEmpty());
+    }
+
+    @Test
+    public void deep_tree_read_lock_fallback() throws Exception {
+        //consistent tree deeper than the optimistic depth bound: reads must fall back to an unbounded walk
+        int count = 300;
+        AVLTreeNode<Integer, String> root = null;
+        for (int i = count - 1; i >= 0; i--) {
+            AVLTreeNode<Integer, String> node = new AVLTreeNode<>(null, i, "v" + i);
+            node.right = root;
+            if (root != null)
+                root.parent = node;
+            node.size = count - i;
+            root = node;
+        }
+        AVLTree<Integer, String> chain = new AVLTree<>();
+        Field root_field = AVLTree.class.getDeclaredField("root");
+        root_field.setAccessible(true);
+        root_field.set(chain, root);
+        Field count_field = AVLTree.class.getDeclaredField("node_count");
+        count_field.setAccessible(true);
+        count_field.set(chain, count);
+        tree = new StampedAVLTree<>(chain);
+        Assert.assertEquals("v299", tree.getValue(299));
+        Assert.assertTrue(tree.search(250));
+        Assert.assertFalse(tree.search(count));
+        Assert.assertEquals(280, tree.rank(280));
+        Assert.assertEquals(10, tree.countRange(200, 210));
+        Assert.assertEquals(Arrays.asList("v290", "v291"), tree.searchRange(290, 292));
+        Assert.assertTrue(tree.getFallbackReadCount() > 0);
+    }
+
+    @Test
+    public void counters() throws Exception {
+        tree.add(1, "a");
+        tree.remove(2);
+        for (int i = 0; i < 10; i++) {
+            tree.search(1);
+        }
+        Assert.assertEquals(2, tree.getWriteCount());
+        Assert.assertEquals(10, tree.getOptimisticReadCount());
+        Assert.assertEquals(0, tree.getFallbackReadCount());
+        Assert.assertEquals(0, tree.getFallbackRate(), 0);
+        tree.resetCounters();
+        Assert.assertEquals(0, tree.getWriteCount());
+        Assert.assertEquals(0, tree.getOptimisticReadCount());
+    }
+
+    @Test
+    public void concurrent_readers_writers() throws Exception {
+        //Even keys are never removed so readers must always find them, odd keys are churned by the writer.
+        for (int i = 0; i < 2000; i += 2) {
+            tree.add(i, "v" + i);
+        }
+        tree.resetCounters();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        final long[] reads = new long[4];
+        for (int r = 0; r < reads.length; r++) {
+            final int id = r;
+            readers.add(new Thread(() -> {
+                Random random = new Random(id);
+                try {
+                    while (!stop.get()) {
+                        int key = random.nextInt(1000) * 2;
+                        if (!("v" + key).equals(tree.getValue(key)))
+                            throw new AssertionError("Key " + key + " not found.");
+                        if (tree.countRange(key, key + 1) != 1)
+                            throw new AssertionError("Key " + key + " not counted.");
+                        if (!tree.searchRange(key, key + 1).equals(Collections.singletonList("v" + key)))
+                            throw new AssertionError("Key " + key + " not in range.");
+                        reads[id] += 3;
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000) * 2 + 1;
+            if (random.nextBoolean()) {
+                tree.add(key, "v" + key);
+            } else {
+                tree.remove(key);
+            }
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+        long total = 0;
+        for (long count : reads) {
+            total += count;
+        }
+        Assert.assertEquals(20000, tree.getWriteCount());
+        Assert.assertEquals(total, tree.getOptimisticReadCount() + tree.getFallbackReadCount());
+    }
+}
@@ -0,0 +1,59 @@
+package eadjlib.logger.fileIO;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class BinaryFileInputTest {
+    private BinaryFileInput in = null;
+
+    @After
+    public void tearDown() throws Exception {
+        if (in.isOpen()) in.closeChannel();
+        in.deleteFile();
+        in = null;
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        BinaryFileOutput out = new BinaryFileOutput("", "testBinaryRead.test");
+        out.append(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        out.closeChannel();
+        in = new BinaryFileInput("", "testBinaryRead.test");
+        ByteBuffer buffer = in.read();
+        assertFalse(in.isOpen());
+        assertEquals(3, buffer.remaining());
+        assertEquals(1, buffer.get());
+        assertEquals(2, buffer.get());
+        assertEquals(3, buffer.get());
+    }
+
+    @Test
+    public void testReadRegion() throws Exception {
+        BinaryFileOutput out = new BinaryFileOutput("", "testBinaryReadRegion.test");
+        out.append(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}));
+        out.closeChannel();
+        in = new BinaryFileInput("", "testBinaryReadRegion.test");
+        assertEquals(5, in.size());
+        ByteBuffer buffer = in.read(1, 3);
+        assertTrue(in.isOpen());
+        assertEquals(3, buffer.remaining());
+        assertEquals(2, buffer.get());
+        assertEquals(3, buffer.get());
+        assertEquals(4, buffer.get());
+        assertEquals(5, in.read(4, 1).get());
+    }
+
+    @Test
+    public void testCloseChannel() throws Exception {
+        BinaryFileOutput out = new BinaryFileOutput("", "testBinaryCloseChannel.test");
+        out.closeChannel();
+        in = new BinaryFileInput("", "testBinaryCloseChannel.test");
+        assertTrue(in.isOpen());
+        in.closeChannel();
+        assertFalse(in.isOpen());
+    }
+}
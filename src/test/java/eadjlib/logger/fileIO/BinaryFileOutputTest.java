@@ -0,0 +1,48 @@
+package eadjlib.logger.fileIO;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class BinaryFileOutputTest {
+    private BinaryFileOutput out = null;
+
+    @After
+    public void tearDown() throws Exception {
+        if (out.isOpen()) out.closeChannel();
+        out.deleteFile();
+        out = null;
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        out = new BinaryFileOutput("", "testAppend.test");
+        out.truncate(0);
+        out.append(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        out.append(ByteBuffer.wrap(new byte[]{4, 5}));
+        out.force();
+        assertEquals(5, out.size());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Files.readAllBytes(out.getFilePath()));
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        out = new BinaryFileOutput("", "testTruncate.test");
+        out.append(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        out.truncate(1);
+        out.append(ByteBuffer.wrap(new byte[]{9}));
+        assertArrayEquals(new byte[]{1, 9}, Files.readAllBytes(out.getFilePath()));
+    }
+
+    @Test
+    public void testCloseChannel() throws Exception {
+        out = new BinaryFileOutput("", "testCloseChannel.test");
+        assertTrue(out.isOpen());
+        out.closeChannel();
+        assertFalse(out.isOpen());
+    }
+}